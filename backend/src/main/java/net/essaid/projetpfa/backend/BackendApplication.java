@@ -3,9 +3,11 @@ package net.essaid.projetpfa.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAsync // Activer le support des méthodes asynchrones
+@EnableScheduling // Tâches planifiées (recalcul des conflits)
 public class BackendApplication {
 
     public static void main(String[] args) {
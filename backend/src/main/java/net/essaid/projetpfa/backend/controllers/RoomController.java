@@ -2,12 +2,15 @@ package net.essaid.projetpfa.backend.controllers;
 
 import net.essaid.projetpfa.backend.dto.RoomRequestDTO;
 import net.essaid.projetpfa.backend.dto.RoomResponseDTO;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
 import net.essaid.projetpfa.backend.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,6 +25,22 @@ public class RoomController {
         return roomService.getAllRooms();
     }
 
+    // Salles libres et compatibles pour une séance d'un cours, ex. ?courseId=...&sessionType=TD&start=2024-10-07T08:00&end=2024-10-07T10:00
+    @GetMapping("/free")
+    public ResponseEntity<?> findFreeRooms(@RequestParam String courseId,
+                                           @RequestParam ScheduleEvent.SessionType sessionType,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().body("start must be before end");
+        }
+        try {
+            return ResponseEntity.ok(roomService.findFreeRooms(courseId, sessionType, start, end));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<RoomResponseDTO> getRoomById(@PathVariable String id) {
         return roomService.getRoomById(id)
@@ -1,7 +1,10 @@
 package net.essaid.projetpfa.backend.controllers;
 
+import net.essaid.projetpfa.backend.dto.ConflictRecomputationResultDTO;
+import net.essaid.projetpfa.backend.dto.ScheduleEventConflictDTO;
 import net.essaid.projetpfa.backend.dto.ScheduleEventRequestDTO;
 import net.essaid.projetpfa.backend.dto.ScheduleEventResponseDTO;
+import net.essaid.projetpfa.backend.service.ConflictRecomputationService;
 import net.essaid.projetpfa.backend.service.ScheduleEventService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +20,9 @@ public class ScheduleEventController {
     @Autowired
     private ScheduleEventService scheduleEventService;
 
+    @Autowired
+    private ConflictRecomputationService conflictRecomputationService;
+
     @GetMapping
     public List<ScheduleEventResponseDTO> getAllScheduleEvents() {
         return scheduleEventService.getAllScheduleEvents();
@@ -29,6 +35,14 @@ public class ScheduleEventController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/conflicts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ScheduleEventConflictDTO>> getScheduleEventConflicts(@PathVariable String id) {
+        return scheduleEventService.getScheduleEventConflicts(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ScheduleEventResponseDTO> createScheduleEvent(@RequestBody ScheduleEventRequestDTO request) {
@@ -53,4 +67,10 @@ public class ScheduleEventController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    @PostMapping("/conflicts/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ConflictRecomputationResultDTO recomputeConflicts() {
+        return conflictRecomputationService.recomputeAllConflicts();
+    }
 }
@@ -1,28 +1,116 @@
 package net.essaid.projetpfa.backend.controllers;
 
+import net.essaid.projetpfa.backend.dto.TimetableJobDTO;
+import net.essaid.projetpfa.backend.dto.TimetableScoreDTO;
+import net.essaid.projetpfa.backend.entities.UnplacedSession;
+import net.essaid.projetpfa.backend.service.TimetableJobService;
 import net.essaid.projetpfa.backend.service.TimetableService;
+import net.essaid.projetpfa.backend.service.timetable.GenerationRequest;
+import net.essaid.projetpfa.backend.service.timetable.TimetableJob;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/timetable")
 public class TimetableController {
 
+    @Autowired
+    private TimetableJobService timetableJobService;
     @Autowired
     private TimetableService timetableService;
 
+    // Lance la génération en tâche de fond : l'avancement se suit sur /jobs/{id}
+    // incremental=true conserve l'emploi du temps existant et ne replace que les séances des cours, salles et enseignants modifiés
+    // timeBudgetSeconds borne la durée : à l'échéance, le meilleur emploi du temps trouvé est enregistré (voir /unplaced)
+    // warmStart=true reprend les placements encore valides de l'année universitaire précédente (academicYear au format AAAA-AAAA)
+    // dryRun=true simule sans rien enregistrer : le suivi donne l'écart avec l'emploi du temps enregistré (plusieurs simulations possibles en parallèle)
     @PostMapping("/generate")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<String> generateTimetable() {
+    public ResponseEntity<?> generateTimetable(@RequestParam(required = false) String academicYear,
+                                               @RequestParam(required = false) String semester,
+                                               @RequestParam(defaultValue = "false") boolean incremental,
+                                               @RequestParam(required = false) Set<String> courseIds,
+                                               @RequestParam(required = false) Set<String> roomIds,
+                                               @RequestParam(required = false) Set<String> teacherIds,
+                                               @RequestParam(required = false) Integer timeBudgetSeconds,
+                                               @RequestParam(defaultValue = "false") boolean warmStart,
+                                               @RequestParam(defaultValue = "false") boolean dryRun) {
+        if (timeBudgetSeconds != null && timeBudgetSeconds <= 0) {
+            return ResponseEntity.badRequest().body("Le budget de temps doit être positif.");
+        }
+        if (warmStart && !GenerationRequest.isAcademicYear(academicYear)) {
+            return ResponseEntity.badRequest().body("Le démarrage à chaud exige une année universitaire au format AAAA-AAAA (ex. 2024-2025).");
+        }
         try {
-            String result = timetableService.generateTimetable();
-            return ResponseEntity.ok(result);
+            GenerationRequest request = new GenerationRequest(academicYear, semester, incremental, courseIds, roomIds, teacherIds,
+                    timeBudgetSeconds, warmStart, dryRun);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new TimetableJobDTO(timetableJobService.submit(request)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur lors de la génération : " + e.getMessage());
         }
     }
+
+    @GetMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<TimetableJobDTO> getJobs() {
+        return timetableJobService.getJobs().stream().map(TimetableJobDTO::new).toList();
+    }
+
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimetableJobDTO> getJob(@PathVariable String id) {
+        return timetableJobService.getJob(id)
+                .map(job -> ResponseEntity.ok(new TimetableJobDTO(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Refusée (409) une fois la génération en cours d'enregistrement
+    @PostMapping("/jobs/{id}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> cancelJob(@PathVariable String id) {
+        try {
+            Optional<TimetableJob> job = timetableJobService.cancel(id);
+            if (job.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(new TimetableJobDTO(job.get()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // Séances que la dernière génération du périmètre n'a pas pu placer
+    @GetMapping("/unplaced")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<UnplacedSession> getUnplacedSessions(@RequestParam(required = false) String academicYear,
+                                                     @RequestParam(required = false) String semester) {
+        return timetableService.findUnplacedSessions(academicYear, semester);
+    }
+
+    // Détail du score de l'emploi du temps enregistré : nombre, poids et pénalité de chaque critère de qualité
+    @GetMapping("/score")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getScore(@RequestParam(required = false) String academicYear,
+                                      @RequestParam(required = false) String semester) {
+        try {
+            TimetableScoreDTO score = timetableService.scoreTimetable(academicYear, semester);
+            return ResponseEntity.ok(score);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package net.essaid.projetpfa.backend.dto;
+
+import lombok.Data;
+
+@Data
+public class ConflictRecomputationResultDTO {
+    private long eventsScanned;
+    private long conflictsDetected;
+    private long flagsSet; // Événements passés en conflit
+    private long flagsCleared; // Événements dont le conflit a disparu
+    private long loadMs; // Lecture des créneaux en base
+    private long sweepMs; // Tri + balayage
+    private long updateMs; // Écriture des drapeaux modifiés
+}
@@ -0,0 +1,47 @@
+package net.essaid.projetpfa.backend.dto;
+
+import lombok.Data;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.service.conflict.ConflictLookup;
+import net.essaid.projetpfa.backend.service.conflict.RoomAvailabilityIndex;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduleEventConflictDTO {
+    private ConflictKind kind;
+    private String resourceId; // Salle, enseignant ou étudiant partagé
+    private String conflictingEventId; // Null pour une indisponibilité (salle, enseignant, créneaux du cours)
+    private LocalDateTime overlapStart;
+    private LocalDateTime overlapEnd;
+    private String reason; // Motif de l'indisponibilité
+
+    public ScheduleEventConflictDTO(ConflictLookup.Overlap overlap) {
+        this.kind = ConflictKind.valueOf(overlap.kind().name());
+        this.resourceId = overlap.resourceId();
+        this.conflictingEventId = overlap.eventId();
+        this.overlapStart = overlap.start();
+        this.overlapEnd = overlap.end();
+    }
+
+    public ScheduleEventConflictDTO(ScheduleEvent event, RoomAvailabilityIndex.UnavailablePeriod period) {
+        this.kind = ConflictKind.ROOM_UNAVAILABLE;
+        this.resourceId = event.getRoom().getId();
+        this.overlapStart = event.getStartTime().isAfter(period.start()) ? event.getStartTime() : period.start();
+        this.overlapEnd = event.getEndTime().isBefore(period.end()) ? event.getEndTime() : period.end();
+        this.reason = period.reason();
+    }
+
+    // Contrainte propre à l'événement (disponibilités de l'enseignant, créneaux autorisés du cours) : tout l'événement est concerné
+    public ScheduleEventConflictDTO(ConflictKind kind, String resourceId, ScheduleEvent event, String reason) {
+        this.kind = kind;
+        this.resourceId = resourceId;
+        this.overlapStart = event.getStartTime();
+        this.overlapEnd = event.getEndTime();
+        this.reason = reason;
+    }
+
+    public enum ConflictKind {
+        ROOM, TEACHER, STUDENT, ROOM_UNAVAILABLE, TEACHER_UNAVAILABLE, COURSE_SLOT_NOT_ALLOWED
+    }
+}
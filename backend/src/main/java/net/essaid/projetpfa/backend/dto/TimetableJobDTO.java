@@ -0,0 +1,54 @@
+package net.essaid.projetpfa.backend.dto;
+
+import lombok.Data;
+import net.essaid.projetpfa.backend.service.timetable.TimetableDiff;
+import net.essaid.projetpfa.backend.service.timetable.TimetableJob;
+
+import java.time.LocalDateTime;
+
+@Data
+public class TimetableJobDTO {
+    private String id;
+    private String academicYear;
+    private String semester;
+    private boolean incremental; // Seules les séances touchées ont été replacées
+    private Integer timeBudgetSeconds; // Durée maximale demandée (null : durées configurées)
+    private boolean warmStart; // Placements repris de l'année universitaire précédente
+    private boolean dryRun; // Simulation : rien n'a été enregistré
+    private TimetableJob.Status status;
+    private boolean cancelRequested;
+    private int totalSessions;
+    private int placedSessions; // Meilleur placement trouvé jusqu'ici
+    private Long score; // Pénalité de l'emploi du temps pendant l'amélioration (plus bas = meilleur)
+    private long elapsedMs;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Integer eventsCreated;
+    private Integer unplacedSessions;
+    private String message;
+    private TimetableDiff diff; // Simulation : écart avec l'emploi du temps enregistré
+
+    public TimetableJobDTO(TimetableJob job) {
+        this.id = job.getId();
+        this.academicYear = job.getAcademicYear();
+        this.semester = job.getSemester();
+        this.incremental = job.isIncremental();
+        this.timeBudgetSeconds = job.getRequest().timeBudgetSeconds();
+        this.warmStart = job.getRequest().warmStart();
+        this.dryRun = job.isDryRun();
+        this.status = job.getStatus();
+        this.cancelRequested = job.isCancelRequested();
+        this.totalSessions = job.getTotalSessions();
+        this.placedSessions = job.getPlacedSessions();
+        this.score = job.getScore();
+        this.elapsedMs = job.getElapsedMillis();
+        this.submittedAt = job.getSubmittedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.eventsCreated = job.getEventsCreated();
+        this.unplacedSessions = job.getUnplacedSessions();
+        this.message = job.getMessage();
+        this.diff = job.getDiff();
+    }
+}
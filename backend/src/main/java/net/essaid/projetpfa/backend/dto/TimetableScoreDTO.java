@@ -0,0 +1,49 @@
+package net.essaid.projetpfa.backend.dto;
+
+import lombok.Data;
+import net.essaid.projetpfa.backend.service.timetable.TimetableScorer;
+
+import java.util.List;
+
+@Data
+public class TimetableScoreDTO {
+    private String academicYear;
+    private String semester;
+    private int totalSessions;
+    private int evaluatedSessions; // Séances dont la première occurrence est sur la grille de génération
+    private long total; // Somme des pénalités pondérées (plus bas = meilleur)
+    private List<Criterion> criteria;
+
+    // Un critère de qualité : nombre d'occurrences, poids appliqué et pénalité qui en résulte
+    @Data
+    public static class Criterion {
+        private String name;
+        private long count;
+        private int weight;
+        private long penalty;
+
+        public Criterion(String name, long count, int weight) {
+            this.name = name;
+            this.count = count;
+            this.weight = weight;
+            this.penalty = count * weight;
+        }
+    }
+
+    public TimetableScoreDTO(String academicYear, String semester, int totalSessions, int evaluatedSessions,
+                             TimetableScorer.Score score, TimetableScorer.Weights weights) {
+        this.academicYear = academicYear;
+        this.semester = semester;
+        this.totalSessions = totalSessions;
+        this.evaluatedSessions = evaluatedSessions;
+        this.total = score.total(weights);
+        this.criteria = List.of(
+                new Criterion("preference", score.preferenceMisses(), weights.preference()),
+                new Criterion("gap", score.gapSlots(), weights.gap()),
+                new Criterion("roomFit", score.wastedSeats(), weights.roomFit()),
+                new Criterion("teacherLoad", score.teacherOverloadSlots(), weights.teacherLoad()),
+                new Criterion("latePriority", score.lateHighPriority(), weights.latePriority()),
+                new Criterion("campusChange", score.campusChanges(), weights.campusChange()),
+                new Criterion("stability", score.movedSessions(), weights.stability()));
+    }
+}
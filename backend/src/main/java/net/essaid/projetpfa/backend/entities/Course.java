@@ -32,7 +32,8 @@ public class Course {
     @JoinTable(
         name = "course_associated_teachers",
         joinColumns = @JoinColumn(name = "course_id"),
-        inverseJoinColumns = @JoinColumn(name = "teacher_id")
+        inverseJoinColumns = @JoinColumn(name = "teacher_id"),
+        indexes = @Index(name = "idx_course_associated_teachers_teacher", columnList = "teacher_id, course_id")
     )
     private Set<User> associatedTeachers;
 
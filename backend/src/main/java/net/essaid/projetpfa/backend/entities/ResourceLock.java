@@ -0,0 +1,18 @@
+package net.essaid.projetpfa.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Une ligne par ressource réservable (salle, enseignant, étudiant), verrouillée en écriture pendant une réservation
+@Entity
+@Table(name = "resource_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceLock {
+    @Id
+    @Column(name = "lock_key", length = 128)
+    private String lockKey; // ex: "room:<id>", "teacher:<id>"
+}
@@ -7,7 +7,11 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "schedule_events")
+@Table(name = "schedule_events", indexes = {
+        // Index composites utilisés par les requêtes de chevauchement (ScheduleEventRepository)
+        @Index(name = "idx_schedule_events_room_time", columnList = "room_id, start_time, end_time"),
+        @Index(name = "idx_schedule_events_course_time", columnList = "course_id, start_time, end_time")
+})
 public class ScheduleEvent {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -35,7 +39,8 @@ public class ScheduleEvent {
     @JoinTable(
         name = "schedule_event_students",
         joinColumns = @JoinColumn(name = "event_id"),
-        inverseJoinColumns = @JoinColumn(name = "student_id")
+        inverseJoinColumns = @JoinColumn(name = "student_id"),
+        indexes = @Index(name = "idx_event_students_student", columnList = "student_id, event_id")
     )
     private Set<User> students = new HashSet<>();
 
@@ -45,6 +50,8 @@ public class ScheduleEvent {
     private Boolean isRoomOverloaded = false;
     private String academicYear;
     private String semester;
+    // Séance de la génération automatique (ex. "TD #2"), pour retrouver l'événement lors d'une régénération incrémentale
+    private String sessionKey;
 
     // Constructors
     public ScheduleEvent() {
@@ -171,6 +178,14 @@ public class ScheduleEvent {
         this.semester = semester;
     }
 
+    public String getSessionKey() {
+        return sessionKey;
+    }
+
+    public void setSessionKey(String sessionKey) {
+        this.sessionKey = sessionKey;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
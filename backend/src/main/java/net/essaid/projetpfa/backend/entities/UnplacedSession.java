@@ -0,0 +1,39 @@
+package net.essaid.projetpfa.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Séance qu'une génération n'a pas pu placer, conservée jusqu'à la génération suivante du même périmètre
+@Entity
+@Table(name = "unplaced_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnplacedSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    private String academicYear;
+    private String semester;
+
+    // Identifiant et code du cours, sans clé étrangère : la liste reste lisible si le cours est supprimé
+    @Column(nullable = false)
+    private String courseId;
+    private String courseCode;
+
+    private String sessionKey; // Clé de la séance dans le cours, ex: "TD G1 #1"
+
+    @Enumerated(EnumType.STRING)
+    private ScheduleEvent.SessionType sessionType;
+
+    private int durationMinutes;
+    private int occurrences; // Occurrences sur le semestre qui n'ont pas été créées
+
+    @Column(nullable = false)
+    private LocalDateTime generatedAt;
+}
@@ -2,8 +2,19 @@ package net.essaid.projetpfa.backend.repository;
 
 import net.essaid.projetpfa.backend.entities.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CourseRepository extends JpaRepository<Course, String> {
+    // Enseignants associés de tous les cours, pour construire l'index enseignant -> événements
+    @Query("select c.id as courseId, t.id as teacherId from Course c join c.associatedTeachers t")
+    List<CourseTeacher> findAllAssociatedTeachers();
+
+    interface CourseTeacher {
+        String getCourseId();
+        String getTeacherId();
+    }
 }
@@ -0,0 +1,25 @@
+package net.essaid.projetpfa.backend.repository;
+
+import jakarta.persistence.LockModeType;
+import net.essaid.projetpfa.backend.entities.ResourceLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ResourceLockRepository extends JpaRepository<ResourceLock, String> {
+
+    // Clés déjà présentes ; la clé primaire garantit une seule ligne par ressource, même si deux noeuds l'insèrent en même temps
+    @Query("select l.lockKey from ResourceLock l where l.lockKey in :lockKeys")
+    List<String> findExistingKeys(@Param("lockKeys") Collection<String> lockKeys);
+
+    // SELECT ... FOR UPDATE dans l'ordre des clés : verrous tenus jusqu'à la fin de la transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from ResourceLock l where l.lockKey in :lockKeys order by l.lockKey")
+    List<ResourceLock> lockAll(@Param("lockKeys") Collection<String> lockKeys);
+}
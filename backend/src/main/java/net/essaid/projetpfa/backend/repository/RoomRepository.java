@@ -2,8 +2,12 @@ package net.essaid.projetpfa.backend.repository;
 
 import net.essaid.projetpfa.backend.entities.Room;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, String> {
+    @Query("select r.capacity from Room r where r.id = :id")
+    Integer findCapacityById(@Param("id") String id);
 }
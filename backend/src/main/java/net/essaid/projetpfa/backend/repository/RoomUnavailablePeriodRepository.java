@@ -0,0 +1,30 @@
+package net.essaid.projetpfa.backend.repository;
+
+import net.essaid.projetpfa.backend.entities.RoomUnavailablePeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RoomUnavailablePeriodRepository extends JpaRepository<RoomUnavailablePeriod, String> {
+
+    @Query("select p.id as id, p.room.id as roomId, p.startTime as startTime, p.endTime as endTime, p.reason as reason " +
+            "from RoomUnavailablePeriod p")
+    List<PeriodSlot> findAllSlots();
+
+    @Query("select p.id as id, p.room.id as roomId, p.startTime as startTime, p.endTime as endTime, p.reason as reason " +
+            "from RoomUnavailablePeriod p where p.room.id = :roomId")
+    List<PeriodSlot> findSlotsByRoomId(@Param("roomId") String roomId);
+
+    interface PeriodSlot {
+        String getId();
+        String getRoomId();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+        String getReason();
+    }
+}
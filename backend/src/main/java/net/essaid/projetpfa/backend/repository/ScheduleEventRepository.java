@@ -2,10 +2,144 @@ package net.essaid.projetpfa.backend.repository;
 
 import net.essaid.projetpfa.backend.entities.ScheduleEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ScheduleEventRepository extends JpaRepository<ScheduleEvent, String> {
     // Méthode pour compter les événements ayant un conflit
     long countByHasConflict(boolean hasConflict);
+
+    // Projection légère utilisée pour construire les index de conflits sans charger les entités
+    @Query("select e.id as id, r.id as roomId, c.id as courseId, t.id as teacherId, e.startTime as startTime, e.endTime as endTime " +
+            "from ScheduleEvent e join e.room r join e.course c left join c.responsibleTeacher t")
+    List<EventSlot> findAllSlots();
+
+    @Query("select e.id as id, r.id as roomId, c.id as courseId, t.id as teacherId, e.startTime as startTime, e.endTime as endTime " +
+            "from ScheduleEvent e join e.room r join e.course c left join c.responsibleTeacher t where e.id in :ids")
+    List<EventSlot> findSlotsByIds(@Param("ids") Collection<String> ids);
+
+    @Query("select e.id as eventId, s.id as studentId from ScheduleEvent e join e.students s")
+    List<EventStudent> findAllEventStudents();
+
+    // Événements d'une année universitaire et d'un semestre, null : toutes les valeurs
+    @Query("select e from ScheduleEvent e where (:academicYear is null or e.academicYear = :academicYear) " +
+            "and (:semester is null or e.semester = :semester)")
+    List<ScheduleEvent> findByScope(@Param("academicYear") String academicYear, @Param("semester") String semester);
+
+    // Événements hors d'un périmètre recoupant une période (année ou semestre non renseigné : hors de tout périmètre précis)
+    @Query("select e from ScheduleEvent e join fetch e.room join fetch e.course where e.startTime < :end and e.endTime > :start " +
+            "and not ((:academicYear is null or coalesce(e.academicYear, '') = :academicYear) " +
+            "and (:semester is null or coalesce(e.semester, '') = :semester))")
+    List<ScheduleEvent> findOutsideScope(@Param("academicYear") String academicYear, @Param("semester") String semester,
+                                         @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Suppression en masse d'un périmètre, sans charger les entités : la table de jointure des étudiants d'abord
+    @Modifying
+    @Query(value = "delete from schedule_event_students where event_id in (select id from schedule_events " +
+            "where (:academicYear is null or academic_year = :academicYear) and (:semester is null or semester = :semester))", nativeQuery = true)
+    int deleteStudentLinksByScope(@Param("academicYear") String academicYear, @Param("semester") String semester);
+
+    @Modifying
+    @Query("delete from ScheduleEvent e where (:academicYear is null or e.academicYear = :academicYear) " +
+            "and (:semester is null or e.semester = :semester)")
+    int deleteByScope(@Param("academicYear") String academicYear, @Param("semester") String semester);
+
+    @Modifying
+    @Query(value = "delete from schedule_event_students where event_id in :ids", nativeQuery = true)
+    int deleteStudentLinksByEventIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("delete from ScheduleEvent e where e.id in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
+
+    @Query("select e.id from ScheduleEvent e where e.hasConflict = true")
+    List<String> findIdsWithConflict();
+
+    // Mise à jour en masse du drapeau de conflit (appelée par lots d'identifiants)
+    @Modifying
+    @Query("update ScheduleEvent e set e.hasConflict = :hasConflict where e.id in :ids")
+    int updateHasConflict(@Param("ids") Collection<String> ids, @Param("hasConflict") boolean hasConflict);
+
+    // Requêtes de chevauchement : parcours borné des index composites (voir ScheduleEvent)
+    @Query("select e.id from ScheduleEvent e where e.room.id = :roomId " +
+            "and e.startTime < :end and e.endTime > :start and e.id <> :excludedId")
+    List<String> findRoomOverlapIds(@Param("roomId") String roomId, @Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end, @Param("excludedId") String excludedId);
+
+    // Enseignants responsables ou associés : les cours concernés d'abord, puis l'index (cours, horaires)
+    @Query("select e.id from ScheduleEvent e where e.course.id in " +
+            "(select c.id from Course c left join c.associatedTeachers a where c.responsibleTeacher.id in :teacherIds or a.id in :teacherIds) " +
+            "and e.startTime < :end and e.endTime > :start and e.id <> :excludedId")
+    List<String> findTeacherOverlapIds(@Param("teacherIds") Collection<String> teacherIds, @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end, @Param("excludedId") String excludedId);
+
+    @Query("select e.id as eventId, t.id as teacherId from ScheduleEvent e join e.course c join c.responsibleTeacher t where t.id in :teacherIds " +
+            "and e.startTime < :end and e.endTime > :start and e.id <> :excludedId")
+    List<EventTeacher> findResponsibleTeacherOverlaps(@Param("teacherIds") Collection<String> teacherIds, @Param("start") LocalDateTime start,
+                                                      @Param("end") LocalDateTime end, @Param("excludedId") String excludedId);
+
+    @Query("select e.id as eventId, a.id as teacherId from ScheduleEvent e join e.course c join c.associatedTeachers a where a.id in :teacherIds " +
+            "and e.startTime < :end and e.endTime > :start and e.id <> :excludedId")
+    List<EventTeacher> findAssociatedTeacherOverlaps(@Param("teacherIds") Collection<String> teacherIds, @Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end, @Param("excludedId") String excludedId);
+
+    // Événements d'un enseignant, qu'il soit responsable ou associé du cours
+    @Query("select e from ScheduleEvent e where e.course.id in " +
+            "(select c.id from Course c left join c.associatedTeachers a where c.responsibleTeacher.id = :teacherId or a.id = :teacherId)")
+    List<ScheduleEvent> findByTeacher(@Param("teacherId") String teacherId);
+
+    @Query("select distinct e.id from ScheduleEvent e join e.students s where s.id in :studentIds " +
+            "and e.startTime < :end and e.endTime > :start and e.id <> :excludedId")
+    List<String> findStudentOverlapIds(@Param("studentIds") Collection<String> studentIds, @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end, @Param("excludedId") String excludedId);
+
+    @Query("select e.id as eventId, s.id as studentId from ScheduleEvent e join e.students s where s.id in :studentIds " +
+            "and e.startTime < :end and e.endTime > :start and e.id <> :excludedId")
+    List<EventStudent> findStudentOverlaps(@Param("studentIds") Collection<String> studentIds, @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end, @Param("excludedId") String excludedId);
+
+    // Effectif de chaque événement d'une salle : COUNT sur la table de jointure, sans charger les étudiants
+    @Query("select e.id as id, c.groupCapacity as groupCapacity, count(s) as studentCount " +
+            "from ScheduleEvent e join e.course c left join e.students s where e.room.id = :roomId group by e.id, c.groupCapacity")
+    List<EventEnrolment> findEnrolmentsByRoom(@Param("roomId") String roomId);
+
+    @Query("select e.id as id, c.groupCapacity as groupCapacity, count(s) as studentCount " +
+            "from ScheduleEvent e join e.course c left join e.students s where e.id in :ids group by e.id, c.groupCapacity")
+    List<EventEnrolment> findEnrolmentsByIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("update ScheduleEvent e set e.isRoomOverloaded = :overloaded where e.id in :ids")
+    int updateRoomOverloaded(@Param("ids") Collection<String> ids, @Param("overloaded") boolean overloaded);
+
+    interface EventSlot {
+        String getId();
+        String getRoomId();
+        String getCourseId();
+        String getTeacherId();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+    }
+
+    interface EventTeacher {
+        String getEventId();
+        String getTeacherId();
+    }
+
+    interface EventStudent {
+        String getEventId();
+        String getStudentId();
+    }
+
+    interface EventEnrolment {
+        String getId();
+        Integer getGroupCapacity();
+        Long getStudentCount();
+    }
 }
@@ -0,0 +1,24 @@
+package net.essaid.projetpfa.backend.repository;
+
+import net.essaid.projetpfa.backend.entities.UnplacedSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UnplacedSessionRepository extends JpaRepository<UnplacedSession, String> {
+
+    // Séances non placées d'une année universitaire et d'un semestre, null : toutes les valeurs
+    @Query("select u from UnplacedSession u where (:academicYear is null or u.academicYear = :academicYear) " +
+            "and (:semester is null or u.semester = :semester) order by u.courseCode, u.sessionKey")
+    List<UnplacedSession> findByScope(@Param("academicYear") String academicYear, @Param("semester") String semester);
+
+    @Modifying
+    @Query("delete from UnplacedSession u where (:academicYear is null or u.academicYear = :academicYear) " +
+            "and (:semester is null or u.semester = :semester)")
+    int deleteByScope(@Param("academicYear") String academicYear, @Param("semester") String semester);
+}
@@ -0,0 +1,110 @@
+package net.essaid.projetpfa.backend.service;
+
+import net.essaid.projetpfa.backend.dto.ConflictRecomputationResultDTO;
+import net.essaid.projetpfa.backend.repository.CourseRepository;
+import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import net.essaid.projetpfa.backend.service.conflict.ConflictIndex;
+import net.essaid.projetpfa.backend.service.conflict.ConflictSweep;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class ConflictRecomputationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflictRecomputationService.class);
+    private static final int UPDATE_BATCH_SIZE = 500;
+
+    @Autowired
+    private ScheduleEventRepository scheduleEventRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ScheduleEventService scheduleEventService;
+
+    // Recalcule tous les drapeaux de conflit et n'écrit que ceux qui ont changé
+    @Transactional
+    public ConflictRecomputationResultDTO recomputeAllConflicts() {
+        ConflictRecomputationResultDTO result = new ConflictRecomputationResultDTO();
+
+        long start = System.nanoTime();
+        List<ConflictIndex.IndexedEvent> events = ConflictIndex.readAllFromDatabase(scheduleEventRepository, courseRepository);
+        Set<String> previouslyFlagged = new HashSet<>(scheduleEventRepository.findIdsWithConflict());
+        long loaded = System.nanoTime();
+
+        Set<String> conflicting = ConflictSweep.findConflictingEvents(events);
+        for (ConflictIndex.IndexedEvent event : events) {
+            if (scheduleEventService.violatesAvailability(event.roomId(), event.teacherId(), event.courseId(),
+                    ConflictIndex.fromEpochSeconds(event.start()), ConflictIndex.fromEpochSeconds(event.end()))) {
+                conflicting.add(event.id());
+            }
+        }
+        long swept = System.nanoTime();
+
+        List<String> toSet = new ArrayList<>();
+        List<String> toClear = new ArrayList<>();
+        for (ConflictIndex.IndexedEvent event : events) {
+            boolean nowConflicting = conflicting.contains(event.id());
+            if (nowConflicting != previouslyFlagged.contains(event.id())) {
+                (nowConflicting ? toSet : toClear).add(event.id());
+            }
+        }
+        updateInBatches(toSet, true);
+        updateInBatches(toClear, false);
+        long updated = System.nanoTime();
+
+        result.setEventsScanned(events.size());
+        result.setConflictsDetected(conflicting.size());
+        result.setFlagsSet(toSet.size());
+        result.setFlagsCleared(toClear.size());
+        result.setLoadMs((loaded - start) / 1_000_000);
+        result.setSweepMs((swept - loaded) / 1_000_000);
+        result.setUpdateMs((updated - swept) / 1_000_000);
+        logger.info("Conflict recomputation: {} events, {} conflicts, {} set, {} cleared (load {} ms, sweep {} ms, update {} ms)",
+                result.getEventsScanned(), result.getConflictsDetected(), result.getFlagsSet(), result.getFlagsCleared(),
+                result.getLoadMs(), result.getSweepMs(), result.getUpdateMs());
+        return result;
+    }
+
+    // Tâche planifiée : corrige les drapeaux devenus obsolètes (par défaut chaque nuit à 3h).
+    // Transactionnelle elle-même : l'appel interne à recomputeAllConflicts ne passe pas par le proxy Spring
+    @Scheduled(cron = "${pfa.app.conflictRecomputeCron:0 0 3 * * *}")
+    @Transactional
+    public void scheduledRecomputation() {
+        recomputeAllConflicts();
+    }
+
+    // Après un changement de capacité : réévalue la surcharge de tous les événements de la salle
+    @Transactional
+    public void recheckRoomOverload(String roomId, Integer roomCapacity) {
+        List<String> overloaded = new ArrayList<>();
+        List<String> notOverloaded = new ArrayList<>();
+        for (ScheduleEventRepository.EventEnrolment enrolment : scheduleEventRepository.findEnrolmentsByRoom(roomId)) {
+            boolean isOverloaded = ScheduleEventService.isRoomOverloaded(roomCapacity, enrolment.getGroupCapacity(), enrolment.getStudentCount());
+            (isOverloaded ? overloaded : notOverloaded).add(enrolment.getId());
+        }
+        for (int from = 0; from < overloaded.size(); from += UPDATE_BATCH_SIZE) {
+            scheduleEventRepository.updateRoomOverloaded(overloaded.subList(from, Math.min(from + UPDATE_BATCH_SIZE, overloaded.size())), true);
+        }
+        for (int from = 0; from < notOverloaded.size(); from += UPDATE_BATCH_SIZE) {
+            scheduleEventRepository.updateRoomOverloaded(notOverloaded.subList(from, Math.min(from + UPDATE_BATCH_SIZE, notOverloaded.size())), false);
+        }
+        logger.info("Room {} overload re-check: {} overloaded, {} within capacity", roomId, overloaded.size(), notOverloaded.size());
+    }
+
+    private void updateInBatches(List<String> ids, boolean hasConflict) {
+        for (int from = 0; from < ids.size(); from += UPDATE_BATCH_SIZE) {
+            scheduleEventRepository.updateHasConflict(ids.subList(from, Math.min(from + UPDATE_BATCH_SIZE, ids.size())), hasConflict);
+        }
+    }
+}
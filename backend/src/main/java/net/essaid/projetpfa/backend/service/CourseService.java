@@ -12,6 +12,9 @@ import net.essaid.projetpfa.backend.repository.CourseRepository;
 import net.essaid.projetpfa.backend.repository.FiliereRepository;
 import net.essaid.projetpfa.backend.repository.NiveauRepository;
 import net.essaid.projetpfa.backend.repository.UserRepository;
+import net.essaid.projetpfa.backend.service.conflict.AvailabilityMaskCache;
+import net.essaid.projetpfa.backend.service.conflict.ConflictIndex;
+import net.essaid.projetpfa.backend.service.conflict.ConflictLookup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,6 +34,12 @@ public class CourseService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AvailabilityMaskCache availabilityMaskCache;
+
+    @Autowired
+    private ConflictLookup conflictLookup;
+
     @Autowired
     private CampusRepository campusRepository;
 
@@ -64,8 +73,13 @@ public class CourseService {
     public Optional<CourseResponseDTO> updateCourse(String id, CourseRequestDTO courseRequest) {
         return courseRepository.findById(id)
                 .map(existingCourse -> {
+                    Set<String> previousTeachers = ConflictIndex.teacherIdsOf(existingCourse);
                     mapDtoToEntity(courseRequest, existingCourse);
                     Course updatedCourse = courseRepository.save(existingCourse);
+                    availabilityMaskCache.evictCourse(id);
+                    if (!previousTeachers.equals(ConflictIndex.teacherIdsOf(updatedCourse))) {
+                        conflictLookup.invalidate(); // Les événements du cours changent d'enseignants
+                    }
                     return new CourseResponseDTO(updatedCourse);
                 });
     }
@@ -74,6 +88,7 @@ public class CourseService {
     public boolean deleteCourse(String id) {
         if (courseRepository.existsById(id)) {
             courseRepository.deleteById(id);
+            availabilityMaskCache.evictCourse(id);
             return true;
         }
         return false;
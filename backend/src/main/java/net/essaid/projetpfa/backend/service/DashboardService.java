@@ -84,8 +84,8 @@ public class DashboardService {
                     LocalDateTime startOfWeek = now.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toLocalDate().atStartOfDay();
                     LocalDateTime endOfWeek = now.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)).toLocalDate().atTime(23, 59, 59);
 
-                    List<ScheduleEvent> teacherEvents = scheduleEventRepository.findAll().stream()
-                            .filter(event -> event.getCourse().getResponsibleTeacher() != null && event.getCourse().getResponsibleTeacher().getId().equals(teacherId))
+                    // Cours dont l'enseignant est responsable ou associé (TD/TP)
+                    List<ScheduleEvent> teacherEvents = scheduleEventRepository.findByTeacher(teacherId).stream()
                             .filter(event -> event.getStartTime().isAfter(startOfWeek) && event.getEndTime().isBefore(endOfWeek))
                             .collect(Collectors.toList());
 
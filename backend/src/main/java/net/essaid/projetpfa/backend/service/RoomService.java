@@ -2,13 +2,25 @@ package net.essaid.projetpfa.backend.service;
 
 import net.essaid.projetpfa.backend.dto.RoomRequestDTO;
 import net.essaid.projetpfa.backend.dto.RoomResponseDTO;
+import net.essaid.projetpfa.backend.entities.Course;
 import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.repository.CourseRepository;
 import net.essaid.projetpfa.backend.repository.RoomRepository;
+import net.essaid.projetpfa.backend.service.conflict.ConflictLookup;
+import net.essaid.projetpfa.backend.service.conflict.RoomAvailabilityIndex;
+import net.essaid.projetpfa.backend.service.conflict.RoomCapacityCache;
+import net.essaid.projetpfa.backend.service.conflict.RoomCompatibilityCache;
+import net.essaid.projetpfa.backend.service.timetable.RoomCompatibilityMatrix;
+import net.essaid.projetpfa.backend.service.timetable.TimetableProblemBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -18,6 +30,24 @@ public class RoomService {
     @Autowired
     private RoomRepository roomRepository;
 
+    @Autowired
+    private RoomCapacityCache roomCapacityCache;
+
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    private RoomCompatibilityCache roomCompatibilityCache;
+
+    @Autowired
+    private ConflictLookup conflictLookup;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ConflictRecomputationService conflictRecomputationService;
+
     @Transactional(readOnly = true)
     public List<RoomResponseDTO> getAllRooms() {
         return roomRepository.findAll().stream()
@@ -30,11 +60,29 @@ public class RoomService {
         return roomRepository.findById(id).map(RoomResponseDTO::new);
     }
 
+    // Salles compatibles avec une séance du cours, ni indisponibles ni occupées sur l'intervalle, plus petites d'abord
+    @Transactional(readOnly = true)
+    public List<RoomResponseDTO> findFreeRooms(String courseId, ScheduleEvent.SessionType sessionType, LocalDateTime start, LocalDateTime end) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
+        RoomCompatibilityMatrix matrix = roomCompatibilityCache.get();
+        List<RoomResponseDTO> freeRooms = new ArrayList<>();
+        for (int r : matrix.eligibleIndices(course, sessionType, TimetableProblemBuilder.sessionSize(course, sessionType))) {
+            Room room = matrix.rooms().get(r);
+            if (!roomAvailabilityIndex.isUnavailable(room.getId(), start, end)
+                    && !conflictLookup.hasRoomOverlap(room.getId(), start, end, null)) {
+                freeRooms.add(new RoomResponseDTO(room));
+            }
+        }
+        return freeRooms;
+    }
+
     @Transactional
     public RoomResponseDTO createRoom(RoomRequestDTO request) {
         Room room = new Room();
         mapDtoToEntity(request, room);
         Room savedRoom = roomRepository.save(room);
+        roomCompatibilityCache.invalidate();
         return new RoomResponseDTO(savedRoom);
     }
 
@@ -42,8 +90,15 @@ public class RoomService {
     public Optional<RoomResponseDTO> updateRoom(String id, RoomRequestDTO request) {
         return roomRepository.findById(id)
                 .map(existingRoom -> {
+                    Integer previousCapacity = existingRoom.getCapacity();
                     mapDtoToEntity(request, existingRoom);
                     Room updatedRoom = roomRepository.save(existingRoom);
+                    roomCapacityCache.evict(id);
+                    roomAvailabilityIndex.invalidate(id);
+                    roomCompatibilityCache.invalidate();
+                    if (!Objects.equals(previousCapacity, updatedRoom.getCapacity())) {
+                        conflictRecomputationService.recheckRoomOverload(id, updatedRoom.getCapacity());
+                    }
                     return new RoomResponseDTO(updatedRoom);
                 });
     }
@@ -52,6 +107,9 @@ public class RoomService {
     public boolean deleteRoom(String id) {
         if (roomRepository.existsById(id)) {
             roomRepository.deleteById(id);
+            roomCapacityCache.evict(id);
+            roomAvailabilityIndex.invalidate(id);
+            roomCompatibilityCache.invalidate();
             return true;
         }
         return false;
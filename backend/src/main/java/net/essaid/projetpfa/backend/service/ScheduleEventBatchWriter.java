@@ -0,0 +1,67 @@
+package net.essaid.projetpfa.backend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Écriture en masse des emplois du temps générés, dans la transaction de l'appelant.
+ * Insertions regroupées en lots JDBC (hibernate.jdbc.batch_size, identifiants UUID attribués sans aller-retour),
+ * contexte de persistance vidé après chaque lot : la mémoire reste bornée quel que soit le nombre d'événements.
+ * Suppressions par requêtes DELETE globales, sans charger les entités.
+ * Les drapeaux de conflit ne sont pas calculés ici : l'appelant les recalcule en une passe après l'écriture.
+ */
+@Component
+public class ScheduleEventBatchWriter {
+
+    // Aligné sur la taille des lots JDBC d'Hibernate
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ScheduleEventRepository scheduleEventRepository;
+
+    // Rend le nombre d'événements insérés ; les entités sont détachées après écriture
+    public int insertAll(Stream<ScheduleEvent> events) {
+        int inserted = 0;
+        Iterator<ScheduleEvent> iterator = events.iterator();
+        while (iterator.hasNext()) {
+            entityManager.persist(iterator.next());
+            inserted++;
+            if (inserted % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return inserted;
+    }
+
+    public int deleteScope(String academicYear, String semester) {
+        scheduleEventRepository.deleteStudentLinksByScope(academicYear, semester);
+        return scheduleEventRepository.deleteByScope(academicYear, semester);
+    }
+
+    // Par tranches, pour borner la taille des clauses IN
+    public int deleteAll(List<String> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            scheduleEventRepository.deleteStudentLinksByEventIds(chunk);
+            deleted += scheduleEventRepository.deleteByIds(chunk);
+        }
+        return deleted;
+    }
+}
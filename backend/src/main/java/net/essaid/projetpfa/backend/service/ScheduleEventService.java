@@ -1,5 +1,6 @@
 package net.essaid.projetpfa.backend.service;
 
+import net.essaid.projetpfa.backend.dto.ScheduleEventConflictDTO;
 import net.essaid.projetpfa.backend.dto.ScheduleEventRequestDTO;
 import net.essaid.projetpfa.backend.dto.ScheduleEventResponseDTO;
 import net.essaid.projetpfa.backend.entities.Course;
@@ -10,11 +11,20 @@ import net.essaid.projetpfa.backend.repository.CourseRepository;
 import net.essaid.projetpfa.backend.repository.RoomRepository;
 import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
 import net.essaid.projetpfa.backend.repository.UserRepository;
+import net.essaid.projetpfa.backend.service.conflict.AvailabilityMaskCache;
+import net.essaid.projetpfa.backend.service.conflict.ConflictIndex;
+import net.essaid.projetpfa.backend.service.conflict.ConflictLookup;
+import net.essaid.projetpfa.backend.service.conflict.RoomAvailabilityIndex;
+import net.essaid.projetpfa.backend.service.conflict.RoomCapacityCache;
+import net.essaid.projetpfa.backend.service.conflict.WeeklyMask;
+import net.essaid.projetpfa.backend.service.reservation.ReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +46,21 @@ public class ScheduleEventService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ConflictLookup conflictLookup;
+
+    @Autowired
+    private RoomCapacityCache roomCapacityCache;
+
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    private AvailabilityMaskCache availabilityMaskCache;
+
+    @Autowired
+    private ReservationService reservationService;
+
     @Transactional(readOnly = true)
     public List<ScheduleEventResponseDTO> getAllScheduleEvents() {
         return scheduleEventRepository.findAll().stream()
@@ -48,30 +73,73 @@ public class ScheduleEventService {
         return scheduleEventRepository.findById(id).map(ScheduleEventResponseDTO::new);
     }
 
-    @Transactional
+    // Détail des conflits d'un événement : chevauchements issus de l'index, indisponibilités de la salle,
+    // disponibilités de l'enseignant et créneaux autorisés du cours (les mêmes contrôles que detectConflicts)
+    @Transactional(readOnly = true)
+    public Optional<List<ScheduleEventConflictDTO>> getScheduleEventConflicts(String id) {
+        return scheduleEventRepository.findById(id).map(event -> {
+            List<ScheduleEventConflictDTO> conflicts = conflictLookup.findOverlaps(id).stream()
+                    .map(ScheduleEventConflictDTO::new)
+                    .collect(Collectors.toList());
+            roomAvailabilityIndex.findUnavailable(event.getRoom().getId(), event.getStartTime(), event.getEndTime())
+                    .forEach(period -> conflicts.add(new ScheduleEventConflictDTO(event, period)));
+            WeeklyMask eventMask = WeeklyMask.of(event.getStartTime(), event.getEndTime());
+            User teacher = event.getCourse().getResponsibleTeacher();
+            if (!availabilityMaskCache.teacherMasks(teacher).allowed().contains(eventMask)) {
+                conflicts.add(new ScheduleEventConflictDTO(ScheduleEventConflictDTO.ConflictKind.TEACHER_UNAVAILABLE, teacher.getId(), event,
+                        "Hors des disponibilités déclarées de l'enseignant"));
+            }
+            if (!availabilityMaskCache.courseMask(event.getCourse()).contains(eventMask)) {
+                conflicts.add(new ScheduleEventConflictDTO(ScheduleEventConflictDTO.ConflictKind.COURSE_SLOT_NOT_ALLOWED, event.getCourse().getId(), event,
+                        "Hors des créneaux autorisés du cours"));
+            }
+            return conflicts;
+        });
+    }
+
+    // Écritures en READ_COMMITTED : la détection qui suit la réservation voit les réservations validées pendant l'attente
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ScheduleEventResponseDTO createScheduleEvent(ScheduleEventRequestDTO request) {
+        reservationService.reserve(resourceKeys(request)); // Les réservations concurrentes sur les mêmes ressources attendent
         ScheduleEvent event = new ScheduleEvent();
         mapDtoToEntity(request, event);
         detectConflicts(event); // Détecter les conflits avant de sauvegarder
         ScheduleEvent savedEvent = scheduleEventRepository.save(event);
+        conflictLookup.index(savedEvent);
+        refreshConflictFlags(conflictLookup.findNeighbours(savedEvent.getId())); // Les nouveaux voisins passent en conflit
         return new ScheduleEventResponseDTO(savedEvent);
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Optional<ScheduleEventResponseDTO> updateScheduleEvent(String id, ScheduleEventRequestDTO request) {
         return scheduleEventRepository.findById(id)
                 .map(existingEvent -> {
+                    // Ressources avant et après modification, verrouillées en une seule fois
+                    Set<String> keys = resourceKeys(existingEvent);
+                    keys.addAll(resourceKeys(request));
+                    reservationService.reserve(keys);
+                    // Voisins avant déplacement : leur conflit peut disparaître
+                    Set<String> affectedEvents = new HashSet<>(conflictLookup.findNeighbours(id));
                     mapDtoToEntity(request, existingEvent);
                     detectConflicts(existingEvent); // Détecter les conflits après mise à jour
                     ScheduleEvent updatedEvent = scheduleEventRepository.save(existingEvent);
+                    conflictLookup.index(updatedEvent);
+                    // Voisins après déplacement : ils peuvent entrer en conflit
+                    affectedEvents.addAll(conflictLookup.findNeighbours(id));
+                    refreshConflictFlags(affectedEvents);
                     return new ScheduleEventResponseDTO(updatedEvent);
                 });
     }
 
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public boolean deleteScheduleEvent(String id) {
-        if (scheduleEventRepository.existsById(id)) {
+        Optional<ScheduleEvent> existing = scheduleEventRepository.findById(id);
+        if (existing.isPresent()) {
+            reservationService.reserve(resourceKeys(existing.get()));
+            Set<String> affectedEvents = conflictLookup.findNeighbours(id);
             scheduleEventRepository.deleteById(id);
+            conflictLookup.remove(id);
+            refreshConflictFlags(affectedEvents);
             return true;
         }
         return false;
@@ -102,55 +170,113 @@ public class ScheduleEventService {
         }
     }
 
+    // Clés de verrouillage de toutes les ressources touchées par l'événement
+    private Set<String> resourceKeys(ScheduleEvent event) {
+        Set<String> keys = new HashSet<>();
+        keys.add(ReservationService.roomKey(event.getRoom().getId()));
+        ConflictIndex.teacherIdsOf(event.getCourse()).forEach(teacherId -> keys.add(ReservationService.teacherKey(teacherId)));
+        if (event.getStudents() != null) {
+            event.getStudents().forEach(student -> keys.add(ReservationService.studentKey(student.getId())));
+        }
+        return keys;
+    }
+
+    private Set<String> resourceKeys(ScheduleEventRequestDTO dto) {
+        Set<String> keys = new HashSet<>();
+        keys.add(ReservationService.roomKey(dto.getRoomId()));
+        courseRepository.findById(dto.getCourseId())
+                .ifPresent(course -> ConflictIndex.teacherIdsOf(course).forEach(teacherId -> keys.add(ReservationService.teacherKey(teacherId))));
+        if (dto.getStudentIds() != null) {
+            dto.getStudentIds().forEach(studentId -> keys.add(ReservationService.studentKey(studentId)));
+        }
+        return keys;
+    }
+
+    // Réévalue uniquement les événements dont l'état de conflit a pu changer, dans la transaction courante
+    private void refreshConflictFlags(Set<String> eventIds) {
+        List<String> nowConflicting = new ArrayList<>();
+        List<String> nowFree = new ArrayList<>();
+        for (String eventId : eventIds) {
+            (conflictLookup.isConflicting(eventId) ? nowConflicting : nowFree).add(eventId);
+        }
+        // Un événement sans chevauchement reste en conflit s'il viole une disponibilité (salle, enseignant, cours)
+        if (!nowFree.isEmpty()) {
+            for (ScheduleEventRepository.EventSlot slot : scheduleEventRepository.findSlotsByIds(nowFree)) {
+                if (violatesAvailability(slot.getRoomId(), slot.getTeacherId(), slot.getCourseId(), slot.getStartTime(), slot.getEndTime())) {
+                    nowFree.remove(slot.getId());
+                    nowConflicting.add(slot.getId());
+                }
+            }
+        }
+        if (!nowConflicting.isEmpty()) {
+            scheduleEventRepository.updateHasConflict(nowConflicting, true);
+        }
+        if (!nowFree.isEmpty()) {
+            scheduleEventRepository.updateHasConflict(nowFree, false);
+        }
+    }
+
     // Méthode de détection de conflits
-    private void detectConflicts(ScheduleEvent event) {
+    void detectConflicts(ScheduleEvent event) {
         boolean hasConflict = false;
-        boolean isRoomOverloaded = false; // Pour l'instant, on ne gère pas la surcharge de salle ici
+        boolean isRoomOverloaded;
 
-        // Vérifier les conflits de salle
-        List<ScheduleEvent> conflictingRoomEvents = scheduleEventRepository.findAll().stream()
-                .filter(e -> !e.getId().equals(event.getId())) // Exclure l'événement actuel lors de la mise à jour
-                .filter(e -> e.getRoom().getId().equals(event.getRoom().getId()))
-                .filter(e -> (event.getStartTime().isBefore(e.getEndTime()) && event.getEndTime().isAfter(e.getStartTime())))
-                .collect(Collectors.toList());
-        
-        if (!conflictingRoomEvents.isEmpty()) {
+        // Vérifier les conflits de salle (l'événement actuel est exclu)
+        if (conflictLookup.hasRoomOverlap(event.getRoom().getId(), event.getStartTime(), event.getEndTime(), event.getId())) {
             hasConflict = true;
         }
 
-        // Vérifier les conflits d'enseignant (si le cours a un enseignant responsable)
-        if (event.getCourse().getResponsibleTeacher() != null) {
-            String responsibleTeacherId = event.getCourse().getResponsibleTeacher().getId();
-            List<ScheduleEvent> conflictingTeacherEvents = scheduleEventRepository.findAll().stream()
-                    .filter(e -> !e.getId().equals(event.getId()))
-                    .filter(e -> e.getCourse().getResponsibleTeacher() != null && e.getCourse().getResponsibleTeacher().getId().equals(responsibleTeacherId))
-                    .filter(e -> (event.getStartTime().isBefore(e.getEndTime()) && event.getEndTime().isAfter(e.getStartTime())))
-                    .collect(Collectors.toList());
-            if (!conflictingTeacherEvents.isEmpty()) {
-                hasConflict = true;
-            }
+        // Vérifier les indisponibilités de la salle (maintenance, etc.)
+        if (roomAvailabilityIndex.isUnavailable(event.getRoom().getId(), event.getStartTime(), event.getEndTime())) {
+            hasConflict = true;
+        }
+
+        // Vérifier les disponibilités déclarées de l'enseignant et les créneaux autorisés du cours (un ET sur les masques)
+        WeeklyMask eventMask = WeeklyMask.of(event.getStartTime(), event.getEndTime());
+        if (!availabilityMaskCache.courseMask(event.getCourse()).contains(eventMask)
+                || !availabilityMaskCache.teacherMasks(event.getCourse().getResponsibleTeacher()).allowed().contains(eventMask)) {
+            hasConflict = true;
+        }
+
+        // Vérifier les conflits d'enseignant (responsable et enseignants associés du cours)
+        Set<String> teacherIds = ConflictIndex.teacherIdsOf(event.getCourse());
+        if (!teacherIds.isEmpty() && conflictLookup.hasTeacherOverlap(teacherIds, event.getStartTime(), event.getEndTime(), event.getId())) {
+            hasConflict = true;
         }
 
         // Vérifier les conflits d'étudiant (si l'événement a des étudiants associés)
         if (event.getStudents() != null && !event.getStudents().isEmpty()) {
             Set<String> eventStudentIds = event.getStudents().stream().map(User::getId).collect(Collectors.toSet());
-            List<ScheduleEvent> conflictingStudentEvents = scheduleEventRepository.findAll().stream()
-                    .filter(e -> !e.getId().equals(event.getId()))
-                    .filter(e -> e.getStudents() != null && e.getStudents().stream().anyMatch(s -> eventStudentIds.contains(s.getId())))
-                    .filter(e -> (event.getStartTime().isBefore(e.getEndTime()) && event.getEndTime().isAfter(e.getStartTime())))
-                    .collect(Collectors.toList());
-            if (!conflictingStudentEvents.isEmpty()) {
+            if (conflictLookup.hasStudentOverlap(eventStudentIds, event.getStartTime(), event.getEndTime(), event.getId())) {
                 hasConflict = true;
             }
         }
 
-        // TODO: Implémenter la logique isRoomOverloaded (comparer capacity de la room avec groupCapacity du course)
-        // Pour l'instant, on laisse à false
-        // if (event.getRoom().getCapacity() < event.getCourse().getGroupCapacity()) {
-        //     isRoomOverloaded = true;
-        // }
+        // Surcharge de salle : capacité (en cache) comparée au plus grand de groupCapacity et du nombre d'étudiants inscrits.
+        // Ici les étudiants viennent du DTO (déjà en mémoire) ; le re-contrôle en masse utilise un COUNT en base.
+        int studentCount = event.getStudents() != null ? event.getStudents().size() : 0;
+        isRoomOverloaded = isRoomOverloaded(roomCapacityCache.getCapacity(event.getRoom().getId()),
+                event.getCourse().getGroupCapacity(), studentCount);
 
         event.setHasConflict(hasConflict);
         event.setRoomOverloaded(isRoomOverloaded);
     }
+
+    // Contraintes propres à l'événement, indépendantes des autres événements (utilisé hors du chemin d'écriture)
+    boolean violatesAvailability(String roomId, String teacherId, String courseId, LocalDateTime start, LocalDateTime end) {
+        if (roomAvailabilityIndex.isUnavailable(roomId, start, end)) {
+            return true;
+        }
+        WeeklyMask eventMask = WeeklyMask.of(start, end);
+        return !availabilityMaskCache.courseMask(courseId).contains(eventMask)
+                || !availabilityMaskCache.teacherMasks(teacherId).allowed().contains(eventMask);
+    }
+
+    static boolean isRoomOverloaded(Integer roomCapacity, Integer groupCapacity, long studentCount) {
+        if (roomCapacity == null) {
+            return false;
+        }
+        long expected = Math.max(groupCapacity != null ? groupCapacity : 0, studentCount);
+        return expected > roomCapacity;
+    }
 }
@@ -8,6 +8,7 @@ import net.essaid.projetpfa.backend.entities.User;
 import net.essaid.projetpfa.backend.repository.CampusRepository;
 import net.essaid.projetpfa.backend.repository.DepartementRepository;
 import net.essaid.projetpfa.backend.repository.UserRepository;
+import net.essaid.projetpfa.backend.service.conflict.AvailabilityMaskCache;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,6 +34,8 @@ public class TeacherService {
     private CampusRepository campusRepository;
     @Autowired
     private DepartementRepository departementRepository;
+    @Autowired
+    private AvailabilityMaskCache availabilityMaskCache;
 
     @Transactional
     public TeacherResponseDTO createTeacher(TeacherRequestDTO request) {
@@ -67,6 +70,7 @@ public class TeacherService {
                 .map(existingTeacher -> {
                     mapDtoToEntity(request, existingTeacher);
                     User updatedTeacher = userRepository.save(existingTeacher);
+                    availabilityMaskCache.evictTeacher(id);
                     return new TeacherResponseDTO(updatedTeacher);
                 });
     }
@@ -124,6 +128,7 @@ public class TeacherService {
     public boolean deleteTeacher(String id) {
         if (userRepository.existsById(id)) {
             userRepository.deleteById(id);
+            availabilityMaskCache.evictTeacher(id);
             return true;
         }
         return false;
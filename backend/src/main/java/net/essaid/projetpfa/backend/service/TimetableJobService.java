@@ -0,0 +1,158 @@
+package net.essaid.projetpfa.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.essaid.projetpfa.backend.service.timetable.GenerationRequest;
+import net.essaid.projetpfa.backend.service.timetable.TimetableJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Générations d'emploi du temps en tâche de fond : la soumission rend immédiatement un identifiant,
+ * la génération s'exécute sur un pool dédié (threads et file bornés) et son avancement est consulté par polling.
+ * Une seule génération active à la fois par année universitaire et semestre ; les simulations (dryRun), qui n'écrivent rien, n'en bloquent aucune.
+ * Les générations qui écrivent partagent salles, enseignants et groupes quel que soit leur périmètre : elles s'exécutent
+ * l'une après l'autre, pour que chacune tienne compte de l'emploi du temps enregistré par la précédente.
+ */
+@Service
+public class TimetableJobService {
+
+    // Les générations terminées restent consultables pendant ce délai
+    private static final long RETENTION_HOURS = 24;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    // Générations exécutées en parallèle et en attente au plus
+    @Value("${pfa.app.timetable.jobThreads:1}")
+    private int jobThreads;
+
+    @Value("${pfa.app.timetable.jobQueueCapacity:4}")
+    private int jobQueueCapacity;
+
+    private final Map<String, TimetableJob> jobs = new ConcurrentHashMap<>();
+    private final Semaphore writer = new Semaphore(1, true);
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(jobThreads, jobThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "timetable-generation-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        jobs.values().forEach(TimetableJob::requestCancel);
+        executor.shutdownNow();
+    }
+
+    public synchronized TimetableJob submit(GenerationRequest request) {
+        purgeFinishedJobs();
+        Optional<TimetableJob> running = jobs.values().stream()
+                .filter(job -> !job.getStatus().isFinished() && !job.isDryRun() && !request.dryRun()
+                        && job.overlaps(request.academicYear(), request.semester()))
+                .findFirst();
+        if (running.isPresent()) {
+            throw new IllegalStateException("Une génération est déjà en cours pour ce périmètre (tâche " + running.get().getId() + ").");
+        }
+
+        TimetableJob job = new TimetableJob(UUID.randomUUID().toString(), request);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new IllegalStateException("Trop de générations en attente, réessayez plus tard.");
+        }
+        return job;
+    }
+
+    public Optional<TimetableJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<TimetableJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(TimetableJob::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    // Une génération en attente est retirée de la file ; en cours, elle s'arrête au prochain contrôle sans rien enregistrer.
+    // Pendant l'enregistrement, l'annulation est refusée
+    public Optional<TimetableJob> cancel(String id) {
+        TimetableJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (!job.requestCancel()) {
+            throw new IllegalStateException("La génération enregistre déjà l'emploi du temps, elle ne peut plus être annulée (tâche " + job.getId() + ").");
+        }
+        if (job.getStatus() == TimetableJob.Status.QUEUED && job.getFuture() != null && job.getFuture().cancel(false)) {
+            job.finish(TimetableJob.Status.CANCELLED, "Génération annulée.");
+        }
+        return Optional.of(job);
+    }
+
+    private void run(TimetableJob job) {
+        if (job.isCancelRequested() || (!job.isDryRun() && !awaitWriter(job))) {
+            job.finish(TimetableJob.Status.CANCELLED, "Génération annulée.");
+            return;
+        }
+        try {
+            job.start();
+            TimetableService.GenerationResult result = timetableService.generateTimetable(job.getRequest(), job);
+            job.succeed(result.eventsCreated(), result.unplacedSessions(), result.message(), result.diff());
+        } catch (CancellationException e) {
+            job.finish(TimetableJob.Status.CANCELLED, "Génération annulée.");
+        } catch (Exception e) {
+            job.finish(TimetableJob.Status.FAILED, "Erreur lors de la génération : " + e.getMessage());
+        } finally {
+            if (!job.isDryRun()) {
+                writer.release();
+            }
+        }
+    }
+
+    // Attente de la génération qui écrit en cours, la tâche restant en file ; false si elle est annulée entre-temps
+    private boolean awaitWriter(TimetableJob job) {
+        try {
+            while (!writer.tryAcquire(1, TimeUnit.SECONDS)) {
+                if (job.isCancelRequested()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusHours(RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.getStatus().isFinished() && job.getFinishedAt() != null && job.getFinishedAt().isBefore(limit));
+    }
+}
@@ -1,23 +1,60 @@
 package net.essaid.projetpfa.backend.service;
 
+import net.essaid.projetpfa.backend.dto.TimetableScoreDTO;
 import net.essaid.projetpfa.backend.entities.Course;
 import net.essaid.projetpfa.backend.entities.Room;
 import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.entities.UnplacedSession;
 import net.essaid.projetpfa.backend.repository.CourseRepository;
 import net.essaid.projetpfa.backend.repository.RoomRepository;
 import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import net.essaid.projetpfa.backend.repository.UnplacedSessionRepository;
+import net.essaid.projetpfa.backend.service.conflict.AvailabilityMaskCache;
+import net.essaid.projetpfa.backend.service.conflict.ConflictLookup;
+import net.essaid.projetpfa.backend.service.conflict.RoomAvailabilityIndex;
+import net.essaid.projetpfa.backend.service.conflict.RoomCompatibilityCache;
+import net.essaid.projetpfa.backend.service.timetable.GenerationRequest;
+import net.essaid.projetpfa.backend.service.timetable.RoomCompatibilityMatrix;
+import net.essaid.projetpfa.backend.service.timetable.Session;
+import net.essaid.projetpfa.backend.service.timetable.SlotBits;
+import net.essaid.projetpfa.backend.service.timetable.TimeGrid;
+import net.essaid.projetpfa.backend.service.timetable.TimetableDiff;
+import net.essaid.projetpfa.backend.service.timetable.TimetableImprover;
+import net.essaid.projetpfa.backend.service.timetable.TimetableJob;
+import net.essaid.projetpfa.backend.service.timetable.TimetablePinning;
+import net.essaid.projetpfa.backend.service.timetable.TimetablePortfolio;
+import net.essaid.projetpfa.backend.service.timetable.TimetableProblem;
+import net.essaid.projetpfa.backend.service.timetable.TimetableProblemBuilder;
+import net.essaid.projetpfa.backend.service.timetable.TimetableScorer;
+import net.essaid.projetpfa.backend.service.timetable.TimetableSolver;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 public class TimetableService {
 
+    // Avec un budget de temps, fin de la recherche puis de l'amélioration en part du délai : le reste est laissé à l'enregistrement
+    private static final int SOLVE_BUDGET_PERCENT = 70;
+    private static final int IMPROVE_BUDGET_PERCENT = 90;
+
     @Autowired
     private CourseRepository courseRepository;
     @Autowired
@@ -25,48 +62,554 @@ public class TimetableService {
     @Autowired
     private ScheduleEventRepository scheduleEventRepository;
     @Autowired
+    private UnplacedSessionRepository unplacedSessionRepository;
+    @Autowired
     private ScheduleEventService scheduleEventService; // Pour la détection de conflits
+    @Autowired
+    private ScheduleEventBatchWriter batchWriter;
+    @Autowired
+    private ConflictLookup conflictLookup;
+    @Autowired
+    private ConflictRecomputationService conflictRecomputationService;
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+    @Autowired
+    private AvailabilityMaskCache availabilityMaskCache;
+    @Autowired
+    private RoomCompatibilityCache roomCompatibilityCache;
+
+    // Nombre de semaines du semestre, pour ramener les volumes horaires des cours à une semaine type
+    @Value("${pfa.app.timetable.semesterWeeks:14}")
+    private int semesterWeeks;
+
+    // Recherches lancées en parallèle par la génération (0 : une par coeur)
+    @Value("${pfa.app.timetable.parallelism:0}")
+    private int parallelism;
+
+    // Durée de la phase d'amélioration (critères de qualité pondérés, voir TimetableScorer) après construction
+    @Value("${pfa.app.timetable.improvementMillis:5000}")
+    private long improvementMillis;
+
+    // Charge journalière d'un enseignant au-delà de laquelle la génération est pénalisée (0 : seul maxWeeklyHours compte)
+    @Value("${pfa.app.timetable.teacherMaxDailyHours:6}")
+    private int teacherMaxDailyHours;
+
+    // Poids des critères de qualité de l'emploi du temps, voir TimetableScorer
+    @Value("${pfa.app.timetable.weightPreference:10}")
+    private int weightPreference;
+    @Value("${pfa.app.timetable.weightGap:1}")
+    private int weightGap;
+    @Value("${pfa.app.timetable.weightRoomFit:1}")
+    private int weightRoomFit;
+    @Value("${pfa.app.timetable.weightTeacherLoad:5}")
+    private int weightTeacherLoad;
+    @Value("${pfa.app.timetable.weightLatePriority:5}")
+    private int weightLatePriority;
+    @Value("${pfa.app.timetable.weightCampusChange:3}")
+    private int weightCampusChange;
+    @Value("${pfa.app.timetable.weightStability:5}")
+    private int weightStability;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Bilan d'une génération terminée ; diff : écart avec l'emploi du temps enregistré, pour une simulation (null sinon)
+    public record GenerationResult(int sessions, int eventsCreated, int unplacedSessions, String message, TimetableDiff diff) {
+    }
+
+    // Séances du problème et, en régénération incrémentale, les événements existants de chaque séance par date (null sinon)
+    private record Plan(TimetableProblem problem, List<List<String>> eventIds, List<String> surplusEventIds) {
+    }
+
+    // Événements existants rattachés aux séances (par date), et ceux sans séance correspondante
+    private record Matching(List<List<ScheduleEvent>> series, List<String> surplusEventIds) {
+    }
+
+    // Départ et salle de chaque séance dans la semaine type (-1 : non placée)
+    private record Placement(int[] starts, int[] rooms) {
+    }
+
+    /**
+     * Génère l'emploi du temps d'une année universitaire et d'un semestre (null : tous les cours).
+     * Seules la lecture des données et l'enregistrement se font en transaction : la recherche,
+     * qui peut durer, ne garde ni connexion ni verrou. Le suivi (job) reçoit l'avancement et peut
+     * demander l'arrêt ; l'emploi du temps existant n'est remplacé qu'à l'enregistrement.
+     * En mode incrémental, les placements existants encore valides sont fixés et seules les autres séances sont replacées.
+     * Avec un budget de temps, recherche et amélioration s'arrêtent sur leur part du délai et le meilleur emploi du temps
+     * trouvé est enregistré ; dans tous les cas, les séances non placées sont enregistrées pour être consultées.
+     * En simulation (dryRun), rien n'est écrit : le résultat est comparé à l'emploi du temps enregistré.
+     */
+    public GenerationResult generateTimetable(GenerationRequest request, TimetableJob job) {
+        long begin = System.nanoTime();
+        // 1. Construire le problème (séances, domaines, salles compatibles) à partir des données actuelles
+        job.advance(TimetableJob.Status.BUILDING);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Plan plan = readOnly.execute(status -> request.incremental()
+                ? planIncremental(request)
+                : new Plan(warmStart(request, buildProblem(request.academicYear(), request.semester(), currentWeekStart())), null, List.of()));
+        TimetableProblem problem = plan.problem();
+        job.sessions(problem.sessions().size());
+
+        // 2. Résoudre puis améliorer, hors transaction
+        job.advance(TimetableJob.Status.SOLVING);
+        TimetableSolver.Options defaults = TimetableSolver.Options.defaults();
+        long solveStart = System.nanoTime();
+        long solveMillis = phaseBudget(request, begin, SOLVE_BUDGET_PERCENT, defaults.timeBudgetMillis());
+        TimetableSolver.Solution constructed = new TimetablePortfolio(parallelism).solve(problem,
+                new TimetableSolver.Options(defaults.seed(), solveMillis, defaults.backtrackLimit()), job);
+        boolean solveDeadlineReached = !constructed.complete() && (System.nanoTime() - solveStart) / 1_000_000L >= solveMillis;
+        checkNotCancelled(job);
+        job.advance(TimetableJob.Status.IMPROVING);
+        long improveMillis = phaseBudget(request, begin, IMPROVE_BUDGET_PERCENT, improvementMillis);
+        TimetableSolver.Solution solution = new TimetableImprover(problem, weights(),
+                new TimetableImprover.Options(0L, improveMillis, Long.MAX_VALUE))
+                .improve(constructed, job).solution();
+        // Délai atteint : placement interrompu avant d'être complet, ou amélioration écourtée par le budget de la requête
+        boolean deadlineReached = solveDeadlineReached || improveMillis < improvementMillis;
+        checkNotCancelled(job);
+        int unplaced = problem.sessions().size() - solution.placed();
+
+        // 3. Simulation : écart avec l'emploi du temps enregistré, en lecture seule
+        if (request.dryRun()) {
+            TimetableDiff diff = readOnly.execute(status -> diffWithSaved(request, problem, solution));
+            String message = String.format("Simulation terminée, emploi du temps inchangé. %d séances déplacées, %d ajoutées, %d retirées ; score %d -> %d.",
+                    diff.moved(), diff.added(), diff.removed(), diff.scoreBefore(), diff.scoreAfter());
+            if (unplaced > 0) {
+                message += String.format(" %d séances n'ont pas pu être placées.", unplaced);
+            }
+            return new GenerationResult(problem.sessions().size(), 0, unplaced, message + deadlineNote(deadlineReached), diff);
+        }
+
+        // 4. Remplacer l'emploi du temps du périmètre, ou ne modifier que les séances replacées
+        job.advance(TimetableJob.Status.SAVING);
+        checkNotCancelled(job); // Annulation acceptée juste avant le passage à l'enregistrement
+        if (request.incremental()) {
+            return new TransactionTemplate(transactionManager)
+                    .execute(status -> saveIncremental(request, plan, solution, unplaced, deadlineReached));
+        }
+        int eventsCreated = new TransactionTemplate(transactionManager)
+                .execute(status -> saveSolution(request.academicYear(), request.semester(), problem, solution));
+
+        String message = unplaced > 0
+                ? String.format("Génération partielle. %d événements ont été créés, %d séances n'ont pas pu être placées.", eventsCreated, unplaced)
+                : String.format("Génération terminée. %d événements ont été créés.", eventsCreated);
+        return new GenerationResult(problem.sessions().size(), eventsCreated, unplaced,
+                message + warmStartNote(problem, solution) + deadlineNote(deadlineReached), null);
+    }
+
+    // Séances du problème rattachées aux événements enregistrés du périmètre, comparées au résultat de la génération
+    private TimetableDiff diffWithSaved(GenerationRequest request, TimetableProblem problem, TimetableSolver.Solution solution) {
+        List<ScheduleEvent> existing = findScope(request.academicYear(), request.semester());
+        LocalDateTime weekStart = weekStartOf(existing);
+        Matching matching = matchEvents(problem, existing, event -> event.getCourse().getId());
+        Placement saved = placementOf(problem, matching.series(), weekStart);
+        return TimetableDiff.between(problem, weights(), weekStart, saved.starts(), saved.rooms(), solution.starts(), solution.rooms(),
+                matching.surplusEventIds().size());
+    }
+
+    /**
+     * Démarrage à chaud : chaque séance reçoit comme placement suggéré celui de l'emploi du temps de l'année universitaire
+     * précédente (même semestre), rattaché par code de cours puis clé de séance comme en régénération incrémentale.
+     * La recherche essaie ces placements en premier et ne cherche ailleurs que pour ceux qui ne sont plus valides.
+     * Sans année précédente, le problème est rendu tel quel.
+     */
+    private TimetableProblem warmStart(GenerationRequest request, TimetableProblem problem) {
+        String previousYear = GenerationRequest.previousAcademicYear(request.academicYear());
+        if (!request.warmStart() || previousYear == null) {
+            return problem;
+        }
+        List<ScheduleEvent> previous = findScope(previousYear, request.semester());
+        if (previous.isEmpty()) {
+            return problem;
+        }
+        LocalDateTime previousWeekStart = weekStartOf(previous);
+        // Les cours d'une autre année peuvent être d'autres entités : seul le code les relie
+        Map<String, String> courseIdsByCode = courseRepository.findAllById(problem.sessions().stream().map(Session::courseId).collect(Collectors.toSet()))
+                .stream().filter(course -> course.getCode() != null)
+                .collect(Collectors.toMap(Course::getCode, Course::getId, (first, second) -> first));
+        List<List<ScheduleEvent>> series = matchEvents(problem, previous, event -> courseIdsByCode.get(event.getCourse().getCode())).series();
+        Placement previousPlacement = placementOf(problem, series, previousWeekStart);
+        return problem.withHints(previousPlacement.starts(), previousPlacement.rooms());
+    }
+
+    private static String warmStartNote(TimetableProblem problem, TimetableSolver.Solution solution) {
+        int hinted = 0;
+        int reused = 0;
+        for (int i = 0; i < problem.sessions().size(); i++) {
+            if (problem.hintStarts()[i] >= 0) {
+                hinted++;
+                if (solution.starts()[i] == problem.hintStarts()[i] && solution.rooms()[i] == problem.hintRooms()[i]) {
+                    reused++;
+                }
+            }
+        }
+        return hinted == 0 ? "" : String.format(" %d séances sur %d reprises de l'année précédente.", reused, hinted);
+    }
+
+    // Durée d'une phase : la valeur configurée, bornée par sa part du budget de temps de la requête moins le temps déjà écoulé
+    private static long phaseBudget(GenerationRequest request, long begin, int percent, long configuredMillis) {
+        if (request.timeBudgetSeconds() == null) {
+            return configuredMillis;
+        }
+        long elapsed = (System.nanoTime() - begin) / 1_000_000L;
+        return Math.min(configuredMillis, Math.max(0L, request.timeBudgetSeconds() * 10L * percent - elapsed));
+    }
+
+    private static String deadlineNote(boolean deadlineReached) {
+        return deadlineReached ? " Délai de recherche atteint : le meilleur placement trouvé a été enregistré." : "";
+    }
 
-    @Transactional
-    public String generateTimetable() {
-        // 1. Nettoyer l'ancien emploi du temps
-        scheduleEventRepository.deleteAll();
+    // Séances non placées par la dernière génération du périmètre
+    public List<UnplacedSession> findUnplacedSessions(String academicYear, String semester) {
+        return unplacedSessionRepository.findByScope(academicYear, semester);
+    }
+
+    /**
+     * Associe les événements existants du périmètre aux séances : toutes les occurrences d'une séance portent sa clé ;
+     * les événements antérieurs à la clé sont rattachés par cours et type. Une séance est conservée si sa première
+     * occurrence, dans la semaine type, ne touche aucun cours, salle ou enseignant signalé comme modifié, garde la durée
+     * de la séance, si son nombre d'occurrences n'a pas changé, si toutes ses occurrences respectent les disponibilités
+     * et si elle n'entre pas en conflit avec une séance conservée avant elle (modifications manuelles d'abord).
+     * Les événements sans séance correspondante (cours réduit ou supprimé du semestre) sont à supprimer.
+     */
+    private Plan planIncremental(GenerationRequest request) {
+        List<ScheduleEvent> existing = findScope(request.academicYear(), request.semester());
+        LocalDateTime weekStart = weekStartOf(existing);
+        TimetableProblem problem = buildProblem(request.academicYear(), request.semester(), weekStart);
 
-        // 2. Récupérer toutes les données nécessaires
-        List<Course> courses = courseRepository.findAll();
-        List<Room> rooms = roomRepository.findAll();
+        int n = problem.sessions().size();
+        Map<String, Integer> roomIndex = roomIndexOf(problem);
+        Matching matching = matchEvents(problem, existing, event -> event.getCourse().getId());
+        List<List<ScheduleEvent>> series = matching.series();
 
-        if (rooms.isEmpty()) {
-            return "Génération échouée : Aucune salle n'est disponible.";
+        int[] starts = new int[n];
+        int[] rooms = new int[n];
+        Arrays.fill(starts, -1);
+        Arrays.fill(rooms, -1);
+        List<Integer> order = new ArrayList<>();
+        for (Session session : problem.sessions()) {
+            List<ScheduleEvent> occurrences = series.get(session.index());
+            if (occurrences.isEmpty() || occurrences.size() != session.recurrence().occurrences()) {
+                continue;
+            }
+            ScheduleEvent first = occurrences.get(0);
+            int slot = slotOnGrid(session, first, weekStart);
+            Integer r = roomIndex.get(first.getRoom().getId());
+            boolean changed = request.courseIds().contains(session.courseId())
+                    || request.roomIds().contains(first.getRoom().getId())
+                    || Arrays.stream(session.teachers()).anyMatch(t -> request.teacherIds().contains(problem.teacherIds()[t]));
+            if (r == null || slot < 0 || changed) {
+                continue;
+            }
+            String teacherId = first.getCourse().getResponsibleTeacher() != null ? first.getCourse().getResponsibleTeacher().getId() : null;
+            if (occurrences.stream().anyMatch(event -> scheduleEventService.violatesAvailability(event.getRoom().getId(), teacherId,
+                    session.courseId(), event.getStartTime(), event.getEndTime()))) {
+                continue;
+            }
+            starts[session.index()] = slot;
+            rooms[session.index()] = r;
+            order.add(session.index());
         }
+        // Modifications manuelles d'abord : elles l'emportent sur les placements automatiques en cas de conflit
+        order.sort(Comparator.comparing((Integer i) -> series.get(i).stream().noneMatch(event -> Boolean.TRUE.equals(event.isModified())))
+                .thenComparing(i -> series.get(i).get(0).getStartTime()));
+        TimetableProblem pinned = TimetablePinning.pin(problem, starts, rooms, order.stream().mapToInt(Integer::intValue).toArray());
+        List<List<String>> eventIds = series.stream().map(events -> events.stream().map(ScheduleEvent::getId).toList()).toList();
+        return new Plan(pinned, eventIds, matching.surplusEventIds());
+    }
 
-        int eventsCreated = 0;
-        // 3. Algorithme de génération de base (très simple)
-        for (Course course : courses) {
-            // Pour chaque cours, essayer de le placer dans un créneau
-            // Pour l'instant, on place tout le lundi matin pour la démo
-            LocalDateTime eventStart = LocalDateTime.now()
-                                            .with(DayOfWeek.MONDAY)
-                                            .with(LocalTime.of(8, 0));
-            LocalDateTime eventEnd = eventStart.plusHours(2);
+    /**
+     * Score de l'emploi du temps enregistré d'un périmètre, critère par critère, avec les poids configurés.
+     * Chaque séance est évaluée sur sa première occurrence, dans la semaine type de la génération ; les séances
+     * sans événement, ou déplacées à la main hors de la grille, ne comptent pas.
+     */
+    public TimetableScoreDTO scoreTimetable(String academicYear, String semester) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            List<ScheduleEvent> existing = findScope(academicYear, semester);
+            LocalDateTime weekStart = weekStartOf(existing);
+            TimetableProblem problem = buildProblem(academicYear, semester, weekStart);
+            Placement saved = placementOf(problem, matchEvents(problem, existing, event -> event.getCourse().getId()).series(), weekStart);
+            int evaluated = (int) Arrays.stream(saved.rooms()).filter(r -> r >= 0).count();
+            TimetableScorer.Score score = new TimetableScorer(problem).evaluate(saved.starts(), saved.rooms());
+            return new TimetableScoreDTO(academicYear, semester, problem.sessions().size(), evaluated, score, weights());
+        });
+    }
+
+    private List<ScheduleEvent> findScope(String academicYear, String semester) {
+        List<ScheduleEvent> existing = new ArrayList<>(scheduleEventRepository.findByScope(academicYear, semester));
+        existing.sort(Comparator.comparing(ScheduleEvent::getStartTime));
+        return existing;
+    }
 
-            // Trouver une salle disponible (la première pour l'instant)
-            Room availableRoom = rooms.get(0);
+    // La semaine type générée précédemment reste la référence des créneaux
+    private LocalDateTime weekStartOf(List<ScheduleEvent> existing) {
+        return existing.isEmpty() ? currentWeekStart()
+                : existing.get(0).getStartTime().toLocalDate().with(DayOfWeek.MONDAY).atStartOfDay();
+    }
 
-            // Créer l'événement
-            ScheduleEvent newEvent = new ScheduleEvent();
-            newEvent.setCourse(course);
-            newEvent.setRoom(availableRoom);
-            newEvent.setStartTime(eventStart);
-            newEvent.setEndTime(eventEnd);
-            newEvent.setSessionType(ScheduleEvent.SessionType.CM); // Type par défaut
+    private static Map<String, Integer> roomIndexOf(TimetableProblem problem) {
+        Map<String, Integer> roomIndex = new HashMap<>();
+        for (int r = 0; r < problem.roomIds().length; r++) {
+            roomIndex.put(problem.roomIds()[r], r);
+        }
+        return roomIndex;
+    }
 
-            // Détecter les conflits et sauvegarder
-            scheduleEventService.detectConflicts(newEvent);
-            scheduleEventRepository.save(newEvent);
-            eventsCreated++;
+    // Première occurrence de chaque séance, si elle est sur la grille et dans une salle du problème
+    private static Placement placementOf(TimetableProblem problem, List<List<ScheduleEvent>> series, LocalDateTime weekStart) {
+        Map<String, Integer> roomIndex = roomIndexOf(problem);
+        int n = problem.sessions().size();
+        int[] starts = new int[n];
+        int[] rooms = new int[n];
+        Arrays.fill(starts, -1);
+        Arrays.fill(rooms, -1);
+        for (Session session : problem.sessions()) {
+            List<ScheduleEvent> occurrences = series.get(session.index());
+            if (occurrences.isEmpty()) {
+                continue;
+            }
+            int slot = slotOnGrid(session, occurrences.get(0), weekStart);
+            Integer r = roomIndex.get(occurrences.get(0).getRoom().getId());
+            if (slot >= 0 && r != null) {
+                starts[session.index()] = slot;
+                rooms[session.index()] = r;
+            }
         }
+        return new Placement(starts, rooms);
+    }
+
+    // Créneau de la première occurrence dans la semaine type, -1 hors de la grille ou si la durée n'est plus celle de la séance
+    private static int slotOnGrid(Session session, ScheduleEvent first, LocalDateTime weekStart) {
+        long slot = TimeGrid.slotOf(weekStart, first.getStartTime());
+        boolean onGrid = slot >= 0 && slot + session.length() <= SlotBits.SLOTS
+                && TimeGrid.toDateTime(weekStart, (int) slot).equals(first.getStartTime())
+                && TimeGrid.toDateTime(weekStart, (int) slot + session.length()).equals(first.getEndTime());
+        return onGrid ? (int) slot : -1;
+    }
 
-        return String.format("Génération terminée. %d événements ont été créés.", eventsCreated);
+    /**
+     * Rattache les événements existants (triés par date) aux séances : toutes les occurrences d'une séance portent sa clé ;
+     * les événements antérieurs à la clé sont rattachés par cours et type, à une séance encore sans événement.
+     * courseIdOf donne le cours du problème auquel appartient un événement (null : aucun).
+     */
+    private static Matching matchEvents(TimetableProblem problem, List<ScheduleEvent> existing, Function<ScheduleEvent, String> courseIdOf) {
+        int n = problem.sessions().size();
+        Map<String, Session> sessionsByKey = new HashMap<>();
+        Map<String, List<Session>> sessionsByCourse = problem.sessions().stream().collect(Collectors.groupingBy(Session::courseId));
+        problem.sessions().forEach(session -> sessionsByKey.put(session.courseId() + "/" + session.key(), session));
+        List<List<ScheduleEvent>> series = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            series.add(new ArrayList<>());
+        }
+        List<ScheduleEvent> unmatched = new ArrayList<>();
+        for (ScheduleEvent event : existing) {
+            Session session = event.getSessionKey() == null ? null : sessionsByKey.get(courseIdOf.apply(event) + "/" + event.getSessionKey());
+            if (session != null) {
+                series.get(session.index()).add(event);
+            } else {
+                unmatched.add(event);
+            }
+        }
+        List<String> surplusEventIds = new ArrayList<>();
+        for (ScheduleEvent event : unmatched) {
+            Session session = sessionsByCourse.getOrDefault(courseIdOf.apply(event), List.of()).stream()
+                    .filter(candidate -> series.get(candidate.index()).isEmpty() && candidate.type() == event.getSessionType())
+                    .findFirst().orElse(null);
+            if (session != null) {
+                series.get(session.index()).add(event);
+            } else {
+                surplusEventIds.add(event.getId());
+            }
+        }
+        return new Matching(series, surplusEventIds);
+    }
+
+    // Les événements des autres périmètres sur les semaines générées restent en place : leurs ressources sont bloquées
+    private TimetableProblem buildProblem(String academicYear, String semester, LocalDateTime weekStart) {
+        List<Course> courses = courseRepository.findAll().stream()
+                .filter(course -> semester == null || semester.equals(course.getSemester()))
+                .toList();
+        RoomCompatibilityMatrix roomMatrix = roomCompatibilityCache.get();
+
+        if (roomMatrix.rooms().isEmpty()) {
+            throw new IllegalStateException("Génération échouée : Aucune salle n'est disponible.");
+        }
+
+        return new TimetableProblemBuilder(weekStart, semesterWeeks)
+                .courseMasks(availabilityMaskCache::courseMask)
+                .teacherMasks(teacher -> availabilityMaskCache.teacherMasks(teacher).allowed())
+                .teacherPreferences(teacher -> availabilityMaskCache.teacherMasks(teacher).preferred())
+                .roomUnavailability(roomId -> roomAvailabilityIndex.findUnavailable(roomId, weekStart, weekStart.plusWeeks(semesterWeeks)))
+                .teacherMaxDailyHours(teacherMaxDailyHours)
+                .occupiedBy(scheduleEventRepository.findOutsideScope(academicYear, semester, weekStart, weekStart.plusWeeks(semesterWeeks)))
+                .build(courses, roomMatrix);
+    }
+
+    private TimetableScorer.Weights weights() {
+        return new TimetableScorer.Weights(weightPreference, weightGap, weightRoomFit, weightTeacherLoad, weightLatePriority, weightCampusChange,
+                weightStability);
+    }
+
+    private int saveSolution(String academicYear, String semester, TimetableProblem problem, TimetableSolver.Solution solution) {
+        // Nettoyer l'ancien emploi du temps du périmètre : DELETE global, sans charger les événements
+        batchWriter.deleteScope(academicYear, semester);
+
+        // Cours et salles relus : ils ont pu être modifiés ou supprimés pendant la recherche
+        Map<String, Course> coursesById = courseRepository.findAllById(problem.sessions().stream().map(Session::courseId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Course::getId, course -> course));
+        Map<String, Room> roomsById = roomRepository.findAllById(List.of(problem.roomIds()))
+                .stream().collect(Collectors.toMap(Room::getId, room -> room));
+        LocalDateTime weekStart = problem.weekStart();
+
+        // Occurrences de chaque séance construites au fil de l'écriture par lots : jamais toutes en mémoire
+        int eventsCreated = batchWriter.insertAll(problem.sessions().stream()
+                .filter(session -> solution.isPlaced(session.index()))
+                .flatMap(session -> {
+                    Course course = coursesById.get(session.courseId());
+                    Room room = roomsById.get(problem.roomIds()[solution.rooms()[session.index()]]);
+                    if (course == null || room == null) {
+                        return Stream.empty();
+                    }
+                    int start = solution.starts()[session.index()];
+                    return IntStream.range(0, session.recurrence().occurrences()).mapToObj(occurrence -> {
+                        ScheduleEvent newEvent = new ScheduleEvent();
+                        newEvent.setCourse(course);
+                        newEvent.setAcademicYear(academicYear);
+                        newEvent.setSemester(semester != null ? semester : course.getSemester());
+                        place(newEvent, session, occurrence, room, weekStart, start, 0);
+                        return newEvent;
+                    });
+                }));
+
+        saveUnplaced(academicYear, semester, problem, solution, coursesById);
+
+        // Conflits de tout l'emploi du temps (autres périmètres compris) en une passe de balayage
+        conflictLookup.invalidate();
+        conflictRecomputationService.recomputeAllConflicts();
+        return eventsCreated;
+    }
+
+    // Remplace la liste des séances non placées du périmètre par celles de cette génération
+    private void saveUnplaced(String academicYear, String semester, TimetableProblem problem, TimetableSolver.Solution solution,
+                              Map<String, Course> coursesById) {
+        unplacedSessionRepository.deleteByScope(academicYear, semester);
+        LocalDateTime generatedAt = LocalDateTime.now();
+        unplacedSessionRepository.saveAll(solution.unplacedSessions().stream().map(i -> {
+            Session session = problem.sessions().get(i);
+            Course course = coursesById.get(session.courseId());
+            return new UnplacedSession(null, academicYear, semester != null || course == null ? semester : course.getSemester(),
+                    session.courseId(), course != null ? course.getCode() : null, session.key(), session.type(),
+                    session.length() * TimeGrid.SLOT_MINUTES, session.recurrence().occurrences(), generatedAt);
+        }).toList());
+    }
+
+    /**
+     * Enregistrement incrémental : les séances fixées ne sont pas touchées ; une séance replacée déplace ses
+     * événements existants (mêmes identifiants, mêmes étudiants), complétés ou réduits au nombre d'occurrences ;
+     * les événements en surplus sont supprimés. Une séance non fixée que la recherche n'a pas replacée perd ses anciens
+     * événements : ils n'étaient plus valides, et d'autres séances ont pu être placées sur leurs créneaux ; elle figure
+     * parmi les séances non placées. Les drapeaux de conflit sont ensuite recalculés en une passe.
+     */
+    private GenerationResult saveIncremental(GenerationRequest request, Plan plan, TimetableSolver.Solution solution, int unplaced,
+                                             boolean deadlineReached) {
+        TimetableProblem problem = plan.problem();
+        List<String> deleted = new ArrayList<>(plan.surplusEventIds());
+
+        Map<String, Course> coursesById = courseRepository.findAllById(problem.sessions().stream().map(Session::courseId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Course::getId, course -> course));
+        Map<String, Room> roomsById = roomRepository.findAllById(List.of(problem.roomIds()))
+                .stream().collect(Collectors.toMap(Room::getId, room -> room));
+        List<String> movedIds = new ArrayList<>();
+        for (Session session : problem.sessions()) {
+            if (!problem.isPinned(session.index()) && solution.isPlaced(session.index())) {
+                movedIds.addAll(plan.eventIds().get(session.index()));
+            }
+        }
+        Map<String, ScheduleEvent> eventsById = scheduleEventRepository.findAllById(movedIds)
+                .stream().collect(Collectors.toMap(ScheduleEvent::getId, event -> event));
+        // Effectifs des événements déplacés : COUNT groupé sur la table de jointure, sans charger les étudiants
+        Map<String, Long> studentCounts = movedIds.isEmpty() ? Map.of() : scheduleEventRepository.findEnrolmentsByIds(movedIds).stream()
+                .collect(Collectors.toMap(ScheduleEventRepository.EventEnrolment::getId, ScheduleEventRepository.EventEnrolment::getStudentCount));
+        int created = 0;
+        int moved = 0;
+        int kept = 0;
+        List<String> unplacedDeleted = new ArrayList<>();
+        for (Session session : problem.sessions()) {
+            int i = session.index();
+            List<String> existingIds = plan.eventIds().get(i);
+            if (problem.isPinned(i)) {
+                kept += existingIds.size();
+                continue;
+            }
+            if (!solution.isPlaced(i)) {
+                unplacedDeleted.addAll(existingIds);
+                continue;
+            }
+            Course course = coursesById.get(session.courseId());
+            Room room = roomsById.get(problem.roomIds()[solution.rooms()[i]]);
+            if (course == null || room == null) {
+                continue;
+            }
+            int occurrences = session.recurrence().occurrences();
+            for (int k = 0; k < Math.max(occurrences, existingIds.size()); k++) {
+                ScheduleEvent event = k < existingIds.size() ? eventsById.get(existingIds.get(k)) : null;
+                if (k >= occurrences) {
+                    deleted.add(existingIds.get(k));
+                    continue;
+                }
+                if (event == null) {
+                    event = new ScheduleEvent();
+                    event.setCourse(course);
+                    event.setAcademicYear(request.academicYear());
+                    event.setSemester(request.semester() != null ? request.semester() : course.getSemester());
+                    created++;
+                } else {
+                    moved++;
+                }
+                place(event, session, k, room, problem.weekStart(), solution.starts()[i],
+                        event.getId() != null ? studentCounts.getOrDefault(event.getId(), 0L).intValue() : 0);
+                scheduleEventRepository.save(event);
+            }
+        }
+        batchWriter.deleteAll(deleted);
+        batchWriter.deleteAll(unplacedDeleted);
+        saveUnplaced(request.academicYear(), request.semester(), problem, solution, coursesById);
+        conflictLookup.invalidate();
+        conflictRecomputationService.recomputeAllConflicts();
+
+        String message = String.format("Génération incrémentale terminée. %d événements créés, %d déplacés, %d conservés, %d supprimés.",
+                created, moved, kept, deleted.size());
+        if (unplaced > 0) {
+            message += String.format(" %d séances n'ont pas pu être placées.", unplaced);
+        }
+        if (!unplacedDeleted.isEmpty()) {
+            message += String.format(" %d événements de séances à replacer restées sans créneau ont été retirés.", unplacedDeleted.size());
+        }
+        return new GenerationResult(problem.sessions().size(), created, unplaced, message + deadlineNote(deadlineReached), null);
+    }
+
+    // Occurrence d'une séance : même créneau et même salle, dans la semaine donnée par la récurrence
+    private static void place(ScheduleEvent event, Session session, int occurrence, Room room, LocalDateTime weekStart, int start,
+                              int studentCount) {
+        LocalDateTime monday = weekStart.plusWeeks(session.recurrence().weekOf(occurrence));
+        event.setRoom(room);
+        event.setStartTime(TimeGrid.toDateTime(monday, start));
+        event.setEndTime(TimeGrid.toDateTime(monday, start + session.length()));
+        event.setSessionType(session.type());
+        event.setSessionKey(session.key());
+        event.setRoomOverloaded(ScheduleEventService.isRoomOverloaded(room.getCapacity(), event.getCourse().getGroupCapacity(), studentCount));
+    }
+
+    private LocalDateTime currentWeekStart() {
+        return LocalDate.now().with(DayOfWeek.MONDAY).atStartOfDay();
+    }
+
+    private static void checkNotCancelled(TimetableJob job) {
+        if (job.isCancelled()) {
+            throw new CancellationException("Génération annulée.");
+        }
     }
 }
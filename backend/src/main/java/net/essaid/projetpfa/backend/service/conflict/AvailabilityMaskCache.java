@@ -0,0 +1,115 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.User;
+import net.essaid.projetpfa.backend.repository.CourseRepository;
+import net.essaid.projetpfa.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Masques de disponibilité des enseignants et des cours, compilés une fois depuis les champs texte.
+ * Chaque entrée est indexée par l'id et versionnée par le texte source : une entité dont les champs
+ * ont changé est recompilée, et TeacherService/CourseService invalident l'entrée à chaque mise à jour
+ * (voir {@link CacheEviction} : les variantes par id ne comparent pas le texte source).
+ */
+@Component
+public class AvailabilityMaskCache {
+
+    // preferred vide = aucune préférence déclarée
+    public record TeacherMasks(WeeklyMask allowed, WeeklyMask preferred) {
+    }
+
+    private static final TeacherMasks UNCONSTRAINED = new TeacherMasks(WeeklyMask.FULL, WeeklyMask.EMPTY);
+
+    private record Cached<T>(List<String> source, T masks) {
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final Map<String, Cached<TeacherMasks>> teachers = new ConcurrentHashMap<>();
+    private final Map<String, Cached<WeeklyMask>> courses = new ConcurrentHashMap<>();
+
+    public TeacherMasks teacherMasks(User teacher) {
+        if (teacher == null) {
+            return UNCONSTRAINED;
+        }
+        List<String> source = Arrays.asList(teacher.getAvailableDays(), teacher.getAvailableTimeSlots(),
+                teacher.getUnavailableTimeSlots(), teacher.getNonWorkingDays(), teacher.getPreferredTimeSlots());
+        Cached<TeacherMasks> cached = teachers.get(teacher.getId());
+        if (cached != null && cached.source().equals(source)) {
+            return cached.masks();
+        }
+        TeacherMasks masks = compileTeacher(source);
+        teachers.put(teacher.getId(), new Cached<>(source, masks));
+        return masks;
+    }
+
+    // Variante par id (recalcul en masse) : l'entité n'est chargée qu'en l'absence d'entrée
+    public TeacherMasks teacherMasks(String teacherId) {
+        if (teacherId == null) {
+            return UNCONSTRAINED;
+        }
+        Cached<TeacherMasks> cached = teachers.get(teacherId);
+        if (cached != null) {
+            return cached.masks();
+        }
+        return userRepository.findById(teacherId).map(this::teacherMasks).orElse(UNCONSTRAINED);
+    }
+
+    public WeeklyMask courseMask(Course course) {
+        if (course == null) {
+            return WeeklyMask.FULL;
+        }
+        List<String> source = Arrays.asList(course.getAllowedTimeSlots(), course.getForbiddenTimeSlots());
+        Cached<WeeklyMask> cached = courses.get(course.getId());
+        if (cached != null && cached.source().equals(source)) {
+            return cached.masks();
+        }
+        WeeklyMask mask = orElse(TimeSlotParser.parse(source.get(0)), WeeklyMask.FULL)
+                .andNot(orElse(TimeSlotParser.parse(source.get(1)), WeeklyMask.EMPTY));
+        courses.put(course.getId(), new Cached<>(source, mask));
+        return mask;
+    }
+
+    public WeeklyMask courseMask(String courseId) {
+        if (courseId == null) {
+            return WeeklyMask.FULL;
+        }
+        Cached<WeeklyMask> cached = courses.get(courseId);
+        if (cached != null) {
+            return cached.masks();
+        }
+        return courseRepository.findById(courseId).map(this::courseMask).orElse(WeeklyMask.FULL);
+    }
+
+    public void evictTeacher(String teacherId) {
+        CacheEviction.evictNowAndAfterCompletion(() -> teachers.remove(teacherId));
+    }
+
+    public void evictCourse(String courseId) {
+        CacheEviction.evictNowAndAfterCompletion(() -> courses.remove(courseId));
+    }
+
+    // Jours et créneaux disponibles (non renseignés = tous), moins les indisponibilités et jours non travaillés
+    private TeacherMasks compileTeacher(List<String> source) {
+        WeeklyMask allowed = orElse(TimeSlotParser.parse(source.get(0)), WeeklyMask.FULL)
+                .and(orElse(TimeSlotParser.parse(source.get(1)), WeeklyMask.FULL))
+                .andNot(orElse(TimeSlotParser.parse(source.get(2)), WeeklyMask.EMPTY))
+                .andNot(orElse(TimeSlotParser.parse(source.get(3)), WeeklyMask.EMPTY));
+        return new TeacherMasks(allowed, orElse(TimeSlotParser.parse(source.get(4)), WeeklyMask.EMPTY));
+    }
+
+    private static WeeklyMask orElse(WeeklyMask mask, WeeklyMask fallback) {
+        return mask != null ? mask : fallback;
+    }
+}
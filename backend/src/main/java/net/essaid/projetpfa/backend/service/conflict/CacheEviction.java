@@ -0,0 +1,28 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Éviction des caches et index en mémoire après une écriture en base.
+ * L'entrée est retirée tout de suite, pour que la transaction en cours relise ses propres écritures, puis à nouveau
+ * à la fin de la transaction, validée ou annulée : une lecture concurrente faite avant la validation ne voit que
+ * l'ancien état validé et l'aurait remis en cache. Hors transaction, seule l'éviction immédiate a lieu.
+ */
+public final class CacheEviction {
+
+    private CacheEviction() {
+    }
+
+    public static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
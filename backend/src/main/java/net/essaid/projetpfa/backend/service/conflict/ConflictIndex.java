@@ -0,0 +1,347 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.repository.CourseRepository;
+import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index en mémoire des événements planifiés, utilisé par la détection de conflits.
+ * Un arbre d'intervalles par salle remplace le parcours complet de la table :
+ * une vérification de chevauchement coûte O(log n + k) au lieu de O(n).
+ * Les enseignants et les étudiants ont chacun une grille d'occupation en bitset ({@link OccupancyGrid}) ;
+ * un événement est inscrit dans la grille de chaque enseignant du cours (responsable et associés).
+ * L'index est chargé à la première utilisation puis maintenu à chaque écriture.
+ * Les écritures sont visibles immédiatement (y compris dans la transaction en cours) ;
+ * si la transaction est annulée, l'index est invalidé et rechargé au prochain accès.
+ * Une invalidation complète passe par {@link CacheEviction}.
+ */
+@Component
+@ConditionalOnProperty(name = "pfa.app.conflictLookup", havingValue = "memory", matchIfMissing = true)
+public class ConflictIndex implements ConflictLookup {
+
+    // teacherId : enseignant responsable (disponibilités) ; teacherIds : responsable et associés (conflits)
+    public record IndexedEvent(String id, String roomId, String courseId, String teacherId, Set<String> teacherIds,
+                               Set<String> studentIds, long start, long end) {
+    }
+
+    @Autowired
+    private ScheduleEventRepository scheduleEventRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IndexedEvent> events = new HashMap<>();
+    private final Map<String, IntervalTree<IndexedEvent>> roomTrees = new HashMap<>();
+    private final OccupancyGrid teacherGrid = new OccupancyGrid();
+    private final OccupancyGrid studentGrid = new OccupancyGrid();
+    private volatile boolean loaded = false;
+
+    public static long toEpochSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpochSeconds(long epochSeconds) {
+        return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public boolean hasRoomOverlap(String roomId, LocalDateTime start, LocalDateTime end, String excludedEventId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IntervalTree<IndexedEvent> tree = roomTrees.get(roomId);
+            return tree != null && tree.anyOverlapping(toEpochSeconds(start), toEpochSeconds(end), excludedEventId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static Set<String> teacherIdsOf(Course course) {
+        Set<String> teacherIds = new HashSet<>();
+        if (course.getResponsibleTeacher() != null) {
+            teacherIds.add(course.getResponsibleTeacher().getId());
+        }
+        if (course.getAssociatedTeachers() != null) {
+            course.getAssociatedTeachers().forEach(teacher -> teacherIds.add(teacher.getId()));
+        }
+        return teacherIds;
+    }
+
+    @Override
+    public boolean hasTeacherOverlap(Set<String> teacherIds, LocalDateTime start, LocalDateTime end, String excludedEventId) {
+        ensureLoaded();
+        long from = toEpochSeconds(start);
+        long to = toEpochSeconds(end);
+        lock.readLock().lock();
+        try {
+            for (String teacherId : teacherIds) {
+                if (teacherGrid.overlaps(teacherId, from, to, excludedEventId)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean hasStudentOverlap(Set<String> studentIds, LocalDateTime start, LocalDateTime end, String excludedEventId) {
+        ensureLoaded();
+        long from = toEpochSeconds(start);
+        long to = toEpochSeconds(end);
+        lock.readLock().lock();
+        try {
+            for (String studentId : studentIds) {
+                if (studentGrid.overlaps(studentId, from, to, excludedEventId)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Overlap> findOverlaps(String eventId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IndexedEvent event = events.get(eventId);
+            List<Overlap> overlaps = new ArrayList<>();
+            if (event == null) {
+                return overlaps;
+            }
+            IntervalTree<IndexedEvent> tree = roomTrees.get(event.roomId());
+            if (tree != null) {
+                for (IntervalTree.Entry<IndexedEvent> entry : tree.findOverlapping(event.start(), event.end())) {
+                    if (!entry.key().equals(eventId)) {
+                        overlaps.add(overlap(OverlapKind.ROOM, event.roomId(), event, entry.value()));
+                    }
+                }
+            }
+            for (String teacherId : event.teacherIds()) {
+                for (IndexedEvent other : teacherGrid.findOverlaps(teacherId, event.start(), event.end(), eventId)) {
+                    overlaps.add(overlap(OverlapKind.TEACHER, teacherId, event, other));
+                }
+            }
+            for (String studentId : event.studentIds()) {
+                for (IndexedEvent other : studentGrid.findOverlaps(studentId, event.start(), event.end(), eventId)) {
+                    overlaps.add(overlap(OverlapKind.STUDENT, studentId, event, other));
+                }
+            }
+            return overlaps;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> findNeighbours(String eventId) {
+        Set<String> neighbours = new HashSet<>();
+        findOverlaps(eventId).forEach(overlap -> neighbours.add(overlap.eventId()));
+        return neighbours;
+    }
+
+    @Override
+    public boolean isConflicting(String eventId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IndexedEvent event = events.get(eventId);
+            if (event == null) {
+                return false;
+            }
+            IntervalTree<IndexedEvent> tree = roomTrees.get(event.roomId());
+            if (tree != null && tree.anyOverlapping(event.start(), event.end(), eventId)) {
+                return true;
+            }
+            for (String teacherId : event.teacherIds()) {
+                if (teacherGrid.overlaps(teacherId, event.start(), event.end(), eventId)) {
+                    return true;
+                }
+            }
+            for (String studentId : event.studentIds()) {
+                if (studentGrid.overlaps(studentId, event.start(), event.end(), eventId)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(ScheduleEvent event) {
+        String teacherId = event.getCourse().getResponsibleTeacher() != null ? event.getCourse().getResponsibleTeacher().getId() : null;
+        Set<String> studentIds = new HashSet<>();
+        if (event.getStudents() != null) {
+            event.getStudents().forEach(student -> studentIds.add(student.getId()));
+        }
+        IndexedEvent indexed = new IndexedEvent(event.getId(), event.getRoom().getId(), event.getCourse().getId(), teacherId,
+                teacherIdsOf(event.getCourse()), studentIds,
+                toEpochSeconds(event.getStartTime()), toEpochSeconds(event.getEndTime()));
+        clearOnRollback();
+        if (!loaded) {
+            return; // Sera pris en compte par le chargement initial
+        }
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(indexed.id());
+            putUnlocked(indexed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String eventId) {
+        clearOnRollback();
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(eventId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Pour les opérations en masse (génération, suppression globale) : rechargement complet au prochain accès
+    @Override
+    public void invalidate() {
+        CacheEviction.evictNowAndAfterCompletion(this::clear);
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            events.clear();
+            roomTrees.clear();
+            teacherGrid.clear();
+            studentGrid.clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Lecture de tous les événements via trois projections (créneaux, étudiants, enseignants associés des cours)
+    public static List<IndexedEvent> readAllFromDatabase(ScheduleEventRepository scheduleEventRepository, CourseRepository courseRepository) {
+        Map<String, Set<String>> studentsByEvent = new HashMap<>();
+        for (ScheduleEventRepository.EventStudent row : scheduleEventRepository.findAllEventStudents()) {
+            studentsByEvent.computeIfAbsent(row.getEventId(), id -> new HashSet<>()).add(row.getStudentId());
+        }
+        Map<String, Set<String>> associatedByCourse = new HashMap<>();
+        for (CourseRepository.CourseTeacher row : courseRepository.findAllAssociatedTeachers()) {
+            associatedByCourse.computeIfAbsent(row.getCourseId(), id -> new HashSet<>()).add(row.getTeacherId());
+        }
+        // Un ensemble d'enseignants par cours, partagé par tous ses événements
+        Map<String, Set<String>> teachersByCourse = new HashMap<>();
+        List<IndexedEvent> result = new ArrayList<>();
+        for (ScheduleEventRepository.EventSlot slot : scheduleEventRepository.findAllSlots()) {
+            Set<String> teacherIds = teachersByCourse.computeIfAbsent(slot.getCourseId(), courseId -> {
+                Set<String> ids = new HashSet<>(associatedByCourse.getOrDefault(courseId, Set.of()));
+                if (slot.getTeacherId() != null) {
+                    ids.add(slot.getTeacherId());
+                }
+                return ids;
+            });
+            result.add(new IndexedEvent(slot.getId(), slot.getRoomId(), slot.getCourseId(), slot.getTeacherId(), teacherIds,
+                    studentsByEvent.getOrDefault(slot.getId(), Set.of()),
+                    toEpochSeconds(slot.getStartTime()), toEpochSeconds(slot.getEndTime())));
+        }
+        return result;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clearOnRollback(); // Le chargement peut voir des écritures non encore validées
+            readAllFromDatabase(scheduleEventRepository, courseRepository).forEach(this::putUnlocked);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Overlap overlap(OverlapKind kind, String resourceId, IndexedEvent event, IndexedEvent other) {
+        return new Overlap(kind, resourceId, other.id(),
+                fromEpochSeconds(Math.max(event.start(), other.start())), fromEpochSeconds(Math.min(event.end(), other.end())));
+    }
+
+    private void putUnlocked(IndexedEvent event) {
+        events.put(event.id(), event);
+        roomTrees.computeIfAbsent(event.roomId(), roomId -> new IntervalTree<>())
+                .insert(event.start(), event.end(), event.id(), event);
+        for (String teacherId : event.teacherIds()) {
+            teacherGrid.add(teacherId, event);
+        }
+        for (String studentId : event.studentIds()) {
+            studentGrid.add(studentId, event);
+        }
+    }
+
+    private void removeUnlocked(String eventId) {
+        IndexedEvent previous = events.remove(eventId);
+        if (previous == null) {
+            return;
+        }
+        IntervalTree<IndexedEvent> tree = roomTrees.get(previous.roomId());
+        if (tree != null) {
+            tree.remove(previous.start(), previous.id());
+            if (tree.isEmpty()) {
+                roomTrees.remove(previous.roomId());
+            }
+        }
+        for (String teacherId : previous.teacherIds()) {
+            teacherGrid.remove(teacherId, previous);
+        }
+        for (String studentId : previous.studentIds()) {
+            studentGrid.remove(studentId, previous);
+        }
+    }
+
+    // Une seule synchronisation par transaction, même pour des milliers d'écritures : l'index est vidé si elle est annulée
+    private void clearOnRollback() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ConflictIndex.this);
+                if (status != STATUS_COMMITTED) {
+                    clear();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recherche des chevauchements utilisée par la détection de conflits.
+ * Deux implémentations, choisies par la propriété pfa.app.conflictLookup :
+ * - memory (défaut) : {@link ConflictIndex}, index en mémoire, pour un déploiement sur un seul noeud ;
+ * - database : {@link DatabaseConflictLookup}, requêtes d'intervalle sur index composites,
+ *   toujours à jour quand plusieurs instances écrivent dans la même base.
+ */
+public interface ConflictLookup {
+
+    enum OverlapKind {
+        ROOM, TEACHER, STUDENT
+    }
+
+    // Chevauchement avec un autre événement sur une ressource partagée, et l'intervalle commun
+    record Overlap(OverlapKind kind, String resourceId, String eventId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    boolean hasRoomOverlap(String roomId, LocalDateTime start, LocalDateTime end, String excludedEventId);
+
+    // Enseignant responsable et enseignants associés du cours
+    boolean hasTeacherOverlap(Set<String> teacherIds, LocalDateTime start, LocalDateTime end, String excludedEventId);
+
+    boolean hasStudentOverlap(Set<String> studentIds, LocalDateTime start, LocalDateTime end, String excludedEventId);
+
+    // Chevauchements de l'événement (déjà enregistré) dans sa salle, chez son enseignant ou ses étudiants
+    List<Overlap> findOverlaps(String eventId);
+
+    // Identifiants des événements qui chevauchent l'événement, toutes ressources confondues
+    Set<String> findNeighbours(String eventId);
+
+    // État de conflit d'un événement déjà enregistré
+    boolean isConflicting(String eventId);
+
+    // Notifications d'écriture, à appeler après chaque sauvegarde / suppression
+    void index(ScheduleEvent event);
+
+    void remove(String eventId);
+
+    void invalidate();
+}
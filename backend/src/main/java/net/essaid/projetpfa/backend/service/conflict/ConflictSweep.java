@@ -0,0 +1,63 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Recalcul global des conflits par balayage (sweep line).
+ * Les événements sont triés une seule fois par date de début, puis répartis par salle, enseignant
+ * et étudiant en conservant cet ordre. Dans chaque ressource, un événement est en conflit si :
+ * - il commence avant la plus grande fin des événements précédents, ou
+ * - l'événement suivant commence avant sa fin.
+ * Coût total O(n log n) pour le tri, puis linéaire dans le nombre d'affectations.
+ */
+public final class ConflictSweep {
+
+    private ConflictSweep() {
+    }
+
+    public static Set<String> findConflictingEvents(Collection<ConflictIndex.IndexedEvent> events) {
+        List<ConflictIndex.IndexedEvent> sorted = new ArrayList<>(events);
+        sorted.sort(Comparator.comparingLong(ConflictIndex.IndexedEvent::start));
+
+        Set<String> conflicting = new HashSet<>();
+        sweep(groupBy(sorted, event -> List.of(event.roomId())), conflicting);
+        sweep(groupBy(sorted, ConflictIndex.IndexedEvent::teacherIds), conflicting);
+        sweep(groupBy(sorted, ConflictIndex.IndexedEvent::studentIds), conflicting);
+        return conflicting;
+    }
+
+    // Regroupement par ressource : chaque liste reste triée par date de début
+    private static Map<String, List<ConflictIndex.IndexedEvent>> groupBy(List<ConflictIndex.IndexedEvent> sorted,
+                                                                        Function<ConflictIndex.IndexedEvent, Collection<String>> keys) {
+        Map<String, List<ConflictIndex.IndexedEvent>> groups = new HashMap<>();
+        for (ConflictIndex.IndexedEvent event : sorted) {
+            for (String key : keys.apply(event)) {
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+            }
+        }
+        return groups;
+    }
+
+    private static void sweep(Map<String, List<ConflictIndex.IndexedEvent>> groups, Set<String> conflicting) {
+        for (List<ConflictIndex.IndexedEvent> timeline : groups.values()) {
+            long maxEnd = Long.MIN_VALUE;
+            for (int i = 0; i < timeline.size(); i++) {
+                ConflictIndex.IndexedEvent event = timeline.get(i);
+                boolean overlapsPrevious = event.start() < maxEnd;
+                boolean overlapsNext = i + 1 < timeline.size() && timeline.get(i + 1).start() < event.end();
+                if (overlapsPrevious || overlapsNext) {
+                    conflicting.add(event.id());
+                }
+                maxEnd = Math.max(maxEnd, event.end());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.entities.User;
+import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Détection des chevauchements directement en base : chaque vérification est un parcours
+ * d'intervalle borné sur un index composite (salle, cours ou étudiant puis horaires),
+ * sans transfert de la table complète. Aucun état n'est gardé en mémoire.
+ */
+@Component
+@ConditionalOnProperty(name = "pfa.app.conflictLookup", havingValue = "database")
+public class DatabaseConflictLookup implements ConflictLookup {
+
+    // Un nouvel événement n'a pas encore d'identifiant : "" n'exclut rien
+    private static final String NO_EVENT = "";
+
+    private record Hit(OverlapKind kind, String resourceId, String eventId) {
+    }
+
+    @Autowired
+    private ScheduleEventRepository scheduleEventRepository;
+
+    @Override
+    public boolean hasRoomOverlap(String roomId, LocalDateTime start, LocalDateTime end, String excludedEventId) {
+        return !scheduleEventRepository.findRoomOverlapIds(roomId, start, end, excluded(excludedEventId)).isEmpty();
+    }
+
+    @Override
+    public boolean hasTeacherOverlap(Set<String> teacherIds, LocalDateTime start, LocalDateTime end, String excludedEventId) {
+        return !teacherIds.isEmpty()
+                && !scheduleEventRepository.findTeacherOverlapIds(teacherIds, start, end, excluded(excludedEventId)).isEmpty();
+    }
+
+    @Override
+    public boolean hasStudentOverlap(Set<String> studentIds, LocalDateTime start, LocalDateTime end, String excludedEventId) {
+        return !studentIds.isEmpty()
+                && !scheduleEventRepository.findStudentOverlapIds(studentIds, start, end, excluded(excludedEventId)).isEmpty();
+    }
+
+    @Override
+    public List<Overlap> findOverlaps(String eventId) {
+        Optional<ScheduleEvent> found = scheduleEventRepository.findById(eventId);
+        if (found.isEmpty()) {
+            return List.of();
+        }
+        ScheduleEvent event = found.get();
+        LocalDateTime start = event.getStartTime();
+        LocalDateTime end = event.getEndTime();
+
+        // Identifiants seulement, puis une projection pour les horaires des événements trouvés
+        List<Hit> hits = new ArrayList<>();
+        String roomId = event.getRoom().getId();
+        scheduleEventRepository.findRoomOverlapIds(roomId, start, end, eventId)
+                .forEach(id -> hits.add(new Hit(OverlapKind.ROOM, roomId, id)));
+        Set<String> teacherIds = ConflictIndex.teacherIdsOf(event.getCourse());
+        if (!teacherIds.isEmpty()) {
+            // Un même couple (événement, enseignant) peut être à la fois responsable et associé
+            Set<Hit> teacherHits = new LinkedHashSet<>();
+            scheduleEventRepository.findResponsibleTeacherOverlaps(teacherIds, start, end, eventId)
+                    .forEach(row -> teacherHits.add(new Hit(OverlapKind.TEACHER, row.getTeacherId(), row.getEventId())));
+            scheduleEventRepository.findAssociatedTeacherOverlaps(teacherIds, start, end, eventId)
+                    .forEach(row -> teacherHits.add(new Hit(OverlapKind.TEACHER, row.getTeacherId(), row.getEventId())));
+            hits.addAll(teacherHits);
+        }
+        Set<String> studentIds = studentIds(event);
+        if (!studentIds.isEmpty()) {
+            scheduleEventRepository.findStudentOverlaps(studentIds, start, end, eventId)
+                    .forEach(row -> hits.add(new Hit(OverlapKind.STUDENT, row.getStudentId(), row.getEventId())));
+        }
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, ScheduleEventRepository.EventSlot> slots = new HashMap<>();
+        scheduleEventRepository.findSlotsByIds(hits.stream().map(Hit::eventId).collect(Collectors.toSet()))
+                .forEach(slot -> slots.put(slot.getId(), slot));
+        List<Overlap> overlaps = new ArrayList<>();
+        for (Hit hit : hits) {
+            ScheduleEventRepository.EventSlot other = slots.get(hit.eventId());
+            if (other != null) {
+                overlaps.add(new Overlap(hit.kind(), hit.resourceId(), hit.eventId(),
+                        start.isAfter(other.getStartTime()) ? start : other.getStartTime(),
+                        end.isBefore(other.getEndTime()) ? end : other.getEndTime()));
+            }
+        }
+        return overlaps;
+    }
+
+    @Override
+    public Set<String> findNeighbours(String eventId) {
+        Set<String> neighbours = new HashSet<>();
+        findOverlaps(eventId).forEach(overlap -> neighbours.add(overlap.eventId()));
+        return neighbours;
+    }
+
+    @Override
+    public boolean isConflicting(String eventId) {
+        return scheduleEventRepository.findById(eventId)
+                .map(event -> hasRoomOverlap(event.getRoom().getId(), event.getStartTime(), event.getEndTime(), eventId)
+                        || hasTeacherOverlap(ConflictIndex.teacherIdsOf(event.getCourse()), event.getStartTime(), event.getEndTime(), eventId)
+                        || hasStudentOverlap(studentIds(event), event.getStartTime(), event.getEndTime(), eventId))
+                .orElse(false);
+    }
+
+    // La base est la source de vérité : rien à maintenir
+    @Override
+    public void index(ScheduleEvent event) {
+    }
+
+    @Override
+    public void remove(String eventId) {
+    }
+
+    @Override
+    public void invalidate() {
+    }
+
+    private String excluded(String eventId) {
+        return eventId != null ? eventId : NO_EVENT;
+    }
+
+    private Set<String> studentIds(ScheduleEvent event) {
+        return event.getStudents() == null ? Set.of() : event.getStudents().stream().map(User::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,218 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arbre d'intervalles augmenté (AVL) sur des intervalles semi-ouverts [start, end).
+ * Chaque noeud mémorise la plus grande borne de fin de son sous-arbre, ce qui permet
+ * de trouver les k intervalles chevauchant une requête en O(log n + k).
+ * Les entrées sont ordonnées par (start, key) : la clé (id d'événement) rend chaque entrée unique.
+ * Non thread-safe : la synchronisation est assurée par l'appelant.
+ */
+public class IntervalTree<V> {
+
+    public record Entry<V>(long start, long end, String key, V value) {
+        public boolean overlaps(long otherStart, long otherEnd) {
+            return start < otherEnd && end > otherStart;
+        }
+    }
+
+    private static final class Node<V> {
+        final long start;
+        final String key;
+        long end;
+        long maxEnd;
+        V value;
+        int height = 1;
+        Node<V> left;
+        Node<V> right;
+
+        Node(long start, long end, String key, V value) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<V> root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    public void insert(long start, long end, String key, V value) {
+        root = insert(root, start, end, key, value);
+    }
+
+    public boolean remove(long start, String key) {
+        int before = size;
+        root = remove(root, start, key);
+        return size < before;
+    }
+
+    // Tous les intervalles qui chevauchent [start, end)
+    public List<Entry<V>> findOverlapping(long start, long end) {
+        List<Entry<V>> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    public boolean anyOverlapping(long start, long end, String excludedKey) {
+        return anyOverlapping(root, start, end, excludedKey);
+    }
+
+    // Parcours ordonné par date de début
+    public List<Entry<V>> entries() {
+        List<Entry<V>> result = new ArrayList<>(size);
+        collect(root, Long.MIN_VALUE, Long.MAX_VALUE, result);
+        return result;
+    }
+
+    private void collect(Node<V> node, long start, long end, List<Entry<V>> result) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, result);
+        if (node.start >= end) {
+            return; // Le sous-arbre droit commence encore plus tard
+        }
+        if (node.end > start) {
+            result.add(new Entry<>(node.start, node.end, node.key, node.value));
+        }
+        collect(node.right, start, end, result);
+    }
+
+    private boolean anyOverlapping(Node<V> node, long start, long end, String excludedKey) {
+        if (node == null || node.maxEnd <= start) {
+            return false;
+        }
+        if (anyOverlapping(node.left, start, end, excludedKey)) {
+            return true;
+        }
+        if (node.start >= end) {
+            return false;
+        }
+        if (node.end > start && !node.key.equals(excludedKey)) {
+            return true;
+        }
+        return anyOverlapping(node.right, start, end, excludedKey);
+    }
+
+    private Node<V> insert(Node<V> node, long start, long end, String key, V value) {
+        if (node == null) {
+            size++;
+            return new Node<>(start, end, key, value);
+        }
+        int cmp = compare(start, key, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, start, end, key, value);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, start, end, key, value);
+        } else {
+            node.end = end;
+            node.value = value;
+        }
+        return rebalance(node);
+    }
+
+    private Node<V> remove(Node<V> node, long start, String key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, key, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, key);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, key);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Remplacer par le successeur (minimum du sous-arbre droit)
+            Node<V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node<V> replacement = new Node<>(successor.start, successor.end, successor.key, successor.value);
+            size++; // Compensé par le retrait du successeur ci-dessous
+            replacement.right = remove(node.right, successor.start, successor.key);
+            replacement.left = node.left;
+            node = replacement;
+        }
+        return rebalance(node);
+    }
+
+    private int compare(long start, String key, Node<V> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : key.compareTo(node.key);
+    }
+
+    private Node<V> rebalance(Node<V> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<V> rotateLeft(Node<V> node) {
+        Node<V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<V> rotateRight(Node<V> node) {
+        Node<V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<V> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long max = node.end;
+        if (node.left != null && node.left.maxEnd > max) {
+            max = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > max) {
+            max = node.right.maxEnd;
+        }
+        node.maxEnd = max;
+    }
+
+    private int height(Node<V> node) {
+        return node == null ? 0 : node.height;
+    }
+}
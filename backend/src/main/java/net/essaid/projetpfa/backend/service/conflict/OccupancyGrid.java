@@ -0,0 +1,146 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grille d'occupation par ressource (enseignant, étudiant) : un bitset de créneaux de 15 minutes par semaine.
+ * Un test de chevauchement se réduit à quelques ET logiques sur des mots de 64 bits ; les événements
+ * de la semaine ne sont parcourus que si des bits se recoupent, pour confirmer le chevauchement exact
+ * (les horaires ne sont pas forcément alignés sur les créneaux).
+ * Non thread-safe : la synchronisation est assurée par {@link ConflictIndex}.
+ */
+public class OccupancyGrid {
+
+    public static final long SLOT_SECONDS = 15 * 60;
+    public static final int SLOTS_PER_WEEK = 7 * 24 * 4;
+    private static final int WORDS_PER_WEEK = (SLOTS_PER_WEEK + 63) / 64;
+
+    private static final class Week {
+        final long[] bits = new long[WORDS_PER_WEEK];
+        final List<ConflictIndex.IndexedEvent> events = new ArrayList<>(4);
+    }
+
+    private final Map<String, Map<Long, Week>> resources = new HashMap<>();
+
+    public void clear() {
+        resources.clear();
+    }
+
+    public void add(String resourceId, ConflictIndex.IndexedEvent event) {
+        Map<Long, Week> weeks = resources.computeIfAbsent(resourceId, id -> new HashMap<>());
+        long firstSlot = firstSlot(event.start());
+        long endSlot = endSlot(event.end());
+        for (long week = weekOf(firstSlot); week <= weekOf(endSlot - 1); week++) {
+            Week bucket = weeks.computeIfAbsent(week, w -> new Week());
+            bucket.events.add(event);
+            setBits(bucket.bits, week, firstSlot, endSlot);
+        }
+    }
+
+    public void remove(String resourceId, ConflictIndex.IndexedEvent event) {
+        Map<Long, Week> weeks = resources.get(resourceId);
+        if (weeks == null) {
+            return;
+        }
+        long firstSlot = firstSlot(event.start());
+        long endSlot = endSlot(event.end());
+        for (long week = weekOf(firstSlot); week <= weekOf(endSlot - 1); week++) {
+            Week bucket = weeks.get(week);
+            if (bucket == null) {
+                continue;
+            }
+            bucket.events.removeIf(e -> e.id().equals(event.id()));
+            if (bucket.events.isEmpty()) {
+                weeks.remove(week);
+                continue;
+            }
+            // D'autres événements peuvent partager les mêmes créneaux : on reconstruit la semaine
+            Arrays.fill(bucket.bits, 0L);
+            for (ConflictIndex.IndexedEvent remaining : bucket.events) {
+                setBits(bucket.bits, week, firstSlot(remaining.start()), endSlot(remaining.end()));
+            }
+        }
+        if (weeks.isEmpty()) {
+            resources.remove(resourceId);
+        }
+    }
+
+    public boolean overlaps(String resourceId, long start, long end, String excludedEventId) {
+        return !findOverlaps(resourceId, start, end, excludedEventId, true).isEmpty();
+    }
+
+    public List<ConflictIndex.IndexedEvent> findOverlaps(String resourceId, long start, long end, String excludedEventId) {
+        return findOverlaps(resourceId, start, end, excludedEventId, false);
+    }
+
+    private List<ConflictIndex.IndexedEvent> findOverlaps(String resourceId, long start, long end, String excludedEventId, boolean firstOnly) {
+        Map<Long, Week> weeks = resources.get(resourceId);
+        if (weeks == null || end <= start) {
+            return List.of();
+        }
+        List<ConflictIndex.IndexedEvent> result = new ArrayList<>();
+        long firstSlot = firstSlot(start);
+        long endSlot = endSlot(end);
+        for (long week = weekOf(firstSlot); week <= weekOf(endSlot - 1); week++) {
+            Week bucket = weeks.get(week);
+            if (bucket == null || !intersects(bucket.bits, week, firstSlot, endSlot)) {
+                continue;
+            }
+            for (ConflictIndex.IndexedEvent candidate : bucket.events) {
+                if (candidate.start() < end && candidate.end() > start && !candidate.id().equals(excludedEventId)
+                        && !result.contains(candidate)) {
+                    result.add(candidate);
+                    if (firstOnly) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long firstSlot(long epochSeconds) {
+        return Math.floorDiv(epochSeconds, SLOT_SECONDS);
+    }
+
+    private static long endSlot(long epochSeconds) {
+        return Math.floorDiv(epochSeconds - 1, SLOT_SECONDS) + 1; // Borne exclusive, arrondie au créneau supérieur
+    }
+
+    private static long weekOf(long slot) {
+        return Math.floorDiv(slot, SLOTS_PER_WEEK);
+    }
+
+    // Marque les créneaux [firstSlot, endSlot) qui tombent dans la semaine donnée
+    private static void setBits(long[] bits, long week, long firstSlot, long endSlot) {
+        int from = (int) Math.max(firstSlot - week * SLOTS_PER_WEEK, 0);
+        int to = (int) Math.min(endSlot - week * SLOTS_PER_WEEK, SLOTS_PER_WEEK);
+        for (int word = from >>> 6; word <= (to - 1) >>> 6 && from < to; word++) {
+            bits[word] |= rangeMask(word, from, to);
+        }
+    }
+
+    private static boolean intersects(long[] bits, long week, long firstSlot, long endSlot) {
+        int from = (int) Math.max(firstSlot - week * SLOTS_PER_WEEK, 0);
+        int to = (int) Math.min(endSlot - week * SLOTS_PER_WEEK, SLOTS_PER_WEEK);
+        for (int word = from >>> 6; word <= (to - 1) >>> 6 && from < to; word++) {
+            if ((bits[word] & rangeMask(word, from, to)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Masque des bits [from, to) tombant dans le mot donné
+    private static long rangeMask(int word, int from, int to) {
+        int wordStart = word << 6;
+        int lo = Math.max(from - wordStart, 0);
+        int hi = Math.min(to - wordStart, 64);
+        long upper = hi == 64 ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+}
@@ -0,0 +1,112 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.repository.RoomUnavailablePeriodRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index en mémoire des périodes d'indisponibilité des salles (maintenance, réservations externes).
+ * Un arbre d'intervalles par salle : vérifier un créneau coûte O(log n) au lieu de parcourir
+ * toutes les périodes. Chargé une seule fois, puis rechargé salle par salle après modification.
+ */
+@Component
+public class RoomAvailabilityIndex {
+
+    public record UnavailablePeriod(String id, String roomId, LocalDateTime start, LocalDateTime end, String reason) {
+    }
+
+    @Autowired
+    private RoomUnavailablePeriodRepository roomUnavailablePeriodRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IntervalTree<UnavailablePeriod>> roomTrees = new HashMap<>();
+    private final Set<String> staleRooms = new HashSet<>();
+    private volatile boolean loaded = false;
+
+    public boolean isUnavailable(String roomId, LocalDateTime start, LocalDateTime end) {
+        return isUnavailable(roomId, ConflictIndex.toEpochSeconds(start), ConflictIndex.toEpochSeconds(end));
+    }
+
+    // Bornes en secondes epoch, comme dans ConflictIndex
+    public boolean isUnavailable(String roomId, long start, long end) {
+        ensureFresh(roomId);
+        lock.readLock().lock();
+        try {
+            IntervalTree<UnavailablePeriod> tree = roomTrees.get(roomId);
+            return tree != null && tree.anyOverlapping(start, end, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<UnavailablePeriod> findUnavailable(String roomId, LocalDateTime start, LocalDateTime end) {
+        ensureFresh(roomId);
+        lock.readLock().lock();
+        try {
+            List<UnavailablePeriod> periods = new ArrayList<>();
+            IntervalTree<UnavailablePeriod> tree = roomTrees.get(roomId);
+            if (tree != null) {
+                tree.findOverlapping(ConflictIndex.toEpochSeconds(start), ConflictIndex.toEpochSeconds(end))
+                        .forEach(entry -> periods.add(entry.value()));
+            }
+            return periods;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Appelé quand une salle ou ses périodes d'indisponibilité sont modifiées ou supprimées
+    public void invalidate(String roomId) {
+        CacheEviction.evictNowAndAfterCompletion(() -> markStale(roomId));
+    }
+
+    private void markStale(String roomId) {
+        lock.writeLock().lock();
+        try {
+            roomTrees.remove(roomId);
+            staleRooms.add(roomId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureFresh(String roomId) {
+        lock.readLock().lock();
+        try {
+            if (loaded && !staleRooms.contains(roomId)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                roomTrees.clear();
+                staleRooms.clear();
+                roomUnavailablePeriodRepository.findAllSlots().forEach(this::putUnlocked);
+                loaded = true;
+            } else if (staleRooms.remove(roomId)) {
+                roomTrees.remove(roomId);
+                roomUnavailablePeriodRepository.findSlotsByRoomId(roomId).forEach(this::putUnlocked);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putUnlocked(RoomUnavailablePeriodRepository.PeriodSlot slot) {
+        UnavailablePeriod period = new UnavailablePeriod(slot.getId(), slot.getRoomId(), slot.getStartTime(), slot.getEndTime(), slot.getReason());
+        roomTrees.computeIfAbsent(period.roomId(), id -> new IntervalTree<>())
+                .insert(ConflictIndex.toEpochSeconds(period.start()), ConflictIndex.toEpochSeconds(period.end()), period.id(), period);
+    }
+}
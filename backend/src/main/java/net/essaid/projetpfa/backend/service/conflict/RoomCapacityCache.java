@@ -0,0 +1,31 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Capacités des salles gardées en mémoire pour la détection de surcharge :
+ * évite de recharger l'entité Room à chaque écriture d'événement.
+ * RoomService invalide l'entrée quand une salle est modifiée ou supprimée.
+ */
+@Component
+public class RoomCapacityCache {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private final Map<String, Integer> capacities = new ConcurrentHashMap<>();
+
+    // Null si la salle n'existe pas
+    public Integer getCapacity(String roomId) {
+        return capacities.computeIfAbsent(roomId, id -> roomRepository.findCapacityById(id));
+    }
+
+    public void evict(String roomId) {
+        CacheEviction.evictNowAndAfterCompletion(() -> capacities.remove(roomId));
+    }
+}
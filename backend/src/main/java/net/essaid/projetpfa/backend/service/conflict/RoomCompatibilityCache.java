@@ -0,0 +1,33 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.repository.RoomRepository;
+import net.essaid.projetpfa.backend.service.timetable.RoomCompatibilityMatrix;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Matrice de compatibilité salles / séances gardée en mémoire entre deux générations et pour la recherche
+ * de salles libres. Reconstruite au premier accès après une création, modification ou suppression de salle
+ * (RoomService appelle invalidate).
+ */
+@Component
+public class RoomCompatibilityCache {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private volatile RoomCompatibilityMatrix matrix;
+
+    public RoomCompatibilityMatrix get() {
+        RoomCompatibilityMatrix current = matrix;
+        if (current == null) {
+            current = RoomCompatibilityMatrix.of(roomRepository.findAll());
+            matrix = current;
+        }
+        return current;
+    }
+
+    public void invalidate() {
+        CacheEviction.evictNowAndAfterCompletion(() -> matrix = null);
+    }
+}
@@ -0,0 +1,125 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Traduit les champs texte de disponibilité (ex. "Lundi, Mardi", "Matin, Après-midi", "MardiMatin",
+ * "TueEvening", "Jeudi 08:00-10:00", ou un tableau JSON de ces valeurs) en {@link WeeklyMask}.
+ * Un jour seul couvre toute la journée, une période seule s'applique à tous les jours.
+ * Les valeurs non reconnues sont ignorées.
+ */
+public final class TimeSlotParser {
+
+    // Plages des périodes nommées, en minutes depuis minuit
+    public static final int MORNING_START = 7 * 60;
+    public static final int AFTERNOON_START = 12 * 60;
+    public static final int EVENING_START = 18 * 60;
+    public static final int EVENING_END = 23 * 60;
+
+    private static final Map<String, Integer> DAYS = new LinkedHashMap<>();
+    private static final Map<String, int[]> PERIODS = new LinkedHashMap<>();
+    private static final Pattern TIME_RANGE = Pattern.compile("(\\d{1,2})(?:[:h](\\d{2})?)?-(\\d{1,2})(?:[:h](\\d{2})?)?");
+
+    static {
+        // Formes longues d'abord : "mardi" doit être reconnu avant "mar"
+        String[][] names = {
+                {"lundi", "monday", "lun", "mon"},
+                {"mardi", "tuesday", "mar", "tue"},
+                {"mercredi", "wednesday", "mer", "wed"},
+                {"jeudi", "thursday", "jeu", "thu"},
+                {"vendredi", "friday", "ven", "fri"},
+                {"samedi", "saturday", "sam", "sat"},
+                {"dimanche", "sunday", "dim", "sun"}
+        };
+        for (int length : new int[]{0, 1, 2, 3}) {
+            for (int day = 0; day < names.length; day++) {
+                DAYS.put(names[day][length], day);
+            }
+        }
+        PERIODS.put("matin", new int[]{MORNING_START, AFTERNOON_START});
+        PERIODS.put("morning", new int[]{MORNING_START, AFTERNOON_START});
+        PERIODS.put("apresmidi", new int[]{AFTERNOON_START, EVENING_START});
+        PERIODS.put("afternoon", new int[]{AFTERNOON_START, EVENING_START});
+        PERIODS.put("soir", new int[]{EVENING_START, EVENING_END});
+        PERIODS.put("evening", new int[]{EVENING_START, EVENING_END});
+    }
+
+    private TimeSlotParser() {
+    }
+
+    // Null si le champ est vide ou ne contient aucune valeur reconnue (contrainte non renseignée)
+    public static WeeklyMask parse(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        WeeklyMask result = null;
+        for (String raw : text.split("[,;|\\n]")) {
+            WeeklyMask token = parseToken(normalize(raw));
+            if (token != null) {
+                result = result == null ? token : result.or(token);
+            }
+        }
+        return result;
+    }
+
+    static WeeklyMask parseToken(String token) {
+        if (token.isEmpty()) {
+            return null;
+        }
+        Integer day = null;
+        String rest = token;
+        for (Map.Entry<String, Integer> entry : DAYS.entrySet()) {
+            if (token.startsWith(entry.getKey())) {
+                day = entry.getValue();
+                rest = token.substring(entry.getKey().length());
+                break;
+            }
+        }
+        int[] range;
+        if (rest.isEmpty()) {
+            range = day != null ? new int[]{0, 24 * 60} : null;
+        } else if (PERIODS.containsKey(rest)) {
+            range = PERIODS.get(rest);
+        } else {
+            range = parseTimeRange(rest);
+        }
+        if (range == null) {
+            return null;
+        }
+        if (day != null) {
+            return WeeklyMask.ofDay(day, range[0], range[1]);
+        }
+        WeeklyMask everyDay = WeeklyMask.EMPTY;
+        for (int d = 0; d < 7; d++) {
+            everyDay = everyDay.or(WeeklyMask.ofDay(d, range[0], range[1]));
+        }
+        return everyDay;
+    }
+
+    private static int[] parseTimeRange(String text) {
+        Matcher matcher = TIME_RANGE.matcher(text);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int from = minutes(matcher.group(1), matcher.group(2));
+        int to = minutes(matcher.group(3), matcher.group(4));
+        return from < to && to <= 24 * 60 ? new int[]{from, to} : null;
+    }
+
+    private static int minutes(String hours, String minutes) {
+        return Integer.parseInt(hours) * 60 + (minutes != null ? Integer.parseInt(minutes) : 0);
+    }
+
+    // Minuscules, sans accents, sans espaces ni guillemets/crochets JSON : "Après-midi" -> "apresmidi"
+    private static String normalize(String raw) {
+        String text = Normalizer.normalize(raw, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        text = text.replaceAll("[\\s\"'\\[\\]_]", "");
+        // Le tiret ne sert qu'aux plages horaires ("08:00-10:00"), pas aux noms ("apres-midi")
+        return text.matches(".*\\d.*") ? text : text.replace("-", "");
+    }
+}
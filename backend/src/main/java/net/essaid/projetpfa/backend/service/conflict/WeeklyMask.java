@@ -0,0 +1,151 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Masque hebdomadaire de créneaux de 15 minutes (7 jours x 96 créneaux, lundi 00:00 en premier),
+ * même découpage que {@link OccupancyGrid}. Tester qu'un événement respecte une disponibilité
+ * revient à un ET logique sur 11 mots de 64 bits. Immuable.
+ */
+public final class WeeklyMask {
+
+    public static final int SLOTS_PER_DAY = 24 * 4;
+    private static final int MINUTES_PER_SLOT = 15;
+    private static final int WORDS = (OccupancyGrid.SLOTS_PER_WEEK + 63) / 64;
+
+    public static final WeeklyMask EMPTY = new WeeklyMask(new long[WORDS]);
+    public static final WeeklyMask FULL = EMPTY.not();
+
+    private final long[] words;
+
+    private WeeklyMask(long[] words) {
+        this.words = words;
+    }
+
+    // Créneaux [fromMinute, toMinute) d'un jour (0 = lundi)
+    public static WeeklyMask ofDay(int day, int fromMinute, int toMinute) {
+        long[] words = new long[WORDS];
+        int from = day * SLOTS_PER_DAY + fromMinute / MINUTES_PER_SLOT;
+        int to = day * SLOTS_PER_DAY + (toMinute + MINUTES_PER_SLOT - 1) / MINUTES_PER_SLOT;
+        setRange(words, from, to);
+        return new WeeklyMask(words);
+    }
+
+    // Créneaux occupés par un événement, ramenés sur une semaine type
+    public static WeeklyMask of(LocalDateTime start, LocalDateTime end) {
+        long first = Math.floorDiv(ConflictIndex.toEpochSeconds(start), OccupancyGrid.SLOT_SECONDS);
+        long last = Math.floorDiv(ConflictIndex.toEpochSeconds(end) - 1, OccupancyGrid.SLOT_SECONDS) + 1;
+        if (last - first >= OccupancyGrid.SLOTS_PER_WEEK) {
+            return FULL;
+        }
+        if (last <= first) {
+            return EMPTY;
+        }
+        int from = slotOfWeek(start);
+        int length = (int) (last - first);
+        long[] words = new long[WORDS];
+        if (from + length <= OccupancyGrid.SLOTS_PER_WEEK) {
+            setRange(words, from, from + length);
+        } else { // Passage du dimanche au lundi
+            setRange(words, from, OccupancyGrid.SLOTS_PER_WEEK);
+            setRange(words, 0, from + length - OccupancyGrid.SLOTS_PER_WEEK);
+        }
+        return new WeeklyMask(words);
+    }
+
+    public WeeklyMask or(WeeklyMask other) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new WeeklyMask(result);
+    }
+
+    public WeeklyMask and(WeeklyMask other) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new WeeklyMask(result);
+    }
+
+    public WeeklyMask andNot(WeeklyMask other) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = words[i] & ~other.words[i];
+        }
+        return new WeeklyMask(result);
+    }
+
+    public WeeklyMask not() {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = ~words[i];
+        }
+        result[WORDS - 1] &= lastWordMask();
+        return new WeeklyMask(result);
+    }
+
+    // Vrai si tous les créneaux de other sont dans ce masque
+    public boolean contains(WeeklyMask other) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((other.words[i] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean intersects(WeeklyMask other) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((other.words[i] & words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Copie des mots du masque (bit i = créneau i de la semaine)
+    public long[] toWords() {
+        return words.clone();
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return cardinality() == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof WeeklyMask other && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    private static int slotOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * SLOTS_PER_DAY
+                + (time.getHour() * 60 + time.getMinute()) / MINUTES_PER_SLOT;
+    }
+
+    private static void setRange(long[] words, int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            words[slot >>> 6] |= 1L << (slot & 63);
+        }
+    }
+
+    private static long lastWordMask() {
+        int used = OccupancyGrid.SLOTS_PER_WEEK - (WORDS - 1) * 64;
+        return used == 64 ? -1L : (1L << used) - 1;
+    }
+}
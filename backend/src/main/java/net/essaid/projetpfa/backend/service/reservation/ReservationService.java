@@ -0,0 +1,105 @@
+package net.essaid.projetpfa.backend.service.reservation;
+
+import net.essaid.projetpfa.backend.entities.ResourceLock;
+import net.essaid.projetpfa.backend.repository.ResourceLockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialise les écritures d'événements par ressource (salle, enseignant, étudiant) : la détection de conflits
+ * d'une réservation voit toujours les réservations concurrentes déjà validées sur les mêmes ressources.
+ * Les verrous sont pris avant la détection et relâchés à la fin de la transaction.
+ * - en mémoire : {@link StripedLocks}, suffisant pour un seul noeud ;
+ * - en base (pfa.app.reservationDatabaseGuard=true) : verrou de ligne sur resource_locks, pour plusieurs noeuds.
+ * Les écritures d'événements tournent en READ_COMMITTED : après l'attente du verrou, les requêtes de détection
+ * voient les réservations validées entre-temps par un autre noeud (en REPEATABLE READ, l'instantané de la
+ * transaction daterait de sa première lecture).
+ */
+@Service
+public class ReservationService {
+
+    private static final int STRIPES = 1024;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final StripedLocks stripedLocks = new StripedLocks(STRIPES);
+
+    @Autowired
+    private ResourceLockRepository resourceLockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${pfa.app.reservationDatabaseGuard:false}")
+    private boolean databaseGuard;
+
+    public static String roomKey(String roomId) {
+        return "room:" + roomId;
+    }
+
+    public static String teacherKey(String teacherId) {
+        return "teacher:" + teacherId;
+    }
+
+    public static String studentKey(String studentId) {
+        return "student:" + studentId;
+    }
+
+    // À appeler dans une transaction, avant la détection de conflits
+    public void reserve(Collection<String> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Resource reservation requires an active transaction");
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        StripedLocks.Held held;
+        try {
+            held = stripedLocks.acquire(keys, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reserving resources", e);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.close();
+            }
+        });
+        if (databaseGuard) {
+            TreeSet<String> sorted = new TreeSet<>(keys);
+            createMissingRows(sorted);
+            resourceLockRepository.lockAll(sorted);
+        }
+    }
+
+    // Lignes créées une fois pour toutes, chacune dans sa propre transaction : si un autre noeud crée la même
+    // au même moment, seule la violation de clé primaire est ignorée, sans annuler la transaction de la réservation
+    private void createMissingRows(Collection<String> keys) {
+        Set<String> missing = new TreeSet<>(keys);
+        missing.removeAll(resourceLockRepository.findExistingKeys(keys));
+        if (missing.isEmpty()) {
+            return;
+        }
+        TransactionTemplate separate = new TransactionTemplate(transactionManager);
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (String key : missing) {
+            try {
+                separate.executeWithoutResult(status -> resourceLockRepository.saveAndFlush(new ResourceLock(key)));
+            } catch (DataIntegrityViolationException e) {
+                // Déjà créée par une réservation concurrente
+            }
+        }
+    }
+}
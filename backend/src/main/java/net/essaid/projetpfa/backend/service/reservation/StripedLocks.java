@@ -0,0 +1,70 @@
+package net.essaid.projetpfa.backend.service.reservation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous par ressource répartis sur un nombre fixe de bandes (lock striping) : la mémoire reste bornée
+ * quel que soit le nombre de salles, enseignants et étudiants. Les bandes d'une réservation sont prises
+ * dans l'ordre croissant, ce qui exclut les interblocages entre réservations concurrentes.
+ * Deux réservations sur des ressources distinctes ne se bloquent que si leurs clés tombent dans la même bande.
+ */
+public class StripedLocks {
+
+    // Ensemble de bandes tenues par un thread ; à libérer par le même thread
+    public final class Held implements AutoCloseable {
+        private final List<ReentrantLock> locks;
+
+        private Held(List<ReentrantLock> locks) {
+            this.locks = locks;
+        }
+
+        @Override
+        public void close() {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    private final ReentrantLock[] stripes;
+
+    public StripedLocks(int stripeCount) {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Held acquire(Collection<String> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String key : keys) {
+            indexes.add(stripeOf(key));
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw new IllegalStateException("Resources are busy, try again: " + keys);
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            new Held(acquired).close();
+            throw e;
+        }
+        return new Held(acquired);
+    }
+
+    int stripeOf(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16; // Mélange des bits de poids fort, comme HashMap
+        return Math.floorMod(hash, stripes.length);
+    }
+}
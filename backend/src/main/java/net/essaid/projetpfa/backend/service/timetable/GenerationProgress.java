@@ -0,0 +1,24 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+/**
+ * Suivi d'une génération en cours, alimenté par les threads de recherche (appels concurrents possibles).
+ * isCancelled est consulté régulièrement par le solveur et la recherche locale pour s'arrêter au plus tôt.
+ */
+public interface GenerationProgress {
+
+    GenerationProgress NONE = new GenerationProgress() {
+    };
+
+    default void sessions(int total) {
+    }
+
+    default void placed(int placed) {
+    }
+
+    default void score(long score) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+}
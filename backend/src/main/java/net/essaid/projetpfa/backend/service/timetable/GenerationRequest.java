@@ -0,0 +1,54 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Périmètre d'une génération : année universitaire et semestre (null : tous).
+ * En mode incrémental, l'emploi du temps existant est conservé et seules les séances touchées sont replacées :
+ * celles des cours, salles et enseignants indiqués, plus celles dont le placement n'est plus valide.
+ * timeBudgetSeconds borne la durée de la génération (null : durées configurées) : à l'échéance,
+ * le meilleur emploi du temps trouvé est enregistré, avec la liste des séances non placées.
+ * warmStart part de l'emploi du temps de l'année universitaire précédente (même semestre, cours rattachés par code) :
+ * ses placements encore valides sont repris, seuls les autres sont recherchés. Sans effet en mode incrémental.
+ * Les années universitaires sont au format "AAAA-AAAA" (ex. "2024-2025") : l'année précédente en est déduite.
+ * dryRun simule la génération : rien n'est enregistré, le résultat est comparé à l'emploi du temps enregistré.
+ */
+public record GenerationRequest(String academicYear, String semester, boolean incremental,
+                                Set<String> courseIds, Set<String> roomIds, Set<String> teacherIds, Integer timeBudgetSeconds,
+                                boolean warmStart, boolean dryRun) {
+
+    private static final Pattern ACADEMIC_YEAR = Pattern.compile("(\\d{4})-(\\d{4})");
+
+    public GenerationRequest {
+        courseIds = courseIds == null ? Set.of() : Set.copyOf(courseIds);
+        roomIds = roomIds == null ? Set.of() : Set.copyOf(roomIds);
+        teacherIds = teacherIds == null ? Set.of() : Set.copyOf(teacherIds);
+    }
+
+    public static boolean isAcademicYear(String academicYear) {
+        return previousAcademicYear(academicYear) != null;
+    }
+
+    // "2024-2025" -> "2023-2024" ; null si l'année n'est pas au format "AAAA-AAAA" avec deux années consécutives
+    public static String previousAcademicYear(String academicYear) {
+        if (academicYear == null) {
+            return null;
+        }
+        Matcher matcher = ACADEMIC_YEAR.matcher(academicYear.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        int startYear = Integer.parseInt(matcher.group(1));
+        if (Integer.parseInt(matcher.group(2)) != startYear + 1) {
+            return null;
+        }
+        return (startYear - 1) + "-" + startYear;
+    }
+
+    // Reconstruction complète du périmètre
+    public static GenerationRequest full(String academicYear, String semester) {
+        return new GenerationRequest(academicYear, semester, false, Set.of(), Set.of(), Set.of(), null, false, false);
+    }
+}
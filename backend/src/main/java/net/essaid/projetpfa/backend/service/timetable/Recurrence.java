@@ -0,0 +1,28 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+
+/**
+ * Règle de récurrence d'une séance sur le semestre : la séance revient toutes les periodWeeks semaines
+ * à partir de la semaine générée, occurrences fois. La recherche ne place que la semaine type ;
+ * les événements de chaque semaine ne sont créés qu'à l'enregistrement.
+ */
+public record Recurrence(int periodWeeks, int occurrences) {
+
+    // Semaine (depuis la semaine générée) de l'occurrence k
+    public int weekOf(int occurrence) {
+        return occurrence * periodWeeks;
+    }
+
+    // AD_HOC n'a pas de règle propre : planifié comme une séance hebdomadaire
+    public static int periodOf(Course.Frequency frequency) {
+        if (frequency == null) {
+            return 1;
+        }
+        return switch (frequency) {
+            case BI_WEEKLY -> 2;
+            case MONTHLY -> 4;
+            case WEEKLY, AD_HOC -> 1;
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Salles compatibles précalculées : pour chaque combinaison (type de séance, effectif, campus requis),
+ * un bitset des salles éligibles, calculé une fois puis partagé par toutes les séances concernées.
+ * Les salles hors service ou en maintenance sont écartées ; les autres sont numérotées par capacité croissante,
+ * si bien que le premier bit d'une intersection avec les salles libres est la salle au meilleur ajustement.
+ * Immuable pour un ensemble de salles donné ; à reconstruire quand une salle change.
+ */
+public final class RoomCompatibilityMatrix {
+
+    private final List<Room> rooms;
+    private final Set<Room.RoomType> availableTypes = EnumSet.noneOf(Room.RoomType.class);
+    private final Map<String, long[]> eligible = new ConcurrentHashMap<>();
+
+    private RoomCompatibilityMatrix(List<Room> rooms) {
+        this.rooms = rooms;
+        rooms.forEach(room -> {
+            if (room.getType() != null) {
+                availableTypes.add(room.getType());
+            }
+        });
+    }
+
+    public static RoomCompatibilityMatrix of(List<Room> rooms) {
+        return new RoomCompatibilityMatrix(rooms.stream()
+                .filter(room -> room.getStatus() != Room.RoomStatus.OUT_OF_SERVICE && room.getStatus() != Room.RoomStatus.MAINTENANCE)
+                .sorted(Comparator.comparing(RoomCompatibilityMatrix::capacityOf).thenComparing(Room::getId))
+                .toList());
+    }
+
+    // Salles utilisables, dans l'ordre des indices des bitsets
+    public List<Room> rooms() {
+        return rooms;
+    }
+
+    // Bitset (indices de rooms()) des salles éligibles ; ne pas modifier le tableau rendu
+    public long[] eligible(Course course, ScheduleEvent.SessionType type, int size) {
+        String campus = requiredCampusOf(course);
+        return eligible.computeIfAbsent(type + "/" + size + "/" + (campus != null ? campus.toLowerCase() : ""), key -> {
+            long[] bits = new long[words(rooms.size())];
+            for (int r = 0; r < rooms.size(); r++) {
+                if (isCompatible(campus, type, size, rooms.get(r))) {
+                    bits[r >>> 6] |= 1L << r;
+                }
+            }
+            return bits;
+        });
+    }
+
+    public int[] eligibleIndices(Course course, ScheduleEvent.SessionType type, int size) {
+        return indicesOf(eligible(course, type, size));
+    }
+
+    // Capacité, type de salle selon le type de séance, campus requis
+    private boolean isCompatible(String campus, ScheduleEvent.SessionType type, int size, Room room) {
+        if (capacityOf(room) < size) {
+            return false;
+        }
+        if (room.getType() != null) {
+            Set<Room.RoomType> accepted = acceptedRoomTypes(type);
+            // Si l'établissement n'a aucune salle du type attendu, toute salle d'enseignement convient
+            boolean typeExists = accepted.stream().anyMatch(availableTypes::contains);
+            if (typeExists ? !accepted.contains(room.getType()) : room.getType() == Room.RoomType.MEETING) {
+                return false;
+            }
+        }
+        return campus == null || room.getCampus() == null || campus.equalsIgnoreCase(room.getCampus().trim());
+    }
+
+    static Set<Room.RoomType> acceptedRoomTypes(ScheduleEvent.SessionType type) {
+        return switch (type) {
+            case CM -> EnumSet.of(Room.RoomType.AMPHI, Room.RoomType.TD);
+            case TD -> EnumSet.of(Room.RoomType.TD);
+            case TP -> EnumSet.of(Room.RoomType.LABO);
+        };
+    }
+
+    static String requiredCampusOf(Course course) {
+        if (course.getRequiredCampus() != null && !course.getRequiredCampus().isBlank()) {
+            return course.getRequiredCampus().trim();
+        }
+        return course.getCampus() != null && course.getCampus().getName() != null ? course.getCampus().getName().trim() : null;
+    }
+
+    static int capacityOf(Room room) {
+        return room.getCapacity() != null ? room.getCapacity() : 0;
+    }
+
+    public static int words(int roomCount) {
+        return (roomCount + 63) >>> 6;
+    }
+
+    public static int[] indicesOf(long[] bits) {
+        List<Integer> indices = new ArrayList<>();
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                indices.add((w << 6) + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return indices.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
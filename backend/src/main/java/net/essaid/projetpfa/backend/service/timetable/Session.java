@@ -0,0 +1,17 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+
+/**
+ * Séance hebdomadaire à placer : un créneau de départ et une salle à choisir.
+ * teachers, groups et rooms sont des indices dans {@link TimetableProblem} ;
+ * starts est le domaine initial des départs (bitset de la semaine), déjà filtré par les disponibilités.
+ * rooms est trié par capacité croissante (meilleur ajustement d'abord).
+ * preferredStarts (départs dans les créneaux préférés de l'enseignant responsable) vaut null sans préférence déclarée.
+ * key identifie la séance au sein de son cours d'une génération à l'autre (ex. "TD G1 #1") et est enregistrée sur l'événement.
+ * recurrence donne les semaines du semestre où la séance a lieu, au même créneau et dans la même salle.
+ */
+public record Session(int index, String courseId, String key, ScheduleEvent.SessionType type, String label, int length, int size,
+                      int priority, int[] teachers, int[] groups, int[] rooms, long[] starts, long[] preferredStarts,
+                      Recurrence recurrence) {
+}
@@ -0,0 +1,172 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.service.conflict.OccupancyGrid;
+
+/**
+ * Opérations sur des bitsets d'une semaine (672 créneaux de 15 minutes, 11 mots de 64 bits),
+ * utilisés par le solveur pour les domaines de départ et l'occupation des ressources.
+ * Tableaux mutables et sans allocation dans les opérations courantes.
+ */
+public final class SlotBits {
+
+    public static final int SLOTS = OccupancyGrid.SLOTS_PER_WEEK;
+    public static final int WORDS = (SLOTS + 63) / 64;
+
+    private SlotBits() {
+    }
+
+    public static long[] empty() {
+        return new long[WORDS];
+    }
+
+    public static void set(long[] bits, int slot) {
+        bits[slot >>> 6] |= 1L << (slot & 63);
+    }
+
+    public static boolean get(long[] bits, int slot) {
+        return (bits[slot >>> 6] & (1L << (slot & 63))) != 0;
+    }
+
+    // Met à 1 les créneaux [from, to), bornés à la semaine
+    public static void setRange(long[] bits, int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, SLOTS);
+        for (int word = from >>> 6; from < to && word <= (to - 1) >>> 6; word++) {
+            bits[word] |= rangeMask(word, from, to);
+        }
+    }
+
+    public static void clearRange(long[] bits, int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, SLOTS);
+        for (int word = from >>> 6; from < to && word <= (to - 1) >>> 6; word++) {
+            bits[word] &= ~rangeMask(word, from, to);
+        }
+    }
+
+    public static boolean anyInRange(long[] bits, int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, SLOTS);
+        for (int word = from >>> 6; from < to && word <= (to - 1) >>> 6; word++) {
+            if ((bits[word] & rangeMask(word, from, to)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Créneaux libres entre le premier et le dernier créneau occupé de [from, to), ex. les trous d'une journée
+    public static int gapsInRange(long[] bits, int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, SLOTS);
+        int first = -1;
+        int last = -1;
+        int count = 0;
+        for (int word = from >>> 6; from < to && word <= (to - 1) >>> 6; word++) {
+            long masked = bits[word] & rangeMask(word, from, to);
+            if (masked != 0) {
+                if (first < 0) {
+                    first = (word << 6) + Long.numberOfTrailingZeros(masked);
+                }
+                last = (word << 6) + 63 - Long.numberOfLeadingZeros(masked);
+                count += Long.bitCount(masked);
+            }
+        }
+        return first < 0 ? 0 : last - first + 1 - count;
+    }
+
+    public static int countInRange(long[] bits, int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, SLOTS);
+        int count = 0;
+        for (int word = from >>> 6; from < to && word <= (to - 1) >>> 6; word++) {
+            count += Long.bitCount(bits[word] & rangeMask(word, from, to));
+        }
+        return count;
+    }
+
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int nextSetBit(long[] bits, int from) {
+        if (from >= SLOTS) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long current = bits[word] & (-1L << (from & 63));
+        while (true) {
+            if (current != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(current);
+                return slot < SLOTS ? slot : -1;
+            }
+            if (++word == WORDS) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+
+    // Érosion : garde les départs s tels que [s, s + length) est entièrement à 1
+    public static long[] startsFitting(long[] allowed, int length) {
+        long[] result = allowed.clone();
+        long[] shifted = allowed.clone();
+        for (int k = 1; k < length; k++) {
+            shiftRightByOne(shifted);
+            for (int i = 0; i < WORDS; i++) {
+                result[i] &= shifted[i];
+            }
+        }
+        return result;
+    }
+
+    public static void and(long[] target, long[] other) {
+        for (int i = 0; i < WORDS; i++) {
+            target[i] &= other[i];
+        }
+    }
+
+    public static void or(long[] target, long[] other) {
+        for (int i = 0; i < WORDS; i++) {
+            target[i] |= other[i];
+        }
+    }
+
+    // Retire des départs ceux dont la séance [s, s + length) recoupe un créneau occupé
+    public static void removeStartsOverlapping(long[] starts, long[] busy, int length) {
+        long[] free = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            free[i] = ~busy[i];
+        }
+        and(starts, startsFitting(free, length));
+    }
+
+    // Décalage d'un créneau vers les indices bas : le bit s reçoit la valeur du bit s + 1
+    private static void shiftRightByOne(long[] bits) {
+        for (int i = 0; i < WORDS; i++) {
+            long next = i + 1 < WORDS ? bits[i + 1] : 0L;
+            bits[i] = (bits[i] >>> 1) | (next << 63);
+        }
+    }
+
+    private static long rangeMask(int word, int from, int to) {
+        int wordStart = word << 6;
+        int lo = Math.max(from - wordStart, 0);
+        int hi = Math.min(to - wordStart, 64);
+        long upper = hi == 64 ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+}
@@ -0,0 +1,47 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Grille horaire de la génération : une semaine type découpée en créneaux de 15 minutes
+ * (même découpage que les masques de disponibilité). Les séances commencent toutes les 30 minutes,
+ * du lundi au vendredi, entre 08:00 et une fin au plus tard à 19:00.
+ */
+public final class TimeGrid {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int TEACHING_DAYS = 5;
+    public static final int DAY_START_MINUTE = 8 * 60;
+    public static final int DAY_END_MINUTE = 19 * 60;
+    public static final int START_STEP_MINUTES = 30;
+
+    private TimeGrid() {
+    }
+
+    public static int slotsFor(int minutes) {
+        return (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    // Départs possibles pour une séance de length créneaux
+    public static long[] candidateStarts(int length) {
+        long[] starts = SlotBits.empty();
+        for (int day = 0; day < TEACHING_DAYS; day++) {
+            for (int minute = DAY_START_MINUTE; minute + length * SLOT_MINUTES <= DAY_END_MINUTE; minute += START_STEP_MINUTES) {
+                SlotBits.set(starts, day * SLOTS_PER_DAY + minute / SLOT_MINUTES);
+            }
+        }
+        return starts;
+    }
+
+    // weekStart : lundi 00:00 de la semaine générée
+    public static LocalDateTime toDateTime(LocalDateTime weekStart, int slot) {
+        return weekStart.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    // Créneau (éventuellement hors de la semaine) contenant l'instant donné
+    public static long slotOf(LocalDateTime weekStart, LocalDateTime time) {
+        return Math.floorDiv(ChronoUnit.MINUTES.between(weekStart, time), SLOT_MINUTES);
+    }
+}
@@ -0,0 +1,144 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Découpage d'un problème en sous-problèmes indépendants : composantes connexes du graphe où deux séances
+ * sont reliées si elles partagent un enseignant, un groupe ou une salle compatible (union-find sur les ressources).
+ * Deux composantes ne se disputent aucune ressource : elles se résolvent séparément, en parallèle,
+ * et la réunion de leurs solutions est sans chevauchement par construction.
+ * Typiquement une composante par campus, ou par filière quand les salles ne sont pas partagées.
+ */
+public final class TimetableDecomposition {
+
+    // Sous-problème et, pour chacune de ses séances, l'indice de la séance dans le problème d'origine
+    public record Component(TimetableProblem problem, int[] sessionIndices) {
+    }
+
+    private TimetableDecomposition() {
+    }
+
+    public static List<Component> split(TimetableProblem problem) {
+        int n = problem.sessions().size();
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        // Première séance rencontrée pour chaque ressource : les suivantes lui sont rattachées
+        int[] firstByTeacher = filled(problem.teacherIds().length);
+        int[] firstByGroup = filled(problem.groupKeys().length);
+        int[] firstByRoom = filled(problem.roomIds().length);
+        for (Session session : problem.sessions()) {
+            int i = session.index();
+            for (int t : session.teachers()) {
+                link(parent, firstByTeacher, t, i);
+            }
+            for (int g : session.groups()) {
+                link(parent, firstByGroup, g, i);
+            }
+            for (int r : session.rooms()) {
+                link(parent, firstByRoom, r, i);
+            }
+        }
+
+        int[] componentOf = filled(n);
+        List<List<Integer>> members = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int root = find(parent, i);
+            if (componentOf[root] < 0) {
+                componentOf[root] = members.size();
+                members.add(new ArrayList<>());
+            }
+            members.get(componentOf[root]).add(i);
+        }
+        if (members.size() <= 1) {
+            return List.of(new Component(problem, indices(n)));
+        }
+
+        List<Component> components = new ArrayList<>(members.size());
+        for (List<Integer> component : members) {
+            int[] sessionIndices = component.stream().mapToInt(Integer::intValue).toArray();
+            List<Session> sessions = new ArrayList<>(sessionIndices.length);
+            int[] pinnedStarts = new int[sessionIndices.length];
+            int[] pinnedRooms = new int[sessionIndices.length];
+            int[] hintStarts = new int[sessionIndices.length];
+            int[] hintRooms = new int[sessionIndices.length];
+            for (int k = 0; k < sessionIndices.length; k++) {
+                Session session = problem.sessions().get(sessionIndices[k]);
+                sessions.add(new Session(k, session.courseId(), session.key(), session.type(), session.label(), session.length(),
+                        session.size(), session.priority(), session.teachers(), session.groups(), session.rooms(),
+                        session.starts(), session.preferredStarts(), session.recurrence()));
+                pinnedStarts[k] = problem.pinnedStarts()[sessionIndices[k]];
+                pinnedRooms[k] = problem.pinnedRooms()[sessionIndices[k]];
+                hintStarts[k] = problem.hintStarts()[sessionIndices[k]];
+                hintRooms[k] = problem.hintRooms()[sessionIndices[k]];
+            }
+            // Les tableaux de ressources restent ceux du problème d'origine : les indices des séances n'ont pas à être traduits
+            components.add(new Component(new TimetableProblem(sessions, problem.roomIds(), problem.roomCapacities(), problem.roomCampuses(),
+                    problem.teacherIds(), problem.teacherDailyCaps(), problem.teacherWeeklyCaps(), problem.groupKeys(),
+                    problem.studentGroups(), problem.roomBlocked(), problem.weekStart(), pinnedStarts, pinnedRooms, hintStarts, hintRooms),
+                    sessionIndices));
+        }
+        return components;
+    }
+
+    // Réunion des solutions des composantes, dans l'ordre rendu par split
+    public static TimetableSolver.Solution merge(TimetableProblem problem, List<Component> components, List<TimetableSolver.Solution> solutions) {
+        int n = problem.sessions().size();
+        int[] starts = filled(n);
+        int[] rooms = filled(n);
+        int placed = 0;
+        long nodes = 0;
+        long backtracks = 0;
+        long elapsedMillis = 0;
+        for (int c = 0; c < components.size(); c++) {
+            int[] sessionIndices = components.get(c).sessionIndices();
+            TimetableSolver.Solution solution = solutions.get(c);
+            for (int k = 0; k < sessionIndices.length; k++) {
+                starts[sessionIndices[k]] = solution.starts()[k];
+                rooms[sessionIndices[k]] = solution.rooms()[k];
+            }
+            placed += solution.placed();
+            nodes += solution.nodes();
+            backtracks += solution.backtracks();
+            elapsedMillis = Math.max(elapsedMillis, solution.elapsedMillis());
+        }
+        return new TimetableSolver.Solution(starts, rooms, placed, placed == n, nodes, backtracks, elapsedMillis);
+    }
+
+    private static void link(int[] parent, int[] firstByResource, int resource, int session) {
+        if (firstByResource[resource] < 0) {
+            firstByResource[resource] = session;
+        } else {
+            int a = find(parent, firstByResource[resource]);
+            int b = find(parent, session);
+            if (a != b) {
+                parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static int[] filled(int length) {
+        int[] values = new int[length];
+        Arrays.fill(values, -1);
+        return values;
+    }
+
+    private static int[] indices(int length) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+}
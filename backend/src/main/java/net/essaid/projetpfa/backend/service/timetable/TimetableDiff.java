@@ -0,0 +1,64 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Écart entre l'emploi du temps enregistré et le résultat d'une génération non enregistrée (simulation),
+ * séance par séance dans la semaine type : déplacées (autre départ ou autre salle), ajoutées (placées alors
+ * qu'elles ne l'étaient pas), retirées (placées avant, plus maintenant), et score avant/après (plus bas = meilleur).
+ * removedEvents compte les événements enregistrés qui ne correspondent plus à aucune séance (cours réduit ou supprimé).
+ */
+public record TimetableDiff(int moved, int added, int removed, int unchanged, int removedEvents,
+                            long scoreBefore, long scoreAfter, long scoreChange, List<Change> changes) {
+
+    public enum Kind {
+        MOVED, ADDED, REMOVED
+    }
+
+    // Première occurrence de la séance avant et après, dans la semaine de l'emploi du temps enregistré (null : non placée)
+    public record Change(Kind kind, String courseId, String sessionKey, String label,
+                         LocalDateTime beforeStart, String beforeRoomId, LocalDateTime afterStart, String afterRoomId) {
+    }
+
+    // before/after : départ et salle de chaque séance (-1 : non placée)
+    public static TimetableDiff between(TimetableProblem problem, TimetableScorer.Weights weights, LocalDateTime weekStart,
+                                        int[] beforeStarts, int[] beforeRooms, int[] afterStarts, int[] afterRooms, int removedEvents) {
+        int moved = 0;
+        int added = 0;
+        int removed = 0;
+        int unchanged = 0;
+        List<Change> changes = new ArrayList<>();
+        for (Session session : problem.sessions()) {
+            int i = session.index();
+            boolean before = beforeRooms[i] >= 0;
+            boolean after = afterRooms[i] >= 0;
+            Kind kind;
+            if (before && after) {
+                if (beforeStarts[i] == afterStarts[i] && beforeRooms[i] == afterRooms[i]) {
+                    unchanged++;
+                    continue;
+                }
+                kind = Kind.MOVED;
+                moved++;
+            } else if (after) {
+                kind = Kind.ADDED;
+                added++;
+            } else if (before) {
+                kind = Kind.REMOVED;
+                removed++;
+            } else {
+                continue;
+            }
+            changes.add(new Change(kind, session.courseId(), session.key(), session.label(),
+                    before ? TimeGrid.toDateTime(weekStart, beforeStarts[i]) : null, before ? problem.roomIds()[beforeRooms[i]] : null,
+                    after ? TimeGrid.toDateTime(weekStart, afterStarts[i]) : null, after ? problem.roomIds()[afterRooms[i]] : null));
+        }
+        TimetableScorer scorer = new TimetableScorer(problem);
+        long scoreBefore = scorer.evaluate(beforeStarts, beforeRooms).total(weights);
+        long scoreAfter = scorer.evaluate(afterStarts, afterRooms).total(weights);
+        return new TimetableDiff(moved, added, removed, unchanged, removedEvents, scoreBefore, scoreAfter, scoreAfter - scoreBefore,
+                List.copyOf(changes));
+    }
+}
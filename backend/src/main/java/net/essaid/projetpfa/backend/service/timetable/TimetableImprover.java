@@ -0,0 +1,376 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Phase d'amélioration après construction : recherche locale à acceptation tardive (late acceptance hill climbing).
+ * Deux mouvements qui préservent la faisabilité : déplacer une séance (autre départ de son domaine et/ou autre salle),
+ * ou échanger les départs de deux séances de même durée partageant un groupe. Les séances fixées ne bougent pas.
+ * Un mouvement n'est évalué que par sa variation de score : préférence, ajustement de salle, priorité et stabilité des séances déplacées,
+ * trous, charge et changements de campus des seuls couples (groupe, jour) et (enseignant, jour) touchés,
+ * lus sur les bitsets d'occupation.
+ * Un candidat est accepté s'il ne dégrade pas le score courant ou celui d'il y a HISTORY itérations.
+ * Non thread-safe : une instance par amélioration.
+ */
+public class TimetableImprover {
+
+    public record Options(long seed, long timeBudgetMillis, long maxMoves) {
+        public static Options defaults() {
+            return new Options(0L, 5_000L, Long.MAX_VALUE);
+        }
+    }
+
+    public record Result(TimetableSolver.Solution solution, TimetableScorer.Score initial, TimetableScorer.Score best,
+                         long moves, long accepted, long elapsedMillis) {
+    }
+
+    private static final int HISTORY = 1_000;
+    private static final int SWAP_PERCENT = 30;
+    private static final int ROOM_ONLY_PERCENT = 20;
+    // Mouvement impossible (chevauchement ou aucune salle libre) : rien n'a été modifié
+    private static final long INFEASIBLE = Long.MIN_VALUE;
+
+    private final TimetableProblem problem;
+    private final TimetableScorer.Weights weights;
+    private final Options options;
+    private final Session[] sessions;
+    private final int[][] candidates;
+    private final int[][] sessionsByGroup;
+    private final int[][] sessionsByTeacher;
+    private final boolean campuses;
+    private final int[] campusBuffer;
+
+    private final int[] start;
+    private final int[] room;
+    private final long[][] teacherBusy;
+    private final long[][] groupBusy;
+    private final long[][] roomBusy;
+
+    // Couples (groupe, jour) et (enseignant, jour) touchés par le mouvement en cours
+    private final int[] touchedGroups;
+    private final int[] groupStamp;
+    private int touchedCount;
+    private final int[] touchedTeachers;
+    private final int[] teacherStamp;
+    private int touchedTeacherCount;
+    private int stamp;
+    private final int[] touchedDays = new int[2];
+    private int touchedDayCount;
+
+    // Dernier mouvement appliqué, pour l'annuler s'il est refusé
+    private final int[] undoSessions = new int[2];
+    private final int[] undoStarts = new int[2];
+    private final int[] undoRooms = new int[2];
+    private int undoCount;
+
+    private final Random random;
+
+    public TimetableImprover(TimetableProblem problem, TimetableScorer.Weights weights, Options options) {
+        this.problem = problem;
+        this.weights = weights;
+        this.options = options;
+        this.sessions = problem.sessions().toArray(Session[]::new);
+        this.random = new Random(options.seed());
+        int n = sessions.length;
+        start = new int[n];
+        room = new int[n];
+        candidates = new int[n][];
+        for (Session session : sessions) {
+            int[] values = new int[SlotBits.cardinality(session.starts())];
+            int k = 0;
+            for (int s = SlotBits.nextSetBit(session.starts(), 0); s >= 0; s = SlotBits.nextSetBit(session.starts(), s + 1)) {
+                values[k++] = s;
+            }
+            candidates[session.index()] = values;
+        }
+        int groups = problem.groupKeys().length;
+        int teachers = problem.teacherIds().length;
+        sessionsByGroup = TimetableScorer.sessionsBy(problem, groups, Session::groups);
+        sessionsByTeacher = TimetableScorer.sessionsBy(problem, teachers, Session::teachers);
+        campuses = problem.campusCount() > 1;
+        campusBuffer = new int[campuses ? TimetableScorer.maxLength(sessionsByGroup, sessionsByTeacher) : 0];
+        teacherBusy = new long[teachers][SlotBits.WORDS];
+        groupBusy = new long[groups][SlotBits.WORDS];
+        roomBusy = new long[problem.roomIds().length][];
+        touchedGroups = new int[groups];
+        groupStamp = new int[groups];
+        touchedTeachers = new int[teachers];
+        teacherStamp = new int[teachers];
+    }
+
+    public Result improve(TimetableSolver.Solution initial) {
+        return improve(initial, GenerationProgress.NONE);
+    }
+
+    public Result improve(TimetableSolver.Solution initial, GenerationProgress progress) {
+        long begin = System.nanoTime();
+        long deadline = begin + options.timeBudgetMillis() * 1_000_000L;
+        System.arraycopy(initial.starts(), 0, start, 0, start.length);
+        System.arraycopy(initial.rooms(), 0, room, 0, room.length);
+        for (int r = 0; r < roomBusy.length; r++) {
+            roomBusy[r] = problem.roomBlocked()[r].clone();
+        }
+        for (Session session : sessions) {
+            int i = session.index();
+            if (room[i] >= 0) {
+                occupy(i, start[i], room[i]);
+            }
+        }
+        // Les séances fixées occupent leurs ressources mais ne sont jamais déplacées
+        int[] placed = Arrays.stream(sessions).mapToInt(Session::index)
+                .filter(i -> room[i] >= 0 && !problem.isPinned(i)).toArray();
+
+        TimetableScorer scorer = new TimetableScorer(problem);
+        TimetableScorer.Score initialScore = scorer.evaluate(start, room);
+        long current = initialScore.total(weights);
+        long best = current;
+        int[] bestStarts = start.clone();
+        int[] bestRooms = room.clone();
+        long[] history = new long[HISTORY];
+        Arrays.fill(history, current);
+
+        long moves = 0;
+        long accepted = 0;
+        for (; placed.length > 0 && moves < options.maxMoves(); moves++) {
+            if ((moves & 1023) == 0) {
+                if (System.nanoTime() > deadline || Thread.currentThread().isInterrupted() || progress.isCancelled()) {
+                    break;
+                }
+                progress.score(best);
+            }
+            long delta = random.nextInt(100) < SWAP_PERCENT ? trySwap(placed) : tryMove(placed);
+            if (delta == INFEASIBLE) {
+                continue;
+            }
+            long candidate = current + delta;
+            int v = (int) (moves % HISTORY);
+            if (candidate <= current || candidate <= history[v]) {
+                current = candidate;
+                accepted++;
+                if (current < best) {
+                    best = current;
+                    System.arraycopy(start, 0, bestStarts, 0, start.length);
+                    System.arraycopy(room, 0, bestRooms, 0, room.length);
+                }
+            } else {
+                undo();
+            }
+            history[v] = current;
+        }
+
+        progress.score(best);
+        TimetableSolver.Solution improved = new TimetableSolver.Solution(bestStarts, bestRooms, initial.placed(), initial.complete(),
+                initial.nodes(), initial.backtracks(), initial.elapsedMillis());
+        return new Result(improved, initialScore, scorer.evaluate(bestStarts, bestRooms), moves, accepted,
+                (System.nanoTime() - begin) / 1_000_000L);
+    }
+
+    // Déplacement d'une séance : nouveau départ (salle au meilleur ajustement), ou même départ et autre salle
+    private long tryMove(int[] placed) {
+        int i = placed[random.nextInt(placed.length)];
+        int oldStart = start[i];
+        int oldRoom = room[i];
+        boolean roomOnly = random.nextInt(100) < ROOM_ONLY_PERCENT;
+        int newStart = roomOnly ? oldStart : candidates[i][random.nextInt(candidates[i].length)];
+        if (!roomOnly && newStart == oldStart) {
+            return INFEASIBLE;
+        }
+
+        beginTouch();
+        touchResources(i);
+        touchDays(oldStart, newStart);
+        long before = touchedPenalty();
+        release(i);
+        int newRoom = roomOnly ? randomFreeRoom(i, newStart) : bestFreeRoom(i, newStart);
+        if (newRoom < 0 || newRoom == oldRoom && roomOnly || !resourcesFree(i, newStart)) {
+            occupy(i, oldStart, oldRoom);
+            return INFEASIBLE;
+        }
+        occupy(i, newStart, newRoom);
+        recordUndo(i, oldStart, oldRoom);
+        undoCount = 1;
+
+        return touchedPenalty() - before + sessionPenalty(i, newStart, newRoom) - sessionPenalty(i, oldStart, oldRoom);
+    }
+
+    // Échange des départs de deux séances de même durée qui partagent un groupe
+    private long trySwap(int[] placed) {
+        int i = placed[random.nextInt(placed.length)];
+        int[] groups = sessions[i].groups();
+        int[] mates = sessionsByGroup[groups[random.nextInt(groups.length)]];
+        int j = mates[random.nextInt(mates.length)];
+        int startI = start[i];
+        int startJ = start[j];
+        if (j == i || room[j] < 0 || problem.isPinned(j) || sessions[j].length() != sessions[i].length() || startI == startJ
+                || !SlotBits.get(sessions[i].starts(), startJ) || !SlotBits.get(sessions[j].starts(), startI)) {
+            return INFEASIBLE;
+        }
+        int roomI = room[i];
+        int roomJ = room[j];
+
+        beginTouch();
+        touchResources(i);
+        touchResources(j);
+        touchDays(startI, startJ);
+        long before = touchedPenalty();
+        release(i);
+        release(j);
+        int newRoomI = resourcesFree(i, startJ) ? bestFreeRoom(i, startJ) : -1;
+        if (newRoomI >= 0) {
+            occupy(i, startJ, newRoomI);
+            int newRoomJ = resourcesFree(j, startI) ? bestFreeRoom(j, startI) : -1;
+            if (newRoomJ >= 0) {
+                occupy(j, startI, newRoomJ);
+                recordUndo(i, startI, roomI);
+                undoSessions[1] = j;
+                undoStarts[1] = startJ;
+                undoRooms[1] = roomJ;
+                undoCount = 2;
+
+                return touchedPenalty() - before
+                        + sessionPenalty(i, startJ, newRoomI) - sessionPenalty(i, startI, roomI)
+                        + sessionPenalty(j, startI, newRoomJ) - sessionPenalty(j, startJ, roomJ);
+            }
+            release(i);
+        }
+        occupy(i, startI, roomI);
+        occupy(j, startJ, roomJ);
+        return INFEASIBLE;
+    }
+
+    private void undo() {
+        for (int k = 0; k < undoCount; k++) {
+            release(undoSessions[k]);
+        }
+        for (int k = 0; k < undoCount; k++) {
+            occupy(undoSessions[k], undoStarts[k], undoRooms[k]);
+        }
+        undoCount = 0;
+    }
+
+    private void recordUndo(int i, int oldStart, int oldRoom) {
+        undoSessions[0] = i;
+        undoStarts[0] = oldStart;
+        undoRooms[0] = oldRoom;
+    }
+
+    private void occupy(int i, int s, int r) {
+        Session session = sessions[i];
+        int end = s + session.length();
+        start[i] = s;
+        room[i] = r;
+        SlotBits.setRange(roomBusy[r], s, end);
+        for (int t : session.teachers()) {
+            SlotBits.setRange(teacherBusy[t], s, end);
+        }
+        for (int g : session.groups()) {
+            SlotBits.setRange(groupBusy[g], s, end);
+        }
+    }
+
+    private void release(int i) {
+        Session session = sessions[i];
+        int s = start[i];
+        int end = s + session.length();
+        SlotBits.clearRange(roomBusy[room[i]], s, end);
+        for (int t : session.teachers()) {
+            SlotBits.clearRange(teacherBusy[t], s, end);
+        }
+        for (int g : session.groups()) {
+            SlotBits.clearRange(groupBusy[g], s, end);
+        }
+    }
+
+    private boolean resourcesFree(int i, int s) {
+        Session session = sessions[i];
+        int end = s + session.length();
+        for (int t : session.teachers()) {
+            if (SlotBits.anyInRange(teacherBusy[t], s, end)) {
+                return false;
+            }
+        }
+        for (int g : session.groups()) {
+            if (SlotBits.anyInRange(groupBusy[g], s, end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Salles triées par capacité croissante : la première libre est le meilleur ajustement
+    private int bestFreeRoom(int i, int s) {
+        int end = s + sessions[i].length();
+        for (int r : sessions[i].rooms()) {
+            if (!SlotBits.anyInRange(roomBusy[r], s, end)) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    private int randomFreeRoom(int i, int s) {
+        int[] rooms = sessions[i].rooms();
+        int r = rooms[random.nextInt(rooms.length)];
+        return SlotBits.anyInRange(roomBusy[r], s, s + sessions[i].length()) ? -1 : r;
+    }
+
+    // Critères propres à la séance i placée en (s, r), pondérés
+    private long sessionPenalty(int i, int s, int r) {
+        Session session = sessions[i];
+        return weights.preference() * TimetableScorer.preferencePenalty(session, s)
+                + weights.roomFit() * TimetableScorer.roomPenalty(session, problem.roomCapacities()[r])
+                + weights.latePriority() * TimetableScorer.latePriorityPenalty(session, s)
+                + weights.stability() * TimetableScorer.stabilityPenalty(problem, i, s, r);
+    }
+
+    private void beginTouch() {
+        stamp++;
+        touchedCount = 0;
+        touchedTeacherCount = 0;
+        touchedDayCount = 0;
+    }
+
+    private void touchResources(int i) {
+        for (int g : sessions[i].groups()) {
+            if (problem.studentGroups()[g] && groupStamp[g] != stamp) {
+                groupStamp[g] = stamp;
+                touchedGroups[touchedCount++] = g;
+            }
+        }
+        for (int t : sessions[i].teachers()) {
+            if (teacherStamp[t] != stamp) {
+                teacherStamp[t] = stamp;
+                touchedTeachers[touchedTeacherCount++] = t;
+            }
+        }
+    }
+
+    private void touchDays(int first, int second) {
+        touchedDays[0] = TimetableScorer.dayOf(first);
+        touchedDays[1] = TimetableScorer.dayOf(second);
+        touchedDayCount = touchedDays[0] == touchedDays[1] ? 1 : 2;
+    }
+
+    // Critères par (groupe, jour) et (enseignant, jour) sur les couples touchés, pondérés
+    private long touchedPenalty() {
+        long gaps = 0;
+        long overload = 0;
+        long changes = 0;
+        for (int k = 0; k < touchedCount; k++) {
+            int g = touchedGroups[k];
+            for (int d = 0; d < touchedDayCount; d++) {
+                gaps += TimetableScorer.dayGaps(groupBusy[g], touchedDays[d]);
+                changes += campuses ? TimetableScorer.campusChanges(sessionsByGroup[g], touchedDays[d], start, room, problem.roomCampuses(), campusBuffer) : 0;
+            }
+        }
+        for (int k = 0; k < touchedTeacherCount; k++) {
+            int t = touchedTeachers[k];
+            for (int d = 0; d < touchedDayCount; d++) {
+                overload += TimetableScorer.dayOverload(teacherBusy[t], touchedDays[d], problem.teacherDailyCaps()[t]);
+                changes += campuses ? TimetableScorer.campusChanges(sessionsByTeacher[t], touchedDays[d], start, room, problem.roomCampuses(), campusBuffer) : 0;
+            }
+        }
+        return weights.gap() * gaps + weights.teacherLoad() * overload + weights.campusChange() * changes;
+    }
+}
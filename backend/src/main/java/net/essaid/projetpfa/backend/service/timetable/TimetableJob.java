@@ -0,0 +1,195 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Génération d'emploi du temps soumise en tâche de fond, pour une année universitaire et un semestre
+ * (null : tous). L'état est lu par les requêtes de suivi pendant que le thread de génération
+ * et les threads de recherche le mettent à jour : champs volatils ou atomiques, sans verrou,
+ * sauf le passage à l'enregistrement et la demande d'annulation, exclusifs l'un de l'autre.
+ */
+public class TimetableJob implements GenerationProgress {
+
+    public enum Status {
+        QUEUED, BUILDING, SOLVING, IMPROVING, SAVING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final GenerationRequest request;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile boolean cancelRequested;
+    private volatile int totalSessions;
+    private final AtomicInteger placedSessions = new AtomicInteger();
+    private volatile Long score;
+    private volatile Integer eventsCreated;
+    private volatile Integer unplacedSessions;
+    private volatile String message;
+    private volatile TimetableDiff diff;
+    private volatile Future<?> future;
+
+    public TimetableJob(String id, GenerationRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    // Deux générations se gênent si leurs périmètres se recoupent (null couvre toutes les valeurs)
+    public boolean overlaps(String otherAcademicYear, String otherSemester) {
+        return covers(request.academicYear(), otherAcademicYear) && covers(request.semester(), otherSemester);
+    }
+
+    private static boolean covers(String value, String other) {
+        return value == null || other == null || Objects.equals(value, other);
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+    }
+
+    public synchronized void advance(Status next) {
+        status = next;
+    }
+
+    public void succeed(int eventsCreated, int unplacedSessions, String message, TimetableDiff diff) {
+        this.eventsCreated = eventsCreated;
+        this.unplacedSessions = unplacedSessions;
+        this.diff = diff;
+        finish(Status.SUCCEEDED, message);
+    }
+
+    public void finish(Status finalStatus, String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.status = finalStatus;
+    }
+
+    // Refusée pendant l'enregistrement : l'emploi du temps est déjà en cours d'écriture
+    public synchronized boolean requestCancel() {
+        if (status == Status.SAVING) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    @Override
+    public void sessions(int total) {
+        totalSessions = total;
+    }
+
+    // Plusieurs recherches rapportent leur meilleur résultat : on garde le maximum
+    @Override
+    public void placed(int placed) {
+        placedSessions.accumulateAndGet(placed, Math::max);
+    }
+
+    @Override
+    public void score(long score) {
+        this.score = score;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested || Thread.currentThread().isInterrupted();
+    }
+
+    public long getElapsedMillis() {
+        LocalDateTime from = startedAt;
+        if (from == null) {
+            return 0;
+        }
+        LocalDateTime to = finishedAt != null ? finishedAt : LocalDateTime.now();
+        return Duration.between(from, to).toMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GenerationRequest getRequest() {
+        return request;
+    }
+
+    public String getAcademicYear() {
+        return request.academicYear();
+    }
+
+    public String getSemester() {
+        return request.semester();
+    }
+
+    public boolean isIncremental() {
+        return request.incremental();
+    }
+
+    public boolean isDryRun() {
+        return request.dryRun();
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public int getTotalSessions() {
+        return totalSessions;
+    }
+
+    public int getPlacedSessions() {
+        return placedSessions.get();
+    }
+
+    public Long getScore() {
+        return score;
+    }
+
+    public Integer getEventsCreated() {
+        return eventsCreated;
+    }
+
+    public Integer getUnplacedSessions() {
+        return unplacedSessions;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public TimetableDiff getDiff() {
+        return diff;
+    }
+
+    public Future<?> getFuture() {
+        return future;
+    }
+
+    public void setFuture(Future<?> future) {
+        this.future = future;
+    }
+}
@@ -0,0 +1,70 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.util.Arrays;
+
+/**
+ * Sélection des séances conservées lors d'une régénération incrémentale (perturbation minimale).
+ * Les placements existants sont examinés dans l'ordre donné (modifications manuelles d'abord, par exemple) ;
+ * un placement n'est conservé que s'il reste valide : même durée, dans la semaine, salle compatible et disponible,
+ * et sans chevauchement avec les placements déjà conservés pour ses enseignants, groupes et salle.
+ * Les disponibilités des enseignants et du cours sont vérifiées par l'appelant, qui ne transmet que les candidats à garder.
+ */
+public final class TimetablePinning {
+
+    private TimetablePinning() {
+    }
+
+    // starts/rooms : placement existant par séance (-1 : aucun) ; rend le problème avec les placements conservés fixés
+    public static TimetableProblem pin(TimetableProblem problem, int[] starts, int[] rooms, int[] order) {
+        int n = problem.sessions().size();
+        long[][] teacherBusy = new long[problem.teacherIds().length][SlotBits.WORDS];
+        long[][] groupBusy = new long[problem.groupKeys().length][SlotBits.WORDS];
+        long[][] roomBusy = new long[problem.roomIds().length][];
+        for (int r = 0; r < roomBusy.length; r++) {
+            roomBusy[r] = problem.roomBlocked()[r].clone();
+        }
+        int[] pinnedStarts = new int[n];
+        int[] pinnedRooms = new int[n];
+        Arrays.fill(pinnedStarts, -1);
+        Arrays.fill(pinnedRooms, -1);
+
+        for (int i : order) {
+            Session session = problem.sessions().get(i);
+            int s = starts[i];
+            int r = rooms[i];
+            if (s < 0 || r < 0 || s + session.length() > SlotBits.SLOTS || !contains(session.rooms(), r)) {
+                continue;
+            }
+            int end = s + session.length();
+            boolean free = !SlotBits.anyInRange(roomBusy[r], s, end);
+            for (int t : session.teachers()) {
+                free &= !SlotBits.anyInRange(teacherBusy[t], s, end);
+            }
+            for (int g : session.groups()) {
+                free &= !SlotBits.anyInRange(groupBusy[g], s, end);
+            }
+            if (!free) {
+                continue;
+            }
+            SlotBits.setRange(roomBusy[r], s, end);
+            for (int t : session.teachers()) {
+                SlotBits.setRange(teacherBusy[t], s, end);
+            }
+            for (int g : session.groups()) {
+                SlotBits.setRange(groupBusy[g], s, end);
+            }
+            pinnedStarts[i] = s;
+            pinnedRooms[i] = r;
+        }
+        return problem.withPins(pinnedStarts, pinnedRooms);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
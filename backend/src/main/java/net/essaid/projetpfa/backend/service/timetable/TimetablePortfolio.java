@@ -0,0 +1,95 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recherche en portefeuille : plusieurs {@link TimetableSolver} lancés en parallèle sur un ForkJoinPool,
+ * chacun avec sa graine (ordre des départs, départage des séances ex aequo), sur le même problème en lecture seule.
+ * La meilleure affectation est partagée sans verrou (AtomicReference, mise à jour par CAS) ;
+ * dès qu'une recherche place toutes les séances, les autres s'arrêtent à leur prochain contrôle.
+ * Le temps de réponse est celui de la recherche la plus chanceuse, d'autant plus court qu'il y a de coeurs.
+ * Un problème fait de plusieurs composantes indépendantes (campus, filières) est d'abord découpé.
+ */
+public class TimetablePortfolio {
+
+    private final int parallelism;
+
+    public TimetablePortfolio(int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public TimetableSolver.Solution solve(TimetableProblem problem, TimetableSolver.Options options) {
+        return solve(problem, options, GenerationProgress.NONE);
+    }
+
+    /**
+     * Les composantes indépendantes du problème ({@link TimetableDecomposition}) sont résolues en même temps,
+     * chacune par son propre portefeuille (les coeurs sont répartis entre elles), puis leurs solutions sont réunies.
+     */
+    public TimetableSolver.Solution solve(TimetableProblem problem, TimetableSolver.Options options, GenerationProgress progress) {
+        List<TimetableDecomposition.Component> components = TimetableDecomposition.split(problem);
+        if (parallelism == 1 && components.size() == 1) {
+            return new TimetableSolver(problem, options).solve(progress::isCancelled, candidate -> progress.placed(candidate.placed()));
+        }
+        int searchesPerComponent = Math.max(1, parallelism / components.size());
+        // Meilleur placement de chaque composante : l'avancement rapporte leur somme
+        AtomicIntegerArray placedByComponent = new AtomicIntegerArray(components.size());
+        List<AtomicReference<TimetableSolver.Solution>> incumbents = new ArrayList<>(components.size());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> searches = new ArrayList<>(components.size() * searchesPerComponent);
+            for (int c = 0; c < components.size(); c++) {
+                TimetableProblem component = components.get(c).problem();
+                AtomicReference<TimetableSolver.Solution> incumbent = new AtomicReference<>();
+                incumbents.add(incumbent);
+                int componentIndex = c;
+                for (int k = 0; k < searchesPerComponent; k++) {
+                    TimetableSolver.Options seeded = new TimetableSolver.Options(options.seed() + k, options.timeBudgetMillis(), options.backtrackLimit());
+                    searches.add(pool.submit(() -> new TimetableSolver(component, seeded).solve(
+                            () -> isComplete(incumbent.get()) || progress.isCancelled(),
+                            candidate -> {
+                                offer(incumbent, candidate);
+                                placedByComponent.accumulateAndGet(componentIndex, candidate.placed(), Math::max);
+                                progress.placed(sum(placedByComponent));
+                            })));
+                }
+            }
+            searches.forEach(ForkJoinTask::join);
+        } finally {
+            pool.shutdownNow();
+        }
+        if (components.size() == 1) {
+            return incumbents.get(0).get();
+        }
+        return TimetableDecomposition.merge(problem, components, incumbents.stream().map(AtomicReference::get).toList());
+    }
+
+    private static int sum(AtomicIntegerArray values) {
+        int total = 0;
+        for (int i = 0; i < values.length(); i++) {
+            total += values.get(i);
+        }
+        return total;
+    }
+
+    // Remplace la solution partagée si le candidat place davantage de séances
+    static void offer(AtomicReference<TimetableSolver.Solution> incumbent, TimetableSolver.Solution candidate) {
+        TimetableSolver.Solution current = incumbent.get();
+        while ((current == null || candidate.placed() > current.placed()) && !incumbent.compareAndSet(current, candidate)) {
+            current = incumbent.get();
+        }
+    }
+
+    private static boolean isComplete(TimetableSolver.Solution solution) {
+        return solution != null && solution.complete();
+    }
+}
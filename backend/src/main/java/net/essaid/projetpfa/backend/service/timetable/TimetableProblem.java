@@ -0,0 +1,43 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Instance de génération : séances à placer, salles, enseignants et groupes, indexés par position.
+ * roomBlocked contient, par salle, les créneaux de la semaine couverts par une indisponibilité.
+ * roomCampuses numérote le campus de chaque salle (-1 : campus non renseigné).
+ * teacherDailyCaps et teacherWeeklyCaps bornent la charge de chaque enseignant, en créneaux (-1 : sans limite) ;
+ * ce sont des contraintes souples, voir {@link TimetableScorer}.
+ * studentGroups indique les groupes qui correspondent à un emploi du temps d'étudiant (pas une promotion déjà découpée en groupes).
+ * weekStart est le lundi 00:00 de la semaine générée.
+ * pinnedStarts/pinnedRooms fixent des séances déjà placées que la recherche ne déplace pas (-1 : séance libre),
+ * pour une régénération incrémentale ; voir {@link TimetablePinning}.
+ * hintStarts/hintRooms suggèrent un placement par séance (-1 : aucun), essayé en premier par la recherche
+ * sans être imposé : démarrage à chaud depuis l'emploi du temps d'une année précédente.
+ */
+public record TimetableProblem(List<Session> sessions, String[] roomIds, int[] roomCapacities, int[] roomCampuses,
+                               String[] teacherIds, int[] teacherDailyCaps, int[] teacherWeeklyCaps, String[] groupKeys,
+                               boolean[] studentGroups, long[][] roomBlocked, LocalDateTime weekStart, int[] pinnedStarts, int[] pinnedRooms,
+                               int[] hintStarts, int[] hintRooms) {
+
+    // Nombre de campus distincts parmi les salles renseignées
+    public int campusCount() {
+        return Arrays.stream(roomCampuses).max().orElse(-1) + 1;
+    }
+
+    public boolean isPinned(int session) {
+        return pinnedStarts[session] >= 0;
+    }
+
+    public TimetableProblem withPins(int[] starts, int[] rooms) {
+        return new TimetableProblem(sessions, roomIds, roomCapacities, roomCampuses, teacherIds, teacherDailyCaps, teacherWeeklyCaps,
+                groupKeys, studentGroups, roomBlocked, weekStart, starts.clone(), rooms.clone(), hintStarts, hintRooms);
+    }
+
+    public TimetableProblem withHints(int[] starts, int[] rooms) {
+        return new TimetableProblem(sessions, roomIds, roomCapacities, roomCampuses, teacherIds, teacherDailyCaps, teacherWeeklyCaps,
+                groupKeys, studentGroups, roomBlocked, weekStart, pinnedStarts, pinnedRooms, starts.clone(), rooms.clone());
+    }
+}
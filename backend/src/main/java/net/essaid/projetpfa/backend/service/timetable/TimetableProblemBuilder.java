@@ -0,0 +1,370 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.entities.User;
+import net.essaid.projetpfa.backend.service.conflict.RoomAvailabilityIndex;
+import net.essaid.projetpfa.backend.service.conflict.WeeklyMask;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Construit un {@link TimetableProblem} à partir des cours et des salles.
+ * Chaque cours est développé en séances récurrentes de la semaine type :
+ * - heures CM/TD/TP et durée de séance donnent un nombre de séances sur le semestre, réparties en séances
+ *   récurrentes selon la fréquence du cours (hebdomadaire, toutes les deux semaines, mensuelle) ;
+ * - le CM réunit tous les groupes du cours, chaque groupe de groupsAffected a ses propres TD et TP ;
+ * - une séance mobilise tous les enseignants du cours (responsable et associés), comme la détection de conflits ;
+ * - les groupes sont rattachés à leur promotion (filière, niveau) : une séance de promotion entière
+ *   occupe aussi chacun de ses groupes.
+ * Les contraintes statiques (disponibilités, capacité, type et campus de salle) sont appliquées ici,
+ * une fois pour toutes ; le solveur ne gère que les chevauchements. Une séance récurrente occupe son créneau
+ * chaque semaine de la semaine type, et les indisponibilités de salle de tout le semestre y sont reportées.
+ * Les événements déjà enregistrés hors du périmètre généré (autre semestre, autre année) y sont reportés de même :
+ * leurs salles sont bloquées, et les départs qui recoupent leurs enseignants ou leurs groupes sont retirés des domaines.
+ */
+public class TimetableProblemBuilder {
+
+    public static final int DEFAULT_SESSION_MINUTES = 120;
+    private static final String WHOLE_PROMOTION = "*";
+
+    private final LocalDateTime weekStart;
+    private final int semesterWeeks;
+    private Function<Course, WeeklyMask> courseMasks = course -> WeeklyMask.FULL;
+    private Function<User, WeeklyMask> teacherMasks = teacher -> WeeklyMask.FULL;
+    private Function<User, WeeklyMask> teacherPreferences = teacher -> WeeklyMask.EMPTY;
+    private Function<String, List<RoomAvailabilityIndex.UnavailablePeriod>> roomUnavailability = roomId -> List.of();
+    private int teacherMaxDailyHours = 0;
+    private List<ScheduleEvent> occupiedBy = List.of();
+
+    public TimetableProblemBuilder(LocalDateTime weekStart, int semesterWeeks) {
+        this.weekStart = weekStart;
+        this.semesterWeeks = Math.max(1, semesterWeeks);
+    }
+
+    public TimetableProblemBuilder courseMasks(Function<Course, WeeklyMask> courseMasks) {
+        this.courseMasks = courseMasks;
+        return this;
+    }
+
+    public TimetableProblemBuilder teacherMasks(Function<User, WeeklyMask> teacherMasks) {
+        this.teacherMasks = teacherMasks;
+        return this;
+    }
+
+    // Créneaux préférés (vide : aucune préférence), utilisés par la phase d'amélioration
+    public TimetableProblemBuilder teacherPreferences(Function<User, WeeklyMask> teacherPreferences) {
+        this.teacherPreferences = teacherPreferences;
+        return this;
+    }
+
+    // Périodes d'indisponibilité d'une salle recoupant la semaine générée
+    public TimetableProblemBuilder roomUnavailability(Function<String, List<RoomAvailabilityIndex.UnavailablePeriod>> roomUnavailability) {
+        this.roomUnavailability = roomUnavailability;
+        return this;
+    }
+
+    // Charge journalière au-delà de laquelle un enseignant est pénalisé (0 : seul maxWeeklyHours la borne)
+    public TimetableProblemBuilder teacherMaxDailyHours(int teacherMaxDailyHours) {
+        this.teacherMaxDailyHours = teacherMaxDailyHours;
+        return this;
+    }
+
+    // Événements hors périmètre recoupant le semestre généré : ressources déjà occupées, que la recherche doit éviter
+    public TimetableProblemBuilder occupiedBy(List<ScheduleEvent> occupiedBy) {
+        this.occupiedBy = occupiedBy;
+        return this;
+    }
+
+    public TimetableProblem build(List<Course> courses, List<Room> rooms) {
+        return build(courses, RoomCompatibilityMatrix.of(rooms));
+    }
+
+    // Salles compatibles précalculées, éventuellement partagées entre générations
+    public TimetableProblem build(List<Course> courses, RoomCompatibilityMatrix roomMatrix) {
+        List<Room> usableRooms = roomMatrix.rooms();
+        Map<String, long[]> roomsOccupied = new HashMap<>();
+        Map<String, long[]> teachersOccupied = new HashMap<>();
+        Map<String, long[]> groupsOccupied = new HashMap<>();
+        for (ScheduleEvent event : occupiedBy) {
+            long[] slots = SlotBits.empty();
+            foldOnWeek(slots, event.getStartTime(), event.getEndTime());
+            if (SlotBits.isEmpty(slots)) {
+                continue;
+            }
+            SlotBits.or(roomsOccupied.computeIfAbsent(event.getRoom().getId(), id -> SlotBits.empty()), slots);
+            teachersOf(event.getCourse()).forEach(id -> SlotBits.or(teachersOccupied.computeIfAbsent(id, k -> SlotBits.empty()), slots));
+            SlotBits.or(groupsOccupied.computeIfAbsent(groupKeyOf(event), k -> SlotBits.empty()), slots);
+        }
+        long[][] roomBlocked = new long[usableRooms.size()][];
+        for (int r = 0; r < usableRooms.size(); r++) {
+            roomBlocked[r] = blockedSlots(usableRooms.get(r).getId());
+            long[] occupied = roomsOccupied.get(usableRooms.get(r).getId());
+            if (occupied != null) {
+                SlotBits.or(roomBlocked[r], occupied);
+            }
+        }
+
+        // Groupes connus de chaque promotion, pour qu'une séance de promotion entière les occupe tous
+        Map<String, Set<String>> groupsByPromotion = new HashMap<>();
+        for (Course course : courses) {
+            groupsByPromotion.computeIfAbsent(promotionOf(course), p -> new TreeSet<>()).addAll(groupsOf(course));
+        }
+
+        Map<String, Integer> teacherIndex = new LinkedHashMap<>();
+        Map<String, User> teachersById = new HashMap<>();
+        Map<String, Integer> groupIndex = new LinkedHashMap<>();
+        List<Session> sessions = new ArrayList<>();
+        for (Course course : courses) {
+            int duration = course.getSessionDurationMinutes() != null && course.getSessionDurationMinutes() > 0
+                    ? course.getSessionDurationMinutes() : DEFAULT_SESSION_MINUTES;
+            int length = TimeGrid.slotsFor(duration);
+            String promotion = promotionOf(course);
+            List<String> groups = groupsOf(course);
+
+            teacherUsersOf(course).forEach(teacher -> teachersById.putIfAbsent(teacher.getId(), teacher));
+            int[] teachers = teachersOf(course).stream().mapToInt(id -> teacherIndex.computeIfAbsent(id, k -> teacherIndex.size())).toArray();
+            Set<String> wholePromotion = new LinkedHashSet<>();
+            wholePromotion.add(promotion + "/" + WHOLE_PROMOTION);
+            groupsByPromotion.get(promotion).forEach(group -> wholePromotion.add(promotion + "/" + group));
+            int[] wholeGroups = wholePromotion.stream().mapToInt(key -> groupIndex.computeIfAbsent(key, k -> groupIndex.size())).toArray();
+
+            // Domaine des départs : créneaux autorisés par le cours et l'enseignant responsable, séance entière comprise
+            long[] allowed = courseMasks.apply(course).and(teacherMasks.apply(course.getResponsibleTeacher())).toWords();
+            long[] starts = SlotBits.startsFitting(allowed, length);
+            SlotBits.and(starts, TimeGrid.candidateStarts(length));
+            WeeklyMask preferred = teacherPreferences.apply(course.getResponsibleTeacher());
+            long[] preferredStarts = preferred.isEmpty() ? null : SlotBits.startsFitting(preferred.toWords(), length);
+
+            int period = Recurrence.periodOf(course.getFrequency());
+            List<Recurrence> cm = recurrences(course.getCmHours(), duration, period);
+            List<Recurrence> td = recurrences(course.getTdHours(), duration, period);
+            List<Recurrence> tp = recurrences(course.getTpHours(), duration, period);
+            if (cm.isEmpty() && td.isEmpty() && tp.isEmpty()) {
+                cm = List.of(new Recurrence(period, occurrencesPerSlot(period))); // Cours sans volume horaire : une séance à chaque période
+            }
+            int promotionSize = sessionSize(course, ScheduleEvent.SessionType.CM);
+            int groupSize = sessionSize(course, ScheduleEvent.SessionType.TD);
+            for (int k = 0; k < cm.size(); k++) {
+                sessions.add(session(sessions.size(), course, ScheduleEvent.SessionType.CM, "CM", k, cm.get(k), length, promotionSize,
+                        teachers, wholeGroups, roomMatrix, starts, preferredStarts));
+            }
+            for (ScheduleEvent.SessionType type : new ScheduleEvent.SessionType[]{ScheduleEvent.SessionType.TD, ScheduleEvent.SessionType.TP}) {
+                List<Recurrence> perGroup = type == ScheduleEvent.SessionType.TD ? td : tp;
+                if (groups.isEmpty()) {
+                    for (int k = 0; k < perGroup.size(); k++) {
+                        sessions.add(session(sessions.size(), course, type, type.name(), k, perGroup.get(k), length, groupSize,
+                                teachers, wholeGroups, roomMatrix, starts, preferredStarts));
+                    }
+                    continue;
+                }
+                for (String group : groups) {
+                    int[] groupKeys = {groupIndex.computeIfAbsent(promotion + "/" + group, key -> groupIndex.size())};
+                    for (int k = 0; k < perGroup.size(); k++) {
+                        sessions.add(session(sessions.size(), course, type, type.name() + " " + group, k, perGroup.get(k), length, groupSize,
+                                teachers, groupKeys, roomMatrix, starts, preferredStarts));
+                    }
+                }
+            }
+        }
+
+        // Une promotion découpée en groupes n'est pas un emploi du temps d'étudiant : ses groupes le sont
+        String[] groupKeys = groupIndex.keySet().toArray(String[]::new);
+        String[] teacherIds = teacherIndex.keySet().toArray(String[]::new);
+        if (!occupiedBy.isEmpty()) {
+            for (Session session : sessions) {
+                removeOccupiedStarts(session, teacherIds, groupKeys, teachersOccupied, groupsOccupied);
+            }
+        }
+        boolean[] studentGroups = new boolean[groupKeys.length];
+        for (int g = 0; g < groupKeys.length; g++) {
+            String promotion = groupKeys[g].substring(0, groupKeys[g].indexOf('/'));
+            studentGroups[g] = !groupKeys[g].endsWith("/" + WHOLE_PROMOTION) || groupsByPromotion.get(promotion).isEmpty();
+        }
+
+        // Campus numérotés dans l'ordre des salles, sans tenir compte de la casse
+        Map<String, Integer> campusIndex = new HashMap<>();
+        int[] roomCampuses = usableRooms.stream().mapToInt(room -> room.getCampus() == null || room.getCampus().isBlank() ? -1
+                : campusIndex.computeIfAbsent(room.getCampus().trim().toLowerCase(), campus -> campusIndex.size())).toArray();
+        int[] teacherWeeklyCaps = new int[teacherIds.length];
+        int[] teacherDailyCaps = new int[teacherIds.length];
+        for (int t = 0; t < teacherIds.length; t++) {
+            Integer maxWeeklyHours = teachersById.get(teacherIds[t]).getMaxWeeklyHours();
+            teacherWeeklyCaps[t] = maxWeeklyHours != null && maxWeeklyHours > 0 ? TimeGrid.slotsFor(maxWeeklyHours * 60) : -1;
+            int daily = teacherMaxDailyHours > 0 ? TimeGrid.slotsFor(teacherMaxDailyHours * 60) : -1;
+            teacherDailyCaps[t] = teacherWeeklyCaps[t] < 0 ? daily : daily < 0 ? teacherWeeklyCaps[t] : Math.min(daily, teacherWeeklyCaps[t]);
+        }
+
+        return new TimetableProblem(sessions,
+                usableRooms.stream().map(Room::getId).toArray(String[]::new),
+                usableRooms.stream().mapToInt(RoomCompatibilityMatrix::capacityOf).toArray(),
+                roomCampuses, teacherIds, teacherDailyCaps, teacherWeeklyCaps,
+                groupKeys, studentGroups, roomBlocked, weekStart, unassigned(sessions.size()), unassigned(sessions.size()),
+                unassigned(sessions.size()), unassigned(sessions.size()));
+    }
+
+    private Session session(int index, Course course, ScheduleEvent.SessionType type, String kind, int occurrence, Recurrence recurrence,
+                            int length, int size, int[] teachers, int[] groups, RoomCompatibilityMatrix roomMatrix, long[] starts,
+                            long[] preferredStarts) {
+        String key = kind + " #" + (occurrence + 1);
+        return new Session(index, course.getId(), key, type, course.getCode() + " " + key, length, size, priorityOf(course), teachers, groups,
+                roomMatrix.eligibleIndices(course, type, size), starts.clone(), preferredStarts, recurrence);
+    }
+
+    // Indisponibilités de toutes les semaines du semestre, reportées sur la semaine type
+    private long[] blockedSlots(String roomId) {
+        long[] blocked = SlotBits.empty();
+        for (RoomAvailabilityIndex.UnavailablePeriod period : roomUnavailability.apply(roomId)) {
+            foldOnWeek(blocked, period.start(), period.end());
+        }
+        return blocked;
+    }
+
+    // Marque les créneaux de [start, end) tombant dans l'une des semaines du semestre, ramenés sur la semaine type
+    private void foldOnWeek(long[] bits, LocalDateTime start, LocalDateTime end) {
+        for (int week = 0; week < semesterWeeks; week++) {
+            LocalDateTime monday = weekStart.plusWeeks(week);
+            long from = TimeGrid.slotOf(monday, start);
+            long to = TimeGrid.slotOf(monday, end.minusNanos(1)) + 1;
+            if (to > 0 && from < SlotBits.SLOTS) {
+                SlotBits.setRange(bits, (int) Math.max(from, 0), (int) Math.min(to, SlotBits.SLOTS));
+            }
+        }
+    }
+
+    // Un groupe occupé l'est aussi par les événements de toute sa promotion (CM, ou TD/TP d'un cours sans groupes)
+    private static void removeOccupiedStarts(Session session, String[] teacherIds, String[] groupKeys,
+                                             Map<String, long[]> teachersOccupied, Map<String, long[]> groupsOccupied) {
+        long[] busy = SlotBits.empty();
+        for (int t : session.teachers()) {
+            long[] occupied = teachersOccupied.get(teacherIds[t]);
+            if (occupied != null) {
+                SlotBits.or(busy, occupied);
+            }
+        }
+        for (int g : session.groups()) {
+            String promotion = groupKeys[g].substring(0, groupKeys[g].indexOf('/'));
+            for (String key : new String[]{groupKeys[g], promotion + "/" + WHOLE_PROMOTION}) {
+                long[] occupied = groupsOccupied.get(key);
+                if (occupied != null) {
+                    SlotBits.or(busy, occupied);
+                }
+            }
+        }
+        if (!SlotBits.isEmpty(busy)) {
+            SlotBits.removeStartsOverlapping(session.starts(), busy, session.length());
+        }
+    }
+
+    // Groupe d'un événement enregistré, d'après la clé de sa séance ("TD G1 #2" : groupe G1) ; sinon la promotion entière
+    static String groupKeyOf(ScheduleEvent event) {
+        String promotion = promotionOf(event.getCourse());
+        String key = event.getSessionKey();
+        String prefix = event.getSessionType() != null ? event.getSessionType().name() + " " : null;
+        int end = key != null ? key.lastIndexOf(" #") : -1;
+        if (key == null || prefix == null || event.getSessionType() == ScheduleEvent.SessionType.CM || !key.startsWith(prefix)
+                || end <= prefix.length()) {
+            return promotion + "/" + WHOLE_PROMOTION;
+        }
+        return promotion + "/" + key.substring(prefix.length(), end);
+    }
+
+    // Aucune séance fixée ni suggérée
+    private static int[] unassigned(int count) {
+        int[] values = new int[count];
+        Arrays.fill(values, -1);
+        return values;
+    }
+
+    /**
+     * Séances récurrentes couvrant le volume horaire : le nombre de séances du semestre (arrondi supérieur)
+     * est réparti sur le moins de créneaux possible, chaque créneau revenant au plus une fois par période.
+     * Ex. 21 séances hebdomadaires sur 14 semaines : deux créneaux de 11 et 10 occurrences.
+     */
+    List<Recurrence> recurrences(BigDecimal hours, int durationMinutes, int periodWeeks) {
+        if (hours == null || hours.signum() <= 0) {
+            return List.of();
+        }
+        int total = hours.multiply(BigDecimal.valueOf(60)).divide(BigDecimal.valueOf(durationMinutes), 0, RoundingMode.CEILING).intValue();
+        int perSlot = occurrencesPerSlot(periodWeeks);
+        int slots = (total + perSlot - 1) / perSlot;
+        List<Recurrence> recurrences = new ArrayList<>(slots);
+        for (int k = 0; k < slots; k++) {
+            recurrences.add(new Recurrence(periodWeeks, total / slots + (k < total % slots ? 1 : 0)));
+        }
+        return recurrences;
+    }
+
+    private int occurrencesPerSlot(int periodWeeks) {
+        return (semesterWeeks + periodWeeks - 1) / periodWeeks;
+    }
+
+    // Effectif d'une séance : la promotion entière pour un CM, un groupe pour un TD ou un TP
+    public static int sessionSize(Course course, ScheduleEvent.SessionType type) {
+        int groupSize = course.getGroupCapacity() != null ? course.getGroupCapacity() : 0;
+        return type == ScheduleEvent.SessionType.CM ? groupSize * Math.max(1, groupsOf(course).size()) : groupSize;
+    }
+
+    static String promotionOf(Course course) {
+        if (course.getFiliere() == null && course.getNiveau() == null) {
+            return "course:" + course.getId();
+        }
+        return (course.getFiliere() != null ? course.getFiliere().getId() : "-") + ":" + (course.getNiveau() != null ? course.getNiveau().getId() : "-");
+    }
+
+    // groupsAffected : liste séparée par des virgules (ou tableau JSON), ex. "G1, G2"
+    static List<String> groupsOf(Course course) {
+        List<String> groups = new ArrayList<>();
+        if (course.getGroupsAffected() == null) {
+            return groups;
+        }
+        for (String raw : course.getGroupsAffected().split("[,;\\n]")) {
+            String group = raw.replaceAll("[\\[\\]\"]", "").trim();
+            if (!group.isEmpty() && !groups.contains(group)) {
+                groups.add(group);
+            }
+        }
+        return groups;
+    }
+
+    static Set<String> teachersOf(Course course) {
+        Set<String> teachers = new TreeSet<>();
+        teacherUsersOf(course).forEach(teacher -> teachers.add(teacher.getId()));
+        return teachers;
+    }
+
+    private static List<User> teacherUsersOf(Course course) {
+        List<User> teachers = new ArrayList<>();
+        if (course.getResponsibleTeacher() != null) {
+            teachers.add(course.getResponsibleTeacher());
+        }
+        if (course.getAssociatedTeachers() != null) {
+            teachers.addAll(course.getAssociatedTeachers());
+        }
+        return teachers;
+    }
+
+    private static int priorityOf(Course course) {
+        if (course.getPriority() == null) {
+            return 1;
+        }
+        return switch (course.getPriority()) {
+            case HIGH -> 0;
+            case NORMAL -> 1;
+            case LOW -> 2;
+        };
+    }
+}
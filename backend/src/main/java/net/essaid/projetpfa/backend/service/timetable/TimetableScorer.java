@@ -0,0 +1,182 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Critères de qualité d'un emploi du temps faisable (pénalités pondérées, à minimiser) :
+ * - préférence : séance hors des créneaux préférés de l'enseignant responsable ;
+ * - trous : créneaux libres de 15 minutes entre deux séances d'un même groupe d'étudiants dans la journée ;
+ * - ajustement : places inoccupées de la salle, par dizaine ;
+ * - charge : créneaux d'un enseignant au-delà de sa charge journalière, et au-delà de maxWeeklyHours sur la semaine ;
+ * - priorité : séance d'un cours de priorité haute qui commence l'après-midi ;
+ * - campus : changements de campus entre deux séances consécutives d'un groupe d'étudiants ou d'un enseignant dans la journée ;
+ * - stabilité : séance placée ailleurs que son placement suggéré (démarrage à chaud, voir {@link TimetableProblem}).
+ * Chaque critère se calcule par séance, par (groupe, jour) ou par (enseignant, jour), ce qui permet à la recherche locale
+ * de n'évaluer que la variation due à un mouvement. La charge hebdomadaire ne dépend que des séances placées :
+ * un mouvement ne la change pas.
+ */
+public class TimetableScorer {
+
+    // Un cours prioritaire commençant à partir de midi est pénalisé
+    static final int AFTERNOON_MINUTE = 12 * 60;
+
+    public record Weights(int preference, int gap, int roomFit, int teacherLoad, int latePriority, int campusChange, int stability) {
+        public static Weights defaults() {
+            return new Weights(10, 1, 1, 5, 5, 3, 5);
+        }
+    }
+
+    public record Score(long preferenceMisses, long gapSlots, long wastedSeats, long teacherOverloadSlots,
+                        long lateHighPriority, long campusChanges, long movedSessions) {
+        public long total(Weights weights) {
+            return weights.preference() * preferenceMisses + weights.gap() * gapSlots + weights.roomFit() * wastedSeats
+                    + weights.teacherLoad() * teacherOverloadSlots + weights.latePriority() * lateHighPriority
+                    + weights.campusChange() * campusChanges + weights.stability() * movedSessions;
+        }
+    }
+
+    private final TimetableProblem problem;
+    private final int[][] sessionsByGroup;
+    private final int[][] sessionsByTeacher;
+
+    public TimetableScorer(TimetableProblem problem) {
+        this.problem = problem;
+        this.sessionsByGroup = sessionsBy(problem, problem.groupKeys().length, Session::groups);
+        this.sessionsByTeacher = sessionsBy(problem, problem.teacherIds().length, Session::teachers);
+    }
+
+    // Calcul complet, séances non placées (start < 0) ignorées
+    public Score evaluate(int[] starts, int[] rooms) {
+        long[][] groupBusy = new long[problem.groupKeys().length][SlotBits.WORDS];
+        long[][] teacherBusy = new long[problem.teacherIds().length][SlotBits.WORDS];
+        long preference = 0;
+        long wasted = 0;
+        long late = 0;
+        long moved = 0;
+        for (Session session : problem.sessions()) {
+            int start = starts[session.index()];
+            if (start < 0) {
+                continue;
+            }
+            preference += preferencePenalty(session, start);
+            wasted += roomPenalty(session, problem.roomCapacities()[rooms[session.index()]]);
+            late += latePriorityPenalty(session, start);
+            moved += stabilityPenalty(problem, session.index(), start, rooms[session.index()]);
+            for (int g : session.groups()) {
+                SlotBits.setRange(groupBusy[g], start, start + session.length());
+            }
+            for (int t : session.teachers()) {
+                SlotBits.setRange(teacherBusy[t], start, start + session.length());
+            }
+        }
+        boolean campuses = problem.campusCount() > 1;
+        int[] buffer = new int[campuses ? maxLength(sessionsByGroup, sessionsByTeacher) : 0];
+        long gaps = 0;
+        long changes = 0;
+        for (int g = 0; g < groupBusy.length; g++) {
+            if (problem.studentGroups()[g]) {
+                for (int day = 0; day < TimeGrid.TEACHING_DAYS; day++) {
+                    gaps += dayGaps(groupBusy[g], day);
+                    changes += campuses ? campusChanges(sessionsByGroup[g], day, starts, rooms, problem.roomCampuses(), buffer) : 0;
+                }
+            }
+        }
+        long overload = 0;
+        for (int t = 0; t < teacherBusy.length; t++) {
+            int weeklyCap = problem.teacherWeeklyCaps()[t];
+            overload += weeklyCap < 0 ? 0 : Math.max(0, SlotBits.cardinality(teacherBusy[t]) - weeklyCap);
+            for (int day = 0; day < TimeGrid.TEACHING_DAYS; day++) {
+                overload += dayOverload(teacherBusy[t], day, problem.teacherDailyCaps()[t]);
+                changes += campuses ? campusChanges(sessionsByTeacher[t], day, starts, rooms, problem.roomCampuses(), buffer) : 0;
+            }
+        }
+        return new Score(preference, gaps, wasted, overload, late, changes, moved);
+    }
+
+    static int preferencePenalty(Session session, int start) {
+        return session.preferredStarts() != null && !SlotBits.get(session.preferredStarts(), start) ? 1 : 0;
+    }
+
+    static int roomPenalty(Session session, int capacity) {
+        return Math.max(0, capacity - session.size()) / 10;
+    }
+
+    static int latePriorityPenalty(Session session, int start) {
+        return session.priority() == 0 && (start % TimeGrid.SLOTS_PER_DAY) * TimeGrid.SLOT_MINUTES >= AFTERNOON_MINUTE ? 1 : 0;
+    }
+
+    static int stabilityPenalty(TimetableProblem problem, int session, int start, int room) {
+        int hint = problem.hintStarts()[session];
+        return hint >= 0 && (start != hint || room != problem.hintRooms()[session]) ? 1 : 0;
+    }
+
+    static int dayGaps(long[] groupBusy, int day) {
+        return SlotBits.gapsInRange(groupBusy, day * TimeGrid.SLOTS_PER_DAY, (day + 1) * TimeGrid.SLOTS_PER_DAY);
+    }
+
+    static int dayOverload(long[] teacherBusy, int day, int dailyCap) {
+        return dailyCap < 0 ? 0
+                : Math.max(0, SlotBits.countInRange(teacherBusy, day * TimeGrid.SLOTS_PER_DAY, (day + 1) * TimeGrid.SLOTS_PER_DAY) - dailyCap);
+    }
+
+    /**
+     * Changements de campus dans la journée parmi les séances members (celles d'un groupe ou d'un enseignant),
+     * dans l'ordre des départs ; les salles sans campus sont ignorées. buffer doit pouvoir contenir toutes les séances.
+     */
+    static int campusChanges(int[] members, int day, int[] starts, int[] rooms, int[] roomCampuses, int[] buffer) {
+        int count = 0;
+        for (int i : members) {
+            int start = starts[i];
+            if (start >= 0 && dayOf(start) == day && roomCampuses[rooms[i]] >= 0) {
+                buffer[count++] = start << 16 | roomCampuses[rooms[i]];
+            }
+        }
+        if (count < 2) {
+            return 0;
+        }
+        Arrays.sort(buffer, 0, count);
+        int changes = 0;
+        for (int k = 1; k < count; k++) {
+            if ((buffer[k] & 0xFFFF) != (buffer[k - 1] & 0xFFFF)) {
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    static int dayOf(int slot) {
+        return slot / TimeGrid.SLOTS_PER_DAY;
+    }
+
+    // Index inverse : séances de chaque groupe (ou enseignant)
+    static int[][] sessionsBy(TimetableProblem problem, int size, Function<Session, int[]> members) {
+        int[] counts = new int[size];
+        for (Session session : problem.sessions()) {
+            for (int m : members.apply(session)) {
+                counts[m]++;
+            }
+        }
+        int[][] sessions = new int[size][];
+        for (int m = 0; m < size; m++) {
+            sessions[m] = new int[counts[m]];
+            counts[m] = 0;
+        }
+        for (Session session : problem.sessions()) {
+            for (int m : members.apply(session)) {
+                sessions[m][counts[m]++] = session.index();
+            }
+        }
+        return sessions;
+    }
+
+    static int maxLength(int[][]... indexes) {
+        int max = 0;
+        for (int[][] index : indexes) {
+            for (int[] members : index) {
+                max = Math.max(max, members.length);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,503 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Placement des séances par recherche arborescente avec propagation :
+ * - domaines des départs en bitset, réduits par forward checking à chaque placement
+ *   (les séances partageant un enseignant ou un groupe perdent les départs qui chevaucheraient) ;
+ * - choix de la séance la plus contrainte (MRV : départs restants x salles compatibles, pondéré par les échecs) ;
+ * - salle choisie au meilleur ajustement parmi les salles libres sur toute la séance ;
+ * - placements suggérés par le problème (démarrage à chaud) : seuls ceux compatibles entre eux et avec les séances fixées
+ *   sont retenus, leurs séances sont choisies en premier, départ suggéré en tête de l'ordre d'essai et salle suggérée si libre ;
+ *   une reprise de l'année précédente ne fait ainsi que réparer ce qui n'est plus valide ;
+ * - retour arrière chronologique quand un domaine se vide, avec redémarrages ;
+ * - séances fixées par le problème placées d'office avant chaque passe.
+ * Au-delà du budget de retours arrière ou de temps, la recherche termine en glouton :
+ * les séances impossibles à placer sont laissées non placées plutôt que de remettre en cause les précédentes.
+ * Non thread-safe : une instance par résolution.
+ */
+public class TimetableSolver {
+
+    private static final long FIRST_RUN_BACKTRACKS = 1_000L;
+    // Retranché au score MRV d'une séance dont le départ suggéré est encore possible : elle passe avant toutes les autres
+    private static final long HINT_PRIORITY = 1L << 50;
+
+    public record Options(long seed, long timeBudgetMillis, long backtrackLimit) {
+        public static Options defaults() {
+            return new Options(0L, 30_000L, 100_000L);
+        }
+    }
+
+    // starts/rooms : -1 pour une séance non placée
+    public record Solution(int[] starts, int[] rooms, int placed, boolean complete, long nodes, long backtracks, long elapsedMillis) {
+        public boolean isPlaced(int session) {
+            return rooms[session] >= 0;
+        }
+
+        public List<Integer> unplacedSessions() {
+            List<Integer> unplaced = new ArrayList<>();
+            for (int i = 0; i < rooms.length; i++) {
+                if (rooms[i] < 0) {
+                    unplaced.add(i);
+                }
+            }
+            return unplaced;
+        }
+    }
+
+    private final TimetableProblem problem;
+    private final Options options;
+    private final int n;
+    private final Session[] sessions;
+
+    private final long[][] domains;
+    private final int[] domainSizes;
+    private final long[][] teacherBusy;
+    private final long[][] groupBusy;
+    // Occupation transposée des salles : par créneau, bitset des salles prises (indisponibilités comprises)
+    private final long[][] roomsBusyAt;
+    // Salles éligibles de chaque séance, en bitset (indices par capacité croissante, voir RoomCompatibilityMatrix)
+    private final long[][] eligibleRooms;
+    private final long[] freeRooms;
+    private final int[][] sessionsByTeacher;
+    private final int[][] sessionsByGroup;
+    private final int[] degree;
+    // Nombre d'échecs provoqués par chaque séance, conservé d'une passe à l'autre
+    private final int[] weights;
+    private final int[] tieBreak;
+    private final int[][] startOrder;
+    private final int[] hintStarts;
+    private final int[] hintRooms;
+    private final int[] start;
+    private final int[] room;
+    private final boolean[] abandoned;
+
+    // Pile des domaines modifiés (session + copie de l'ancien domaine) pour annuler la propagation
+    private int[] trailSessions = new int[1024];
+    private long[] trailWords = new long[1024 * SlotBits.WORDS];
+    private int trailSize;
+
+    private BooleanSupplier stopRequested = () -> false;
+    private long nodes;
+    private long backtracks;
+
+    public TimetableSolver(TimetableProblem problem, Options options) {
+        this.problem = problem;
+        this.options = options;
+        this.sessions = problem.sessions().toArray(Session[]::new);
+        this.n = sessions.length;
+        this.domains = new long[n][];
+        this.domainSizes = new int[n];
+        this.start = new int[n];
+        this.room = new int[n];
+        this.abandoned = new boolean[n];
+
+        teacherBusy = new long[problem.teacherIds().length][SlotBits.WORDS];
+        groupBusy = new long[problem.groupKeys().length][SlotBits.WORDS];
+        int roomWords = RoomCompatibilityMatrix.words(problem.roomIds().length);
+        roomsBusyAt = new long[SlotBits.SLOTS][roomWords];
+        eligibleRooms = new long[n][roomWords];
+        freeRooms = new long[roomWords];
+        for (Session session : sessions) {
+            for (int r : session.rooms()) {
+                eligibleRooms[session.index()][r >>> 6] |= 1L << r;
+            }
+        }
+        sessionsByTeacher = invert(teacherBusy.length, session -> session.teachers());
+        sessionsByGroup = invert(groupBusy.length, session -> session.groups());
+
+        TimetableProblem hinted = consistentHints(problem);
+        hintStarts = hinted.pinnedStarts();
+        hintRooms = hinted.pinnedRooms();
+
+        degree = new int[n];
+        weights = new int[n];
+        tieBreak = new int[n];
+        startOrder = new int[n][];
+        for (Session session : sessions) {
+            int i = session.index();
+            for (int t : session.teachers()) {
+                degree[i] += sessionsByTeacher[t].length - 1;
+            }
+            for (int g : session.groups()) {
+                degree[i] += sessionsByGroup[g].length - 1;
+            }
+        }
+    }
+
+    /**
+     * Recherches successives avec redémarrages : chaque passe est limitée en retours arrière (limite croissante),
+     * les séances ayant provoqué des échecs gagnent du poids et sont placées plus tôt à la passe suivante.
+     * La dernière passe (budget épuisé) se termine en glouton ; la meilleure affectation rencontrée est rendue.
+     */
+    public Solution solve() {
+        return solve(() -> false, solution -> {
+        });
+    }
+
+    /**
+     * Variante pilotée de l'extérieur (recherche en portefeuille) : stopRequested est consulté régulièrement,
+     * onImprovement reçoit chaque nouvelle meilleure affectation à la fin d'une passe.
+     */
+    public Solution solve(BooleanSupplier stopRequested, Consumer<Solution> onImprovement) {
+        this.stopRequested = stopRequested;
+        long begin = System.nanoTime();
+        long deadline = begin + options.timeBudgetMillis() * 1_000_000L;
+        Random random = new Random(options.seed());
+        int[] bestStarts = null;
+        int[] bestRooms = null;
+        int bestPlaced = -1;
+        long runLimit = FIRST_RUN_BACKTRACKS;
+
+        while (true) {
+            reset(random);
+            boolean last = backtracks + runLimit >= options.backtrackLimit();
+            runSearch(deadline, last ? options.backtrackLimit() - backtracks : runLimit);
+            int placed = placedCount();
+            if (placed > bestPlaced) {
+                bestPlaced = placed;
+                bestStarts = start.clone();
+                bestRooms = room.clone();
+                onImprovement.accept(new Solution(bestStarts, bestRooms, bestPlaced, bestPlaced == n, nodes, backtracks,
+                        (System.nanoTime() - begin) / 1_000_000L));
+            }
+            if (bestPlaced == n || last || shouldStop(deadline)) {
+                break;
+            }
+            runLimit = runLimit * 3 / 2;
+        }
+        return new Solution(bestStarts, bestRooms, bestPlaced, bestPlaced == n, nodes, backtracks,
+                (System.nanoTime() - begin) / 1_000_000L);
+    }
+
+    // Une passe de recherche arborescente, en glouton une fois runLimit retours arrière atteints
+    private void runSearch(long deadline, long runLimit) {
+        long runBacktracks = 0;
+        boolean greedy = false;
+
+        int[] frameSession = new int[n + 1];
+        int[] framePosition = new int[n + 1];
+        int[] frameTrail = new int[n + 1];
+        Arrays.fill(frameSession, -1);
+        int depth = 0;
+
+        while (true) {
+            if (!greedy && (nodes & 255) == 0 && shouldStop(deadline)) {
+                greedy = true;
+            }
+            if (frameSession[depth] < 0) {
+                int next = selectSession();
+                if (next < 0) {
+                    return; // Toutes les séances sont placées ou abandonnées
+                }
+                frameSession[depth] = next;
+                framePosition[depth] = 0;
+                frameTrail[depth] = trailSize;
+            }
+            int i = frameSession[depth];
+            nodes++;
+
+            int position = framePosition[depth];
+            int chosenRoom = -1;
+            int[] order = startOrder[i];
+            for (; position < order.length; position++) {
+                int s = order[position];
+                if (SlotBits.get(domains[i], s) && (chosenRoom = freeRoom(i, s)) >= 0) {
+                    break;
+                }
+            }
+
+            if (chosenRoom >= 0) {
+                framePosition[depth] = position + 1;
+                int wiped = assign(i, order[position], chosenRoom);
+                if (wiped >= 0 && !greedy) {
+                    weights[wiped]++;
+                    unassign(i, frameTrail[depth]);
+                    continue;
+                }
+                depth++;
+                frameSession[depth] = -1;
+                continue;
+            }
+
+            // Aucun départ possible pour la séance i
+            weights[i]++;
+            if (greedy || runBacktracks >= runLimit || depth == 0) {
+                greedy = greedy || depth > 0;
+                abandoned[i] = true;
+                frameSession[depth] = -1;
+                continue;
+            }
+            backtracks++;
+            runBacktracks++;
+            frameSession[depth] = -1;
+            depth--;
+            unassign(frameSession[depth], frameTrail[depth]);
+        }
+    }
+
+    private boolean shouldStop(long deadline) {
+        return System.nanoTime() > deadline || Thread.currentThread().isInterrupted() || stopRequested.getAsBoolean();
+    }
+
+    private void reset(Random random) {
+        for (Session session : sessions) {
+            int i = session.index();
+            domains[i] = session.starts().clone();
+            domainSizes[i] = SlotBits.cardinality(domains[i]);
+            startOrder[i] = startOrder(domains[i], random);
+            preferHint(startOrder[i], hintStarts[i]);
+            abandoned[i] = domainSizes[i] == 0 || session.rooms().length == 0; // Contraintes statiques insatisfiables
+            tieBreak[i] = random.nextInt();
+        }
+        for (long[] busy : teacherBusy) {
+            Arrays.fill(busy, 0L);
+        }
+        for (long[] busy : groupBusy) {
+            Arrays.fill(busy, 0L);
+        }
+        for (long[] busy : roomsBusyAt) {
+            Arrays.fill(busy, 0L);
+        }
+        for (int r = 0; r < problem.roomBlocked().length; r++) {
+            long[] blocked = problem.roomBlocked()[r];
+            for (int slot = SlotBits.nextSetBit(blocked, 0); slot >= 0; slot = SlotBits.nextSetBit(blocked, slot + 1)) {
+                roomsBusyAt[slot][r >>> 6] |= 1L << r;
+            }
+        }
+        Arrays.fill(start, -1);
+        Arrays.fill(room, -1);
+        trailSize = 0;
+        // Séances fixées (régénération incrémentale) : placées avant la recherche, jamais remises en cause
+        for (int i = 0; i < n; i++) {
+            if (problem.isPinned(i)) {
+                abandoned[i] = false;
+                assign(i, problem.pinnedStarts()[i], problem.pinnedRooms()[i]);
+            }
+        }
+    }
+
+    private int placedCount() {
+        int placed = 0;
+        for (int i = 0; i < n; i++) {
+            if (room[i] >= 0) {
+                placed++;
+            }
+        }
+        return placed;
+    }
+
+    // MRV pondéré : le moins de valeurs restantes (départs x salles compatibles) rapporté aux échecs passés,
+    // puis le plus de voisins, puis la priorité du cours ; les ex aequo sont départagés au hasard à chaque passe
+    private int selectSession() {
+        int best = -1;
+        long bestScore = Long.MAX_VALUE;
+        int bestTie = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            if (start[i] >= 0 || abandoned[i]) {
+                continue;
+            }
+            long score = ((long) domainSizes[i] * Math.min(sessions[i].rooms().length, 16) << 8) / (1 + weights[i]);
+            score = (score << 20) - Math.min(degree[i], (1 << 16) - 1);
+            score = (score << 2) + sessions[i].priority();
+            if (hintStarts[i] >= 0 && SlotBits.get(domains[i], hintStarts[i])) {
+                score -= HINT_PRIORITY;
+            }
+            if (score < bestScore || (score == bestScore && tieBreak[i] < bestTie)) {
+                bestScore = score;
+                bestTie = tieBreak[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Salles éligibles moins celles occupées sur [s, end) : le premier bit restant est la plus petite salle libre
+    private int freeRoom(int i, int s) {
+        int end = s + sessions[i].length();
+        System.arraycopy(eligibleRooms[i], 0, freeRooms, 0, freeRooms.length);
+        for (int slot = s; slot < end; slot++) {
+            long[] busy = roomsBusyAt[slot];
+            for (int w = 0; w < freeRooms.length; w++) {
+                freeRooms[w] &= ~busy[w];
+            }
+        }
+        int hinted = hintRooms[i];
+        if (hinted >= 0 && s == hintStarts[i] && (freeRooms[hinted >>> 6] & 1L << hinted) != 0) {
+            return hinted;
+        }
+        for (int w = 0; w < freeRooms.length; w++) {
+            if (freeRooms[w] != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(freeRooms[w]);
+            }
+        }
+        return -1;
+    }
+
+    private void markRoom(int r, int s, int end, boolean busy) {
+        long bit = 1L << r;
+        for (int slot = s; slot < end; slot++) {
+            if (busy) {
+                roomsBusyAt[slot][r >>> 6] |= bit;
+            } else {
+                roomsBusyAt[slot][r >>> 6] &= ~bit;
+            }
+        }
+    }
+
+    // Place la séance et propage ; rend une séance dont le domaine est devenu vide, ou -1
+    private int assign(int i, int s, int r) {
+        Session session = sessions[i];
+        int end = s + session.length();
+        start[i] = s;
+        room[i] = r;
+        markRoom(r, s, end, true);
+        int wiped = -1;
+        for (int t : session.teachers()) {
+            SlotBits.setRange(teacherBusy[t], s, end);
+            wiped = Math.max(wiped, propagate(sessionsByTeacher[t], s, end));
+        }
+        for (int g : session.groups()) {
+            SlotBits.setRange(groupBusy[g], s, end);
+            wiped = Math.max(wiped, propagate(sessionsByGroup[g], s, end));
+        }
+        return wiped;
+    }
+
+    private int propagate(int[] neighbours, int s, int end) {
+        int wiped = -1;
+        for (int j : neighbours) {
+            if (start[j] >= 0 || abandoned[j]) {
+                continue;
+            }
+            // Départs de j qui chevaucheraient [s, end)
+            int from = s - sessions[j].length() + 1;
+            if (SlotBits.anyInRange(domains[j], from, end)) {
+                pushTrail(j);
+                SlotBits.clearRange(domains[j], from, end);
+                domainSizes[j] = SlotBits.cardinality(domains[j]);
+                if (domainSizes[j] == 0) {
+                    wiped = j;
+                }
+            }
+        }
+        return wiped;
+    }
+
+    private void unassign(int i, int trailMark) {
+        Session session = sessions[i];
+        int s = start[i];
+        int end = s + session.length();
+        markRoom(room[i], s, end, false);
+        for (int t : session.teachers()) {
+            SlotBits.clearRange(teacherBusy[t], s, end);
+        }
+        for (int g : session.groups()) {
+            SlotBits.clearRange(groupBusy[g], s, end);
+        }
+        start[i] = -1;
+        room[i] = -1;
+        while (trailSize > trailMark) {
+            trailSize--;
+            int j = trailSessions[trailSize];
+            System.arraycopy(trailWords, trailSize * SlotBits.WORDS, domains[j], 0, SlotBits.WORDS);
+            domainSizes[j] = SlotBits.cardinality(domains[j]);
+        }
+    }
+
+    private void pushTrail(int j) {
+        if (trailSize == trailSessions.length) {
+            trailSessions = Arrays.copyOf(trailSessions, trailSize * 2);
+            trailWords = Arrays.copyOf(trailWords, trailSize * 2 * SlotBits.WORDS);
+        }
+        trailSessions[trailSize] = j;
+        System.arraycopy(domains[j], 0, trailWords, trailSize * SlotBits.WORDS, SlotBits.WORDS);
+        trailSize++;
+    }
+
+    /**
+     * Suggestions compatibles entre elles, dans les pinnedStarts/pinnedRooms du problème rendu (les séances fixées
+     * passent d'abord et ne sont pas des suggestions) : deux suggestions en conflit n'en écartent qu'une,
+     * au lieu de déplacer en cascade les séances voisines pendant la recherche.
+     */
+    private static TimetableProblem consistentHints(TimetableProblem problem) {
+        int n = problem.sessions().size();
+        int[] starts = new int[n];
+        int[] rooms = new int[n];
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            starts[i] = problem.isPinned(i) ? problem.pinnedStarts()[i] : problem.hintStarts()[i];
+            rooms[i] = problem.isPinned(i) ? problem.pinnedRooms()[i] : problem.hintRooms()[i];
+            if (problem.isPinned(i)) {
+                order.add(i);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (!problem.isPinned(i) && starts[i] >= 0 && SlotBits.get(problem.sessions().get(i).starts(), starts[i])) {
+                order.add(i);
+            }
+        }
+        TimetableProblem kept = TimetablePinning.pin(problem, starts, rooms, order.stream().mapToInt(Integer::intValue).toArray());
+        for (int i = 0; i < n; i++) {
+            if (problem.isPinned(i)) {
+                kept.pinnedStarts()[i] = -1;
+                kept.pinnedRooms()[i] = -1;
+            }
+        }
+        return kept;
+    }
+
+    // Départ suggéré échangé avec le premier de l'ordre d'essai, s'il appartient au domaine
+    private static void preferHint(int[] order, int hint) {
+        for (int k = 0; hint >= 0 && k < order.length; k++) {
+            if (order[k] == hint) {
+                order[k] = order[0];
+                order[0] = hint;
+                return;
+            }
+        }
+    }
+
+    // Ordre d'essai des départs : rotation propre à chaque séance pour répartir la charge sur la semaine
+    private static int[] startOrder(long[] domain, Random random) {
+        int count = SlotBits.cardinality(domain);
+        int[] values = new int[count];
+        int k = 0;
+        for (int s = SlotBits.nextSetBit(domain, 0); s >= 0; s = SlotBits.nextSetBit(domain, s + 1)) {
+            values[k++] = s;
+        }
+        if (count == 0) {
+            return values;
+        }
+        int offset = random.nextInt(count);
+        int[] rotated = new int[count];
+        for (int j = 0; j < count; j++) {
+            rotated[j] = values[(j + offset) % count];
+        }
+        return rotated;
+    }
+
+    private int[][] invert(int resourceCount, Function<Session, int[]> resourcesOf) {
+        List<List<Integer>> lists = new ArrayList<>(resourceCount);
+        for (int k = 0; k < resourceCount; k++) {
+            lists.add(new ArrayList<>());
+        }
+        for (Session session : sessions) {
+            for (int resource : resourcesOf.apply(session)) {
+                lists.get(resource).add(session.index());
+            }
+        }
+        int[][] result = new int[resourceCount][];
+        for (int k = 0; k < resourceCount; k++) {
+            result[k] = lists.get(k).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+    }
+}
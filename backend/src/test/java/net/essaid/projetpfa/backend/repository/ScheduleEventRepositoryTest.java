@@ -0,0 +1,187 @@
+package net.essaid.projetpfa.backend.repository;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.entities.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Requêtes de chevauchement sur une base H2 en mode MySQL : résultat, nombre de requêtes et latence
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:overlaps;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ScheduleEventRepositoryTest {
+
+    private static final int EVENTS_PER_ROOM = 1000;
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 9, 2, 8, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ScheduleEventRepository scheduleEventRepository;
+
+    private Room roomA;
+    private Room roomB;
+    private User teacher;
+    private User associate;
+    private User student;
+    private ScheduleEvent reference;
+
+    @BeforeEach
+    void setUp() {
+        roomA = room("A101");
+        roomB = room("B202");
+        teacher = user("Teacher", User.Role.TEACHER);
+        associate = user("Associate", User.Role.TEACHER);
+        student = user("Student", User.Role.STUDENT);
+        Course course = new Course();
+        course.setName("Algorithmique");
+        course.setCode("ALG-1");
+        course.setResponsibleTeacher(teacher);
+        course.setAssociatedTeachers(new HashSet<>(Set.of(associate)));
+        entityManager.persist(course);
+        Course otherCourse = new Course();
+        otherCourse.setName("Réseaux");
+        otherCourse.setCode("NET-1");
+        entityManager.persist(otherCourse);
+
+        // Créneaux de 2h consécutifs, sans chevauchement, dans deux salles
+        for (int i = 0; i < EVENTS_PER_ROOM; i++) {
+            LocalDateTime start = MONDAY.plusHours(2L * i);
+            event(otherCourse, roomA, start, start.plusHours(2), Set.of());
+            event(otherCourse, roomB, start, start.plusHours(2), Set.of());
+        }
+        reference = event(course, roomA, MONDAY.plusHours(10), MONDAY.plusHours(12), Set.of(student));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void overlapQueriesReturnOnlyOverlappingEvents() {
+        LocalDateTime start = MONDAY.plusHours(11);
+        LocalDateTime end = MONDAY.plusHours(13);
+
+        // Salle A : deux créneaux +10h/+12h (dont la référence) et un créneau +12h/+14h
+        assertEquals(3, scheduleEventRepository.findRoomOverlapIds(roomA.getId(), start, end, "").size());
+        assertEquals(2, scheduleEventRepository.findRoomOverlapIds(roomA.getId(), start, end, reference.getId()).size());
+        // Bornes semi-ouvertes : [+8h, +10h) ne chevauche pas la référence [+10h, +12h)
+        assertEquals(List.of(), scheduleEventRepository.findTeacherOverlapIds(Set.of(teacher.getId()), MONDAY.plusHours(8), MONDAY.plusHours(10), ""));
+        assertEquals(List.of(reference.getId()), scheduleEventRepository.findTeacherOverlapIds(Set.of(teacher.getId()), start, end, ""));
+        // Enseignant associé du cours : même événement, trouvé par la table de jointure
+        assertEquals(List.of(reference.getId()), scheduleEventRepository.findTeacherOverlapIds(Set.of(associate.getId()), start, end, ""));
+        assertEquals(1, scheduleEventRepository.findAssociatedTeacherOverlaps(Set.of(associate.getId()), start, end, "").size());
+        assertEquals(List.of(reference.getId()), scheduleEventRepository.findStudentOverlapIds(Set.of(student.getId()), start, end, ""));
+        assertTrue(scheduleEventRepository.findStudentOverlapIds(Set.of(student.getId()), start, end, reference.getId()).isEmpty());
+    }
+
+    @Test
+    void eachOverlapCheckIsASingleBoundedQuery() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        int checks = 300;
+
+        assertTimeout(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < checks / 3; i++) {
+                LocalDateTime start = MONDAY.plusHours(2L * i).plusMinutes(30);
+                scheduleEventRepository.findRoomOverlapIds(roomB.getId(), start, start.plusHours(1), "");
+                scheduleEventRepository.findTeacherOverlapIds(Set.of(teacher.getId()), start, start.plusHours(1), "");
+                scheduleEventRepository.findStudentOverlapIds(Set.of(student.getId()), start, start.plusHours(1), "");
+            }
+        });
+
+        // Une requête par vérification, aucune entité chargée
+        assertEquals(checks, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void scopeIsDeletedWithTwoStatementsIncludingStudentLinks() {
+        ScheduleEvent scoped = entityManager.find(ScheduleEvent.class, reference.getId());
+        scoped.setAcademicYear("2024-2025");
+        scoped.setSemester("S1");
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertEquals(1, scheduleEventRepository.deleteStudentLinksByScope("2024-2025", "S1"));
+        assertEquals(1, scheduleEventRepository.deleteByScope("2024-2025", "S1"));
+
+        // Ni chargement d'entités ni suppression ligne à ligne
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2L * EVENTS_PER_ROOM, scheduleEventRepository.count());
+        assertTrue(scheduleEventRepository.findStudentOverlapIds(Set.of(student.getId()), MONDAY, MONDAY.plusDays(1), "").isEmpty());
+    }
+
+    @Test
+    void enrolmentsOfMovedEventsAreCountedWithoutLoadingStudents() {
+        String emptyEvent = scheduleEventRepository.findRoomOverlapIds(roomB.getId(), MONDAY, MONDAY.plusHours(1), "").get(0);
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ScheduleEventRepository.EventEnrolment> enrolments =
+                scheduleEventRepository.findEnrolmentsByIds(List.of(reference.getId(), emptyEvent));
+
+        assertEquals(2, enrolments.size());
+        for (ScheduleEventRepository.EventEnrolment enrolment : enrolments) {
+            assertEquals(enrolment.getId().equals(reference.getId()) ? 1L : 0L, enrolment.getStudentCount().longValue());
+        }
+        // Une seule requête groupée, aucune collection d'étudiants chargée
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    private Room room(String name) {
+        Room room = new Room();
+        room.setName(name);
+        room.setCapacity(40);
+        return entityManager.persist(room);
+    }
+
+    private User user(String name, User.Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+
+    private ScheduleEvent event(Course course, Room room, LocalDateTime start, LocalDateTime end, Set<User> students) {
+        ScheduleEvent event = new ScheduleEvent();
+        event.setCourse(course);
+        event.setRoom(room);
+        event.setStartTime(start);
+        event.setEndTime(end);
+        event.setSessionType(ScheduleEvent.SessionType.CM);
+        event.setStudents(new HashSet<>(students));
+        return entityManager.persist(event);
+    }
+}
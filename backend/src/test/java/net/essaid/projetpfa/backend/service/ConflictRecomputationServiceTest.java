@@ -0,0 +1,77 @@
+package net.essaid.projetpfa.backend.service;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.repository.CourseRepository;
+import net.essaid.projetpfa.backend.repository.RoomRepository;
+import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Recalcul planifié lancé comme par le planificateur (via le bean Spring, hors transaction) sur une base H2
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recomputation;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "pfa.app.conflictRecomputeCron=-"
+})
+class ConflictRecomputationServiceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 9, 2, 8, 0);
+
+    @Autowired
+    private ConflictRecomputationService conflictRecomputationService;
+
+    @Autowired
+    private ScheduleEventRepository scheduleEventRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Test
+    void scheduledRecomputationUpdatesFlagsInItsOwnTransaction() {
+        Course course = new Course();
+        course.setName("Réseaux");
+        course.setCode("RES-RECOMPUTE");
+        course = courseRepository.save(course);
+        Room room = new Room();
+        room.setName("B202-RECOMPUTE");
+        room.setCapacity(40);
+        room = roomRepository.save(room);
+
+        // Enregistrés sans détection : chevauchement dans la même salle, drapeau resté à faux ; un troisième isolé mais marqué
+        ScheduleEvent first = scheduleEventRepository.save(event(course, room, MONDAY, MONDAY.plusHours(2), false));
+        ScheduleEvent second = scheduleEventRepository.save(event(course, room, MONDAY.plusHours(1), MONDAY.plusHours(3), false));
+        scheduleEventRepository.save(event(course, room, MONDAY.plusHours(4), MONDAY.plusHours(6), true));
+
+        // Point d'entrée du planificateur : les mises à jour @Modifying exigent une transaction
+        conflictRecomputationService.scheduledRecomputation();
+
+        assertEquals(Set.of(first.getId(), second.getId()), Set.copyOf(scheduleEventRepository.findIdsWithConflict()));
+    }
+
+    private static ScheduleEvent event(Course course, Room room, LocalDateTime start, LocalDateTime end, boolean hasConflict) {
+        ScheduleEvent event = new ScheduleEvent();
+        event.setCourse(course);
+        event.setRoom(room);
+        event.setStartTime(start);
+        event.setEndTime(end);
+        event.setSessionType(ScheduleEvent.SessionType.CM);
+        event.setHasConflict(hasConflict);
+        return event;
+    }
+}
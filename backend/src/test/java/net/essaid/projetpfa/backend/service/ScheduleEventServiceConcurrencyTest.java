@@ -0,0 +1,121 @@
+package net.essaid.projetpfa.backend.service;
+
+import net.essaid.projetpfa.backend.BackendApplication;
+import net.essaid.projetpfa.backend.dto.ScheduleEventRequestDTO;
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.repository.CourseRepository;
+import net.essaid.projetpfa.backend.repository.RoomRepository;
+import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Deux noeuds (deux contextes Spring, chacun ses verrous en mémoire) réservent la même salle en parallèle sur une
+// même base H2 : le verrou en base (resource_locks) sérialise les réservations et aucun conflit n'est perdu
+class ScheduleEventServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int BOOKINGS_PER_THREAD = 3;
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 9, 2, 8, 0);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("create-drop");
+        nodeB = startNode("none"); // Schéma déjà créé par le premier noeud
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    // Arguments de ligne de commande : ils priment sur application.properties (MySQL)
+    private static ConfigurableApplicationContext startNode(String ddlAuto) {
+        return SpringApplication.run(BackendApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:reservations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.mail.properties.mail.debug=false",
+                "--server.port=0",
+                "--pfa.app.conflictLookup=database",
+                "--pfa.app.reservationDatabaseGuard=true",
+                "--pfa.app.conflictRecomputeCron=-");
+    }
+
+    @Test
+    void overlappingBookingsFromTwoNodesAreAllFlagged() throws Exception {
+        Course course = new Course();
+        course.setName("Algorithmique");
+        course.setCode("ALG-CONCURRENT");
+        String courseId = nodeA.getBean(CourseRepository.class).save(course).getId();
+        Room room = new Room();
+        room.setName("A101-CONCURRENT");
+        room.setCapacity(40);
+        String roomId = nodeA.getBean(RoomRepository.class).save(room).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            ScheduleEventService service = (t % 2 == 0 ? nodeA : nodeB).getBean(ScheduleEventService.class);
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    // Créneaux de 2h décalés de 5 minutes : tous se chevauchent deux à deux
+                    LocalDateTime begin = MONDAY.plusMinutes(5L * (thread * BOOKINGS_PER_THREAD + i));
+                    service.createScheduleEvent(request(courseId, roomId, begin, begin.plusHours(2)));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Réservations sérialisées : chacune voit les précédentes, toutes finissent en conflit ;
+        // une réservation qui aurait manqué une réservation validée par l'autre noeud resterait sans conflit
+        ScheduleEventRepository scheduleEventRepository = nodeA.getBean(ScheduleEventRepository.class);
+        Set<String> booked = new HashSet<>();
+        scheduleEventRepository.findAll().forEach(event -> booked.add(event.getId()));
+        assertEquals(THREADS * BOOKINGS_PER_THREAD, booked.size());
+        assertEquals(booked, new HashSet<>(scheduleEventRepository.findIdsWithConflict()));
+    }
+
+    private static ScheduleEventRequestDTO request(String courseId, String roomId, LocalDateTime start, LocalDateTime end) {
+        ScheduleEventRequestDTO request = new ScheduleEventRequestDTO();
+        request.setCourseId(courseId);
+        request.setRoomId(roomId);
+        request.setStartTime(start);
+        request.setEndTime(end);
+        request.setSessionType(ScheduleEvent.SessionType.CM);
+        return request;
+    }
+}
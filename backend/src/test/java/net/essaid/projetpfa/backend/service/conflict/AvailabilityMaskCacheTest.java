@@ -0,0 +1,95 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Cache des masques : réutilisation tant que le texte source est inchangé, recompilation sinon, éviction après la transaction
+class AvailabilityMaskCacheTest {
+
+    private static final int DAY = 24 * 60;
+
+    // Sans dépôts : les entités sont fournies directement, les variantes par id ne lisent que le cache
+    private final AvailabilityMaskCache cache = new AvailabilityMaskCache();
+
+    @Test
+    void teacherMasksAreReusedWhileTheSourceIsUnchanged() {
+        User teacher = teacher("Lundi, Mardi", "LundiMatin");
+
+        AvailabilityMaskCache.TeacherMasks masks = cache.teacherMasks(teacher);
+
+        assertEquals(WeeklyMask.ofDay(0, TimeSlotParser.AFTERNOON_START, DAY).or(WeeklyMask.ofDay(0, 0, TimeSlotParser.MORNING_START))
+                .or(WeeklyMask.ofDay(1, 0, DAY)), masks.allowed());
+        assertEquals(WeeklyMask.EMPTY, masks.preferred());
+        assertSame(masks, cache.teacherMasks(teacher));
+        assertSame(masks, cache.teacherMasks(teacher.getId()));
+    }
+
+    @Test
+    void changedFieldsAreRecompiled() {
+        User teacher = teacher("Lundi", null);
+        AvailabilityMaskCache.TeacherMasks before = cache.teacherMasks(teacher);
+
+        teacher.setAvailableDays("Mercredi");
+        AvailabilityMaskCache.TeacherMasks after = cache.teacherMasks(teacher);
+
+        assertNotSame(before, after);
+        assertEquals(WeeklyMask.ofDay(2, 0, DAY), after.allowed());
+        assertSame(after, cache.teacherMasks(teacher.getId()));
+
+        teacher.setPreferredTimeSlots("Matin");
+        assertEquals(TimeSlotParser.parse("Matin"), cache.teacherMasks(teacher).preferred());
+    }
+
+    @Test
+    void courseMaskIsAllowedMinusForbidden() {
+        Course course = new Course();
+        course.setId("course");
+        course.setAllowedTimeSlots("Lundi");
+        course.setForbiddenTimeSlots("LundiMatin");
+
+        WeeklyMask mask = cache.courseMask(course);
+        assertEquals(WeeklyMask.ofDay(0, 0, TimeSlotParser.MORNING_START).or(WeeklyMask.ofDay(0, TimeSlotParser.AFTERNOON_START, DAY)), mask);
+        assertSame(mask, cache.courseMask("course"));
+
+        course.setForbiddenTimeSlots(null);
+        assertEquals(WeeklyMask.ofDay(0, 0, DAY), cache.courseMask(course));
+        assertEquals(WeeklyMask.FULL, cache.courseMask((Course) null));
+        assertEquals(WeeklyMask.FULL, cache.teacherMasks((User) null).allowed());
+    }
+
+    @Test
+    void evictionIsRepeatedAfterTheTransaction() {
+        User teacher = teacher("Lundi", null);
+        cache.teacherMasks(teacher);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictTeacher(teacher.getId());
+            // Lecture concurrente avant la validation : l'entrée est remise en cache
+            AvailabilityMaskCache.TeacherMasks reloaded = cache.teacherMasks(teacher);
+            assertSame(reloaded, cache.teacherMasks(teacher));
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            assertNotSame(reloaded, cache.teacherMasks(teacher));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static User teacher(String availableDays, String unavailableTimeSlots) {
+        User teacher = new User();
+        teacher.setId("teacher");
+        teacher.setRole(User.Role.TEACHER);
+        teacher.setAvailableDays(availableDays);
+        teacher.setUnavailableTimeSlots(unavailableTimeSlots);
+        return teacher;
+    }
+}
@@ -0,0 +1,136 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.entities.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Index en mémoire chargé depuis une base H2 : chevauchements par salle, enseignant et étudiant, et invalidation
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conflictindex;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ConflictIndex.class)
+class ConflictIndexTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 9, 2, 8, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ConflictIndex conflictIndex;
+
+    @Test
+    void findsOverlapsPerResourceWithHalfOpenBounds() {
+        User teacher = user("Responsable", User.Role.TEACHER);
+        User associate = user("Associé", User.Role.TEACHER);
+        User student = user("Étudiant", User.Role.STUDENT);
+        Course course = course("IDX-1", teacher, Set.of());
+        Course otherCourse = course("IDX-2", null, Set.of(associate));
+        Room room = room("IDX-A");
+        Room otherRoom = room("IDX-B");
+        ScheduleEvent reference = event(course, room, MONDAY, MONDAY.plusHours(2), Set.of(student));
+        ScheduleEvent sameRoom = event(otherCourse, room, MONDAY.plusHours(1), MONDAY.plusHours(3), Set.of());
+        ScheduleEvent adjacent = event(otherCourse, otherRoom, MONDAY.plusHours(2), MONDAY.plusHours(4), Set.of(student));
+        entityManager.flush();
+
+        // Bornes semi-ouvertes : [+2h, +4h) touche la référence [0, +2h) sans la chevaucher
+        assertTrue(conflictIndex.hasRoomOverlap(room.getId(), MONDAY.plusMinutes(90), MONDAY.plusHours(2), reference.getId()));
+        assertFalse(conflictIndex.hasRoomOverlap(room.getId(), MONDAY.plusHours(3), MONDAY.plusHours(4), null));
+        assertFalse(conflictIndex.hasStudentOverlap(Set.of(student.getId()), MONDAY.plusHours(2), MONDAY.plusHours(4), adjacent.getId()));
+        assertTrue(conflictIndex.hasStudentOverlap(Set.of(student.getId()), MONDAY.plusHours(1), MONDAY.plusHours(3), adjacent.getId()));
+        // Enseignant associé : inscrit dans la grille comme le responsable
+        assertTrue(conflictIndex.hasTeacherOverlap(Set.of(associate.getId()), MONDAY, MONDAY.plusMinutes(75), null));
+        assertFalse(conflictIndex.hasTeacherOverlap(Set.of(teacher.getId()), MONDAY.plusHours(2), MONDAY.plusHours(3), null));
+
+        List<ConflictLookup.Overlap> overlaps = conflictIndex.findOverlaps(reference.getId());
+        assertEquals(1, overlaps.size());
+        assertEquals(ConflictLookup.OverlapKind.ROOM, overlaps.get(0).kind());
+        assertEquals(sameRoom.getId(), overlaps.get(0).eventId());
+        assertEquals(MONDAY.plusHours(1), overlaps.get(0).start());
+        assertEquals(MONDAY.plusHours(2), overlaps.get(0).end());
+        assertTrue(conflictIndex.isConflicting(sameRoom.getId()));
+        // sameRoom et adjacent partagent l'enseignant associé sur [+2h, +3h)
+        assertEquals(Set.of(reference.getId(), adjacent.getId()), conflictIndex.findNeighbours(sameRoom.getId()));
+
+        // Retrait : la référence n'a plus de voisin
+        conflictIndex.remove(sameRoom.getId());
+        assertFalse(conflictIndex.isConflicting(reference.getId()));
+    }
+
+    @Test
+    void invalidationIsRepeatedAfterCommit() {
+        Course course = course("IDX-3", null, Set.of());
+        Room room = room("IDX-C");
+        event(course, room, MONDAY, MONDAY.plusHours(1), Set.of());
+        entityManager.flush();
+
+        // Invalidation puis rechargement pendant la transaction, comme une lecture concurrente avant la validation
+        conflictIndex.invalidate();
+        assertFalse(conflictIndex.hasRoomOverlap(room.getId(), MONDAY.plusHours(2), MONDAY.plusHours(3), null));
+        // Écriture en masse non indexée (comme l'enregistrement d'une génération), validée ensuite
+        event(course, room, MONDAY.plusHours(2), MONDAY.plusHours(3), Set.of());
+        entityManager.flush();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        // Après la validation, l'index est rechargé et voit la nouvelle ligne
+        assertTrue(conflictIndex.hasRoomOverlap(room.getId(), MONDAY.plusHours(2), MONDAY.plusHours(3), null));
+    }
+
+    private User user(String name, User.Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+
+    private Course course(String code, User teacher, Set<User> associates) {
+        Course course = new Course();
+        course.setName(code);
+        course.setCode(code);
+        course.setResponsibleTeacher(teacher);
+        course.setAssociatedTeachers(new HashSet<>(associates));
+        return entityManager.persist(course);
+    }
+
+    private Room room(String name) {
+        Room room = new Room();
+        room.setName(name);
+        room.setCapacity(40);
+        return entityManager.persist(room);
+    }
+
+    private ScheduleEvent event(Course course, Room room, LocalDateTime start, LocalDateTime end, Set<User> students) {
+        ScheduleEvent event = new ScheduleEvent();
+        event.setCourse(course);
+        event.setRoom(room);
+        event.setStartTime(start);
+        event.setEndTime(end);
+        event.setSessionType(ScheduleEvent.SessionType.CM);
+        event.setStudents(new HashSet<>(students));
+        return entityManager.persist(event);
+    }
+}
@@ -0,0 +1,89 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Recalcul par balayage : bornes semi-ouvertes, ressources partagées et comparaison avec la vérification paire à paire
+class ConflictSweepTest {
+
+    private static final long HOUR = 3600;
+    private static final long MONDAY = ConflictIndex.toEpochSeconds(LocalDateTime.of(2024, 9, 2, 8, 0));
+
+    @Test
+    void adjacentEventsInTheSameRoomDoNotConflict() {
+        Set<String> conflicting = ConflictSweep.findConflictingEvents(List.of(
+                event("a", "r1", Set.of("t1"), Set.of(), MONDAY, MONDAY + HOUR),
+                event("b", "r1", Set.of("t1"), Set.of(), MONDAY + HOUR, MONDAY + 2 * HOUR),
+                event("c", "r1", Set.of("t1"), Set.of(), MONDAY + 2 * HOUR, MONDAY + 3 * HOUR)));
+
+        assertEquals(Set.of(), conflicting);
+    }
+
+    @Test
+    void identicalAndNestedEventsConflict() {
+        Set<String> conflicting = ConflictSweep.findConflictingEvents(List.of(
+                event("a", "r1", Set.of(), Set.of(), MONDAY, MONDAY + HOUR),
+                event("b", "r1", Set.of(), Set.of(), MONDAY, MONDAY + HOUR),
+                // Long événement qui englobe un court, suivi d'un événement qui ne chevauche que le long
+                event("long", "r2", Set.of(), Set.of(), MONDAY, MONDAY + 4 * HOUR),
+                event("short", "r2", Set.of(), Set.of(), MONDAY + HOUR, MONDAY + 2 * HOUR),
+                event("after", "r2", Set.of(), Set.of(), MONDAY + 3 * HOUR, MONDAY + 5 * HOUR),
+                event("free", "r2", Set.of(), Set.of(), MONDAY + 5 * HOUR, MONDAY + 6 * HOUR)));
+
+        assertEquals(Set.of("a", "b", "long", "short", "after"), conflicting);
+    }
+
+    @Test
+    void sharedTeachersAndStudentsConflictAcrossRooms() {
+        Set<String> conflicting = ConflictSweep.findConflictingEvents(List.of(
+                // L'enseignant associé t2 est partagé par deux cours dans deux salles
+                event("a", "r1", Set.of("t1", "t2"), Set.of(), MONDAY, MONDAY + 2 * HOUR),
+                event("b", "r2", Set.of("t2"), Set.of(), MONDAY + HOUR, MONDAY + 3 * HOUR),
+                event("c", "r3", Set.of("t3"), Set.of("s1"), MONDAY, MONDAY + HOUR),
+                event("d", "r4", Set.of("t4"), Set.of("s1"), MONDAY + 30 * 60, MONDAY + 90 * 60),
+                event("e", "r5", Set.of("t1"), Set.of("s1"), MONDAY + 2 * HOUR, MONDAY + 3 * HOUR)));
+
+        assertEquals(Set.of("a", "b", "c", "d"), conflicting);
+    }
+
+    @Test
+    void matchesPairwiseComparison() {
+        Random random = new Random(7);
+        List<ConflictIndex.IndexedEvent> events = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            long start = MONDAY + 15 * 60L * random.nextInt(5 * 40);
+            int student = random.nextInt(60);
+            events.add(event("e" + i, "r" + random.nextInt(20), Set.of("t" + random.nextInt(30)),
+                    Set.of("s" + student, "s" + (student + 1)), start, start + 15 * 60L * (1 + random.nextInt(12))));
+        }
+
+        Set<String> expected = new HashSet<>();
+        for (ConflictIndex.IndexedEvent a : events) {
+            for (ConflictIndex.IndexedEvent b : events) {
+                if (a != b && a.start() < b.end() && b.start() < a.end() && sharesResource(a, b)) {
+                    expected.add(a.id());
+                }
+            }
+        }
+        assertEquals(expected, ConflictSweep.findConflictingEvents(events));
+    }
+
+    private static boolean sharesResource(ConflictIndex.IndexedEvent a, ConflictIndex.IndexedEvent b) {
+        return a.roomId().equals(b.roomId())
+                || a.teacherIds().stream().anyMatch(b.teacherIds()::contains)
+                || a.studentIds().stream().anyMatch(b.studentIds()::contains);
+    }
+
+    private static ConflictIndex.IndexedEvent event(String id, String roomId, Set<String> teacherIds, Set<String> studentIds,
+                                                    long start, long end) {
+        return new ConflictIndex.IndexedEvent(id, roomId, "course-" + id, null, teacherIds, studentIds, start, end);
+    }
+}
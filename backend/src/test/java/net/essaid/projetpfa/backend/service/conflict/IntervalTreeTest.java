@@ -0,0 +1,100 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Arbre d'intervalles : bornes semi-ouvertes, intervalles identiques, et résultats exacts après rééquilibrages
+class IntervalTreeTest {
+
+    @Test
+    void adjacentIntervalsDoNotOverlap() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, "a", "a");
+        tree.insert(20, 30, "b", "b");
+
+        assertEquals(List.of("b"), keys(tree.findOverlapping(20, 30)));
+        assertEquals(List.of("a"), keys(tree.findOverlapping(0, 11)));
+        assertEquals(List.of(), keys(tree.findOverlapping(30, 40)));
+        assertEquals(List.of("a", "b"), keys(tree.findOverlapping(19, 21)));
+        assertFalse(tree.anyOverlapping(20, 30, "b"));
+        assertFalse(tree.anyOverlapping(0, 10, null));
+    }
+
+    @Test
+    void identicalIntervalsAreDistinctEntries() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, "a", "first");
+        tree.insert(10, 20, "b", "second");
+        assertEquals(2, tree.size());
+        assertEquals(List.of("a", "b"), keys(tree.findOverlapping(10, 20)));
+        assertTrue(tree.anyOverlapping(10, 20, "a"));
+
+        // Même (début, clé) : mise à jour de l'entrée existante
+        tree.insert(10, 25, "a", "updated");
+        assertEquals(2, tree.size());
+        assertEquals(List.of("a"), keys(tree.findOverlapping(22, 30)));
+        assertEquals("updated", tree.findOverlapping(22, 30).get(0).value());
+
+        assertTrue(tree.remove(10, "a"));
+        assertFalse(tree.remove(10, "a"));
+        assertFalse(tree.anyOverlapping(10, 20, "b"));
+        assertEquals(List.of("b"), keys(tree.entries()));
+    }
+
+    @Test
+    void longIntervalIsFoundFromAnyPointItCovers() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(0, 1000, "long", "long");
+        for (int i = 1; i <= 50; i++) {
+            tree.insert(i * 10L, i * 10L + 5, "short-" + i, "short");
+        }
+        // L'intervalle long est à gauche des courts : trouvé grâce à la plus grande fin du sous-arbre
+        assertEquals(List.of("long"), keys(tree.findOverlapping(996, 999)));
+        assertTrue(tree.anyOverlapping(996, 999, null));
+        assertFalse(tree.anyOverlapping(996, 999, "long"));
+    }
+
+    @Test
+    void resultsStayExactAfterManyInsertsAndDeletes() {
+        Random random = new Random(7);
+        IntervalTree<String> tree = new IntervalTree<>();
+        List<IntervalTree.Entry<String>> expected = new ArrayList<>();
+        // Débuts croissants : sans rééquilibrage, l'arbre dégénérerait en liste
+        for (int i = 0; i < 20_000; i++) {
+            long start = i * 10L;
+            long end = start + 1 + random.nextInt(40);
+            tree.insert(start, end, "e" + i, "e" + i);
+            expected.add(new IntervalTree.Entry<>(start, end, "e" + i, "e" + i));
+        }
+        Collections.shuffle(expected, random);
+        List<IntervalTree.Entry<String>> removed = new ArrayList<>(expected.subList(0, 15_000));
+        List<IntervalTree.Entry<String>> remaining = new ArrayList<>(expected.subList(15_000, expected.size()));
+        for (IntervalTree.Entry<String> entry : removed) {
+            assertTrue(tree.remove(entry.start(), entry.key()));
+        }
+        assertEquals(remaining.size(), tree.size());
+
+        remaining.sort(Comparator.comparingLong(IntervalTree.Entry<String>::start).thenComparing(IntervalTree.Entry::key));
+        assertEquals(keys(remaining), keys(tree.entries()));
+        for (int q = 0; q < 2_000; q++) {
+            long start = random.nextInt(200_000);
+            long end = start + random.nextInt(60);
+            List<String> brute = keys(remaining.stream().filter(entry -> entry.overlaps(start, end)).toList());
+            assertEquals(brute, keys(tree.findOverlapping(start, end)));
+            assertEquals(!brute.isEmpty(), tree.anyOverlapping(start, end, null));
+        }
+    }
+
+    private static List<String> keys(List<IntervalTree.Entry<String>> entries) {
+        return entries.stream().map(IntervalTree.Entry::key).toList();
+    }
+}
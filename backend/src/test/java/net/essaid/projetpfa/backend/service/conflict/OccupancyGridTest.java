@@ -0,0 +1,130 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Grille d'occupation : bornes des créneaux, horaires non alignés, événements à cheval sur deux jours ou deux semaines
+class OccupancyGridTest {
+
+    private static final long HOUR = 3600;
+    private static final long WEEK = OccupancyGrid.SLOTS_PER_WEEK * OccupancyGrid.SLOT_SECONDS;
+    private static final long MONDAY = ConflictIndex.toEpochSeconds(LocalDateTime.of(2024, 9, 2, 8, 0));
+
+    private final OccupancyGrid grid = new OccupancyGrid();
+
+    @Test
+    void adjacentEventsDoNotOverlap() {
+        grid.add("teacher", event("a", MONDAY, MONDAY + 2 * HOUR));
+
+        assertFalse(grid.overlaps("teacher", MONDAY + 2 * HOUR, MONDAY + 3 * HOUR, null));
+        assertFalse(grid.overlaps("teacher", MONDAY - HOUR, MONDAY, null));
+        assertTrue(grid.overlaps("teacher", MONDAY + 2 * HOUR - 60, MONDAY + 3 * HOUR, null));
+        assertFalse(grid.overlaps("other", MONDAY, MONDAY + HOUR, null));
+    }
+
+    @Test
+    void unalignedEventsSharingASlotAreComparedExactly() {
+        // 8h00-8h10 et 8h10-8h20 marquent le même créneau de 15 minutes sans se chevaucher
+        grid.add("teacher", event("a", MONDAY, MONDAY + 600));
+
+        assertFalse(grid.overlaps("teacher", MONDAY + 600, MONDAY + 1200, null));
+        assertTrue(grid.overlaps("teacher", MONDAY + 300, MONDAY + 1200, null));
+    }
+
+    @Test
+    void identicalEventsAreBothReported() {
+        grid.add("student", event("a", MONDAY, MONDAY + HOUR));
+        grid.add("student", event("b", MONDAY, MONDAY + HOUR));
+
+        assertTrue(grid.overlaps("student", MONDAY, MONDAY + HOUR, "a"));
+        assertEquals(List.of("b"), ids(grid.findOverlaps("student", MONDAY, MONDAY + HOUR, "a")));
+        assertEquals(List.of("a", "b"), ids(grid.findOverlaps("student", MONDAY, MONDAY + HOUR, null)));
+    }
+
+    @Test
+    void eventCrossingMidnightCoversBothDays() {
+        long tuesday23h = MONDAY + 24 * HOUR + 15 * HOUR;
+        grid.add("teacher", event("late", tuesday23h, tuesday23h + 2 * HOUR));
+
+        assertTrue(grid.overlaps("teacher", tuesday23h + 90 * 60, tuesday23h + 105 * 60, null));
+        assertTrue(grid.overlaps("teacher", tuesday23h - HOUR, tuesday23h + 60, null));
+        assertFalse(grid.overlaps("teacher", tuesday23h + 2 * HOUR, tuesday23h + 3 * HOUR, null));
+    }
+
+    @Test
+    void eventCrossingTheEndOfTheWeekIsIndexedInBothWeeks() {
+        long boundary = Math.floorDiv(MONDAY, WEEK) * WEEK + WEEK;
+        grid.add("teacher", event("wrap", boundary - HOUR, boundary + HOUR));
+
+        assertTrue(grid.overlaps("teacher", boundary - 30 * 60, boundary - 15 * 60, null));
+        assertTrue(grid.overlaps("teacher", boundary + 30 * 60, boundary + 45 * 60, null));
+        assertFalse(grid.overlaps("teacher", boundary + HOUR, boundary + 2 * HOUR, null));
+        assertFalse(grid.overlaps("teacher", boundary - 2 * HOUR, boundary - HOUR, null));
+        // Une requête à cheval sur la frontière ne renvoie l'événement qu'une fois
+        assertEquals(List.of("wrap"), ids(grid.findOverlaps("teacher", boundary - 2 * HOUR, boundary + 2 * HOUR, null)));
+
+        grid.remove("teacher", event("wrap", boundary - HOUR, boundary + HOUR));
+        assertFalse(grid.overlaps("teacher", boundary - 30 * 60, boundary - 15 * 60, null));
+        assertFalse(grid.overlaps("teacher", boundary + 30 * 60, boundary + 45 * 60, null));
+    }
+
+    @Test
+    void removingAnEventKeepsTheSlotsOfTheOthers() {
+        grid.add("teacher", event("a", MONDAY, MONDAY + 2 * HOUR));
+        grid.add("teacher", event("b", MONDAY + HOUR, MONDAY + 3 * HOUR));
+
+        grid.remove("teacher", event("a", MONDAY, MONDAY + 2 * HOUR));
+
+        assertFalse(grid.overlaps("teacher", MONDAY, MONDAY + HOUR, null));
+        assertTrue(grid.overlaps("teacher", MONDAY + 90 * 60, MONDAY + 105 * 60, null));
+        assertEquals(List.of("b"), ids(grid.findOverlaps("teacher", MONDAY, MONDAY + 3 * HOUR, null)));
+    }
+
+    @Test
+    void matchesABruteForceScan() {
+        Random random = new Random(42);
+        List<ConflictIndex.IndexedEvent> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Horaires à la minute près sur trois semaines, durées jusqu'à 3h
+            long start = MONDAY + 60L * random.nextInt(3 * 7 * 24 * 60);
+            ConflictIndex.IndexedEvent event = event("e" + i, start, start + 60L * (1 + random.nextInt(180)));
+            events.add(event);
+            grid.add("teacher", event);
+        }
+        for (int i = 0; i < 250; i++) {
+            grid.remove("teacher", events.remove(random.nextInt(events.size())));
+        }
+        for (int q = 0; q < 2000; q++) {
+            long start = MONDAY + 60L * random.nextInt(3 * 7 * 24 * 60);
+            long end = start + 60L * (1 + random.nextInt(180));
+            Set<String> expected = new HashSet<>();
+            for (ConflictIndex.IndexedEvent event : events) {
+                if (event.start() < end && event.end() > start) {
+                    expected.add(event.id());
+                }
+            }
+            assertEquals(expected, new HashSet<>(ids(grid.findOverlaps("teacher", start, end, null))));
+            assertEquals(!expected.isEmpty(), grid.overlaps("teacher", start, end, null));
+        }
+    }
+
+    private static ConflictIndex.IndexedEvent event(String id, long start, long end) {
+        return new ConflictIndex.IndexedEvent(id, "room", "course", "teacher", Set.of("teacher"), Set.of(), start, end);
+    }
+
+    private static List<String> ids(List<ConflictIndex.IndexedEvent> events) {
+        List<String> ids = new ArrayList<>();
+        events.forEach(event -> ids.add(event.id()));
+        return ids;
+    }
+}
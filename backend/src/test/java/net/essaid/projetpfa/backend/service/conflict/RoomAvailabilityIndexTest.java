@@ -0,0 +1,89 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.RoomUnavailablePeriod;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Index des indisponibilités de salles sur une base H2 : bornes des périodes et rechargement d'une salle invalidée
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:roomavailability;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RoomAvailabilityIndex.class)
+class RoomAvailabilityIndexTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 9, 2, 8, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Test
+    void periodsAreHalfOpen() {
+        Room room = room("AVAIL-A");
+        Room otherRoom = room("AVAIL-B");
+        period(room, MONDAY.plusHours(2), MONDAY.plusHours(4), "Maintenance");
+        entityManager.flush();
+        roomAvailabilityIndex.invalidate(room.getId());
+
+        assertFalse(roomAvailabilityIndex.isUnavailable(room.getId(), MONDAY, MONDAY.plusHours(2)));
+        assertFalse(roomAvailabilityIndex.isUnavailable(room.getId(), MONDAY.plusHours(4), MONDAY.plusHours(5)));
+        assertTrue(roomAvailabilityIndex.isUnavailable(room.getId(), MONDAY.plusHours(3), MONDAY.plusHours(5)));
+        assertTrue(roomAvailabilityIndex.isUnavailable(room.getId(), MONDAY.plusHours(2), MONDAY.plusHours(4)));
+        assertFalse(roomAvailabilityIndex.isUnavailable(otherRoom.getId(), MONDAY.plusHours(2), MONDAY.plusHours(4)));
+
+        List<RoomAvailabilityIndex.UnavailablePeriod> periods =
+                roomAvailabilityIndex.findUnavailable(room.getId(), MONDAY, MONDAY.plusHours(3));
+        assertEquals(1, periods.size());
+        assertEquals("Maintenance", periods.get(0).reason());
+        assertEquals(MONDAY.plusHours(2), periods.get(0).start());
+    }
+
+    @Test
+    void invalidatedRoomIsReloaded() {
+        Room room = room("AVAIL-C");
+        entityManager.flush();
+        assertFalse(roomAvailabilityIndex.isUnavailable(room.getId(), MONDAY, MONDAY.plusHours(1)));
+
+        period(room, MONDAY, MONDAY.plusHours(8), "Réservation externe");
+        entityManager.flush();
+        roomAvailabilityIndex.invalidate(room.getId());
+
+        assertTrue(roomAvailabilityIndex.isUnavailable(room.getId(), MONDAY, MONDAY.plusHours(1)));
+    }
+
+    private Room room(String name) {
+        Room room = new Room();
+        room.setName(name);
+        room.setCapacity(40);
+        return entityManager.persist(room);
+    }
+
+    private void period(Room room, LocalDateTime start, LocalDateTime end, String reason) {
+        RoomUnavailablePeriod period = new RoomUnavailablePeriod();
+        period.setRoom(room);
+        period.setStartTime(start);
+        period.setEndTime(end);
+        period.setReason(reason);
+        entityManager.persist(period);
+    }
+}
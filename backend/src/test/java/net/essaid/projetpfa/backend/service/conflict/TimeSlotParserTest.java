@@ -0,0 +1,76 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Champs texte de disponibilité : jours, périodes nommées, plages horaires, JSON et valeurs invalides
+class TimeSlotParserTest {
+
+    private static final int DAY = 24 * 60;
+
+    @Test
+    void emptyOrUnrecognizedTextIsUnconstrained() {
+        assertNull(TimeSlotParser.parse(null));
+        assertNull(TimeSlotParser.parse("   "));
+        assertNull(TimeSlotParser.parse("Indisponible"));
+        assertNull(TimeSlotParser.parse(", ;"));
+    }
+
+    @Test
+    void daysCoverTheWholeDay() {
+        assertEquals(WeeklyMask.ofDay(0, 0, DAY).or(WeeklyMask.ofDay(1, 0, DAY)), TimeSlotParser.parse("Lundi, Mardi"));
+        assertEquals(WeeklyMask.ofDay(1, 0, DAY).or(WeeklyMask.ofDay(3, 0, DAY)).or(WeeklyMask.ofDay(4, 0, DAY)),
+                TimeSlotParser.parse("mardi; Thursday | ven"));
+        // Formes courtes : "Mer" n'est pas confondu avec "mar"
+        assertEquals(WeeklyMask.ofDay(2, 0, DAY), TimeSlotParser.parse("Mer"));
+        assertEquals(WeeklyMask.ofDay(6, 0, DAY), TimeSlotParser.parse("Dimanche"));
+    }
+
+    @Test
+    void periodsApplyToEveryDay() {
+        assertEquals(7 * 5 * 4, TimeSlotParser.parse("Matin").cardinality());
+        assertEquals(TimeSlotParser.parse("Matin"), TimeSlotParser.parse("Morning"));
+        assertEquals(7 * 6 * 4, TimeSlotParser.parse("Après-midi").cardinality());
+        assertEquals(TimeSlotParser.parse("Après-midi"), TimeSlotParser.parse("apres midi"));
+        assertEquals(TimeSlotParser.parse("Soir"), TimeSlotParser.parse("EVENING"));
+    }
+
+    @Test
+    void dayAndPeriodAreCombined() {
+        WeeklyMask tuesdayMorning = WeeklyMask.ofDay(1, TimeSlotParser.MORNING_START, TimeSlotParser.AFTERNOON_START);
+
+        assertEquals(tuesdayMorning, TimeSlotParser.parse("MardiMatin"));
+        assertEquals(tuesdayMorning, TimeSlotParser.parse("mardi matin"));
+        assertEquals(tuesdayMorning, TimeSlotParser.parse("Mardi-Matin"));
+        assertEquals(WeeklyMask.ofDay(1, TimeSlotParser.EVENING_START, TimeSlotParser.EVENING_END), TimeSlotParser.parse("TueEvening"));
+    }
+
+    @Test
+    void timeRanges() {
+        WeeklyMask thursday8To10 = WeeklyMask.ofDay(3, 8 * 60, 10 * 60);
+
+        assertEquals(thursday8To10, TimeSlotParser.parse("Jeudi 08:00-10:00"));
+        assertEquals(thursday8To10, TimeSlotParser.parse("jeudi 8h-10h"));
+        assertEquals(thursday8To10, TimeSlotParser.parse("Jeudi 8-10"));
+        assertEquals(WeeklyMask.ofDay(3, 8 * 60 + 30, 10 * 60), TimeSlotParser.parse("jeu 8h30-10h"));
+        assertEquals(7 * 2 * 4, TimeSlotParser.parse("14:00-16:00").cardinality());
+        assertEquals(WeeklyMask.ofDay(4, 20 * 60, DAY), TimeSlotParser.parse("Vendredi 20:00-24:00"));
+    }
+
+    @Test
+    void invalidRangesAreIgnored() {
+        assertNull(TimeSlotParser.parse("Jeudi 10:00-08:00"));
+        assertNull(TimeSlotParser.parse("20:00-25:00"));
+        assertNull(TimeSlotParser.parse("Jeudi 8h-"));
+        assertEquals(WeeklyMask.ofDay(0, 0, DAY), TimeSlotParser.parse("Lundi, Mardi 10:00-08:00"));
+    }
+
+    @Test
+    void jsonArraysAreAccepted() {
+        assertEquals(WeeklyMask.ofDay(0, 0, DAY).or(WeeklyMask.ofDay(2, TimeSlotParser.MORNING_START, TimeSlotParser.AFTERNOON_START)),
+                TimeSlotParser.parse("[\"Lundi\", \"MercrediMatin\"]"));
+        assertEquals(WeeklyMask.ofDay(4, 14 * 60, 16 * 60), TimeSlotParser.parse("[\"Friday 14:00-16:00\"]"));
+    }
+}
@@ -0,0 +1,70 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Masque hebdomadaire : créneaux d'un événement, passage de minuit et du dimanche au lundi, opérations logiques
+class WeeklyMaskTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 9, 2, 0, 0);
+
+    @Test
+    void eventMaskMatchesDayMask() {
+        assertEquals(WeeklyMask.ofDay(0, 8 * 60, 10 * 60), WeeklyMask.of(MONDAY.plusHours(8), MONDAY.plusHours(10)));
+        assertEquals(8, WeeklyMask.of(MONDAY.plusHours(8), MONDAY.plusHours(10)).cardinality());
+        // Une fin non alignée occupe le créneau entamé
+        assertEquals(WeeklyMask.ofDay(0, 8 * 60, 8 * 60 + 15), WeeklyMask.of(MONDAY.plusHours(8), MONDAY.plusHours(8).plusMinutes(10)));
+        assertEquals(WeeklyMask.ofDay(4, 8 * 60, 8 * 60 + 15), WeeklyMask.ofDay(4, 8 * 60, 8 * 60 + 10));
+        // Même jour de la semaine suivante : même masque
+        assertEquals(WeeklyMask.of(MONDAY.plusHours(8), MONDAY.plusHours(10)),
+                WeeklyMask.of(MONDAY.plusWeeks(1).plusHours(8), MONDAY.plusWeeks(1).plusHours(10)));
+    }
+
+    @Test
+    void eventCrossingMidnightCoversBothDays() {
+        LocalDateTime tuesday23h = MONDAY.plusDays(1).plusHours(23);
+
+        assertEquals(WeeklyMask.ofDay(1, 23 * 60, 24 * 60).or(WeeklyMask.ofDay(2, 0, 60)),
+                WeeklyMask.of(tuesday23h, tuesday23h.plusHours(2)));
+    }
+
+    @Test
+    void eventCrossingTheEndOfTheWeekWrapsToMonday() {
+        LocalDateTime sunday23h = MONDAY.plusDays(6).plusHours(23);
+        WeeklyMask mask = WeeklyMask.of(sunday23h, sunday23h.plusHours(2));
+
+        assertEquals(WeeklyMask.ofDay(6, 23 * 60, 24 * 60).or(WeeklyMask.ofDay(0, 0, 60)), mask);
+        assertEquals(8, mask.cardinality());
+    }
+
+    @Test
+    void degenerateEventsGiveFullOrEmptyMasks() {
+        assertEquals(WeeklyMask.FULL, WeeklyMask.of(MONDAY.plusHours(8), MONDAY.plusWeeks(1).plusHours(8)));
+        assertEquals(WeeklyMask.FULL, WeeklyMask.of(MONDAY, MONDAY.plusDays(10)));
+        assertEquals(WeeklyMask.EMPTY, WeeklyMask.of(MONDAY.plusHours(8), MONDAY.plusHours(8)));
+        assertEquals(WeeklyMask.EMPTY, WeeklyMask.of(MONDAY.plusHours(8), MONDAY.plusHours(7)));
+    }
+
+    @Test
+    void logicalOperations() {
+        WeeklyMask mondayMorning = WeeklyMask.ofDay(0, 8 * 60, 12 * 60);
+
+        assertEquals(OccupancyGrid.SLOTS_PER_WEEK, WeeklyMask.FULL.cardinality());
+        assertTrue(WeeklyMask.EMPTY.isEmpty());
+        assertEquals(WeeklyMask.EMPTY, WeeklyMask.FULL.not());
+        assertEquals(OccupancyGrid.SLOTS_PER_WEEK - 16, mondayMorning.not().cardinality());
+
+        assertTrue(WeeklyMask.FULL.contains(mondayMorning));
+        assertTrue(mondayMorning.contains(WeeklyMask.of(MONDAY.plusHours(9), MONDAY.plusHours(10))));
+        assertFalse(mondayMorning.contains(WeeklyMask.of(MONDAY.plusHours(11), MONDAY.plusHours(13))));
+        assertTrue(mondayMorning.intersects(WeeklyMask.of(MONDAY.plusHours(11), MONDAY.plusHours(13))));
+        assertFalse(mondayMorning.intersects(WeeklyMask.of(MONDAY.plusHours(12), MONDAY.plusHours(13))));
+        assertEquals(WeeklyMask.ofDay(0, 8 * 60, 10 * 60), mondayMorning.andNot(WeeklyMask.ofDay(0, 10 * 60, 14 * 60)));
+        assertEquals(WeeklyMask.ofDay(0, 10 * 60, 12 * 60), mondayMorning.and(WeeklyMask.ofDay(0, 10 * 60, 14 * 60)));
+    }
+}
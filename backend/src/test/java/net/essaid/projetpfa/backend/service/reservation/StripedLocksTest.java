@@ -0,0 +1,63 @@
+package net.essaid.projetpfa.backend.service.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Verrous par ressource : salles distinctes sur des verrous distincts, aucun interblocage quel que soit l'ordre des clés
+// (les réservations concurrentes de bout en bout sont couvertes par ScheduleEventServiceConcurrencyTest)
+class StripedLocksTest {
+
+    private static final int THREADS = 8;
+
+    private final StripedLocks locks = new StripedLocks(1024);
+
+    @Test
+    void distinctRoomsUseDistinctStripes() {
+        Set<Integer> stripes = new HashSet<>();
+        for (int t = 0; t < THREADS; t++) {
+            stripes.add(locks.stripeOf(ReservationService.roomKey("room-" + t)));
+        }
+        assertEquals(THREADS, stripes.size());
+    }
+
+    @Test
+    void overlappingKeySetsInAnyOrderDoNotDeadlock() throws Exception {
+        List<String> keys = List.of("room:1", "teacher:1", "student:1", "student:2", "room:2");
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    List<String> shuffled = new ArrayList<>(keys);
+                    Collections.shuffle(shuffled);
+                    try (StripedLocks.Held ignored = locks.acquire(shuffled.subList(0, 3), 10, TimeUnit.SECONDS)) {
+                        completed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(THREADS * 200, completed.get());
+    }
+}
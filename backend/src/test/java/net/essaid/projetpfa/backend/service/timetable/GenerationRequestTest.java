@@ -0,0 +1,26 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Année universitaire précédente déduite du format "AAAA-AAAA", sans comparaison de chaînes
+class GenerationRequestTest {
+
+    @Test
+    void previousAcademicYearIsDerivedFromTheStartYear() {
+        assertEquals("2023-2024", GenerationRequest.previousAcademicYear("2024-2025"));
+        assertEquals("1999-2000", GenerationRequest.previousAcademicYear(" 2000-2001 "));
+        assertTrue(GenerationRequest.isAcademicYear("2024-2025"));
+
+        assertNull(GenerationRequest.previousAcademicYear(null));
+        assertNull(GenerationRequest.previousAcademicYear("2024"));
+        assertNull(GenerationRequest.previousAcademicYear("2024/2025"));
+        assertNull(GenerationRequest.previousAcademicYear("24-25"));
+        assertNull(GenerationRequest.previousAcademicYear("2024-2026"));
+        assertFalse(GenerationRequest.isAcademicYear("S1 2024"));
+    }
+}
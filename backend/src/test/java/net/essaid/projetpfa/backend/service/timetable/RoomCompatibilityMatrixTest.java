@@ -0,0 +1,49 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RoomCompatibilityMatrixTest {
+
+    @Test
+    void keepsUsableRoomsOrderedByCapacityAndFiltersEachSessionType() {
+        Room bigTd = SyntheticSchool.room("td-big", Room.RoomType.TD, 60);
+        Room smallTd = SyntheticSchool.room("td-small", Room.RoomType.TD, 25);
+        Room closedTd = SyntheticSchool.room("td-closed", Room.RoomType.TD, 40);
+        closedTd.setStatus(Room.RoomStatus.MAINTENANCE);
+        Room otherCampusTd = SyntheticSchool.room("td-other", Room.RoomType.TD, 30);
+        otherCampusTd.setCampus("Annexe");
+        Room amphi = SyntheticSchool.room("amphi", Room.RoomType.AMPHI, 200);
+        Room labo = SyntheticSchool.room("labo", Room.RoomType.LABO, 24);
+        RoomCompatibilityMatrix matrix = RoomCompatibilityMatrix.of(List.of(bigTd, smallTd, closedTd, otherCampusTd, amphi, labo));
+
+        assertEquals(List.of("labo", "td-small", "td-other", "td-big", "amphi"), matrix.rooms().stream().map(Room::getId).toList());
+
+        Course course = new Course();
+        course.setId("course");
+        course.setRequiredCampus("Centre");
+        assertArrayEquals(new int[]{1, 3}, matrix.eligibleIndices(course, ScheduleEvent.SessionType.TD, 20));
+        assertArrayEquals(new int[]{3}, matrix.eligibleIndices(course, ScheduleEvent.SessionType.TD, 40));
+        assertArrayEquals(new int[]{3, 4}, matrix.eligibleIndices(course, ScheduleEvent.SessionType.CM, 40));
+        assertArrayEquals(new int[]{0}, matrix.eligibleIndices(course, ScheduleEvent.SessionType.TP, 20));
+        course.setRequiredCampus("annexe ");
+        assertArrayEquals(new int[]{1, 2, 3}, matrix.eligibleIndices(course, ScheduleEvent.SessionType.TD, 20));
+    }
+
+    @Test
+    void sharesTheBitsetBetweenSessionsWithTheSameRequirements() {
+        RoomCompatibilityMatrix matrix = RoomCompatibilityMatrix.of(new SyntheticSchool(50, 20, 20, 10, 1).rooms);
+        Course first = new Course();
+        Course second = new Course();
+
+        assertSame(matrix.eligible(first, ScheduleEvent.SessionType.TD, 30), matrix.eligible(second, ScheduleEvent.SessionType.TD, 30));
+    }
+}
@@ -0,0 +1,105 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Filiere;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.User;
+import net.essaid.projetpfa.backend.service.conflict.WeeklyMask;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Établissement synthétique pour les tests et mesures de la génération :
+ * des promotions de deux groupes, un CM hebdomadaire par cours, un TD pour la moitié des cours
+ * et un TP pour le quart ; 30 % d'amphis, 45 % de salles de TD, le reste en laboratoires.
+ * Un enseignant sur deux préfère enseigner le matin.
+ * Avec plusieurs campus, salles, promotions et enseignants sont répartis entre eux sans rien partager
+ * (campusCount doit diviser le nombre d'enseignants et de promotions).
+ */
+final class SyntheticSchool {
+
+    static final LocalDateTime MONDAY = LocalDateTime.of(2024, 9, 2, 0, 0);
+    private static final WeeklyMask MORNINGS = mornings();
+
+    final List<Course> courses = new ArrayList<>();
+    final List<Room> rooms = new ArrayList<>();
+    final List<User> teachers = new ArrayList<>();
+
+    SyntheticSchool(int courseCount, int roomCount, int teacherCount, int promotionCount, long seed) {
+        this(courseCount, roomCount, teacherCount, promotionCount, 1, seed);
+    }
+
+    SyntheticSchool(int courseCount, int roomCount, int teacherCount, int promotionCount, int campusCount, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < teacherCount; i++) {
+            User teacher = new User();
+            teacher.setId("teacher-" + i);
+            teachers.add(teacher);
+        }
+        int amphis = roomCount * 30 / 100;
+        int tdRooms = roomCount * 45 / 100;
+        for (int i = 0; i < roomCount; i++) {
+            Room room = room("room-" + i, i < amphis ? Room.RoomType.AMPHI : i < amphis + tdRooms ? Room.RoomType.TD : Room.RoomType.LABO,
+                    i < amphis ? 200 : 40);
+            if (campusCount > 1) {
+                room.setCampus("campus-" + i % campusCount);
+            }
+            rooms.add(room);
+        }
+        for (int i = 0; i < courseCount; i++) {
+            Course course = new Course();
+            course.setId("course-" + i);
+            course.setCode("C" + i);
+            Filiere filiere = new Filiere();
+            filiere.setId("filiere-" + (i % promotionCount));
+            course.setFiliere(filiere);
+            course.setResponsibleTeacher(teachers.get(i % teacherCount));
+            // Même campus que la promotion et l'enseignant responsable
+            int campus = i % promotionCount % campusCount;
+            if (campusCount > 1) {
+                course.setRequiredCampus("campus-" + campus);
+            }
+            if (i % 5 == 0) {
+                course.setAssociatedTeachers(new HashSet<>(Set.of(teachers.get(random.nextInt(teacherCount / campusCount) * campusCount + campus))));
+            }
+            course.setCmHours(BigDecimal.valueOf(21));
+            if (random.nextInt(2) == 0) {
+                course.setTdHours(BigDecimal.valueOf(14));
+            }
+            if (random.nextInt(4) == 0) {
+                course.setTpHours(BigDecimal.valueOf(14));
+            }
+            course.setGroupsAffected("G1, G2");
+            course.setGroupCapacity(30);
+            courses.add(course);
+        }
+    }
+
+    TimetableProblem problem() {
+        return new TimetableProblemBuilder(MONDAY, 14)
+                .teacherPreferences(teacher -> Integer.parseInt(teacher.getId().substring("teacher-".length())) % 2 == 0 ? MORNINGS : WeeklyMask.EMPTY)
+                .build(courses, rooms);
+    }
+
+    private static WeeklyMask mornings() {
+        WeeklyMask mask = WeeklyMask.EMPTY;
+        for (int day = 0; day < 5; day++) {
+            mask = mask.or(WeeklyMask.ofDay(day, 8 * 60, 12 * 60));
+        }
+        return mask;
+    }
+
+    static Room room(String id, Room.RoomType type, int capacity) {
+        Room room = new Room();
+        room.setId(id);
+        room.setType(type);
+        room.setCapacity(capacity);
+        return room;
+    }
+}
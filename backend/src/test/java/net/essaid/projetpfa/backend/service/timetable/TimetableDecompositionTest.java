@@ -0,0 +1,51 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Découpage par campus : une composante par campus, résolues séparément puis réunies sans chevauchement
+class TimetableDecompositionTest {
+
+    @Test
+    void splitsIndependentCampusesAndMergesTheirSolutions() {
+        TimetableProblem problem = new SyntheticSchool(600, 120, 240, 60, 3, 7).problem();
+
+        List<TimetableDecomposition.Component> components = TimetableDecomposition.split(problem);
+
+        assertEquals(3, components.size());
+        Set<Integer> covered = new HashSet<>();
+        Set<Integer> usedRooms = new HashSet<>();
+        for (TimetableDecomposition.Component component : components) {
+            for (int i : component.sessionIndices()) {
+                assertTrue(covered.add(i));
+            }
+            // Aucune salle partagée entre campus
+            Set<Integer> rooms = new HashSet<>();
+            component.problem().sessions().forEach(session -> Arrays.stream(session.rooms()).forEach(rooms::add));
+            rooms.forEach(r -> assertTrue(usedRooms.add(r)));
+        }
+        assertEquals(problem.sessions().size(), covered.size());
+
+        TimetableSolver.Solution solution = new TimetablePortfolio(3).solve(problem, TimetableSolver.Options.defaults());
+
+        assertTrue(solution.complete(), "séances non placées : " + solution.unplacedSessions().size());
+        assertEquals(0, TimetableSolverTest.countOverlaps(problem, solution));
+    }
+
+    @Test
+    void keepsASingleComponentWhenResourcesAreShared() {
+        TimetableProblem problem = new SyntheticSchool(100, 20, 30, 10, 1).problem();
+
+        List<TimetableDecomposition.Component> components = TimetableDecomposition.split(problem);
+
+        assertEquals(1, components.size());
+        assertTrue(components.get(0).problem() == problem);
+    }
+}
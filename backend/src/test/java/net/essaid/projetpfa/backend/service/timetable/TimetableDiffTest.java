@@ -0,0 +1,78 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Filiere;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.User;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Simulation : séances déplacées, ajoutées ou retirées par rapport à l'emploi du temps enregistré
+class TimetableDiffTest {
+
+    @Test
+    void classifiesEachSessionAndComparesScores() {
+        Filiere filiere = new Filiere();
+        filiere.setId("filiere");
+        List<Course> courses = List.of(course("a", filiere), course("b", filiere), course("c", filiere), course("d", filiere));
+        List<Room> rooms = List.of(SyntheticSchool.room("r1", Room.RoomType.AMPHI, 40), SyntheticSchool.room("r2", Room.RoomType.AMPHI, 40));
+        TimetableProblem problem = new TimetableProblemBuilder(SyntheticSchool.MONDAY, 14).build(courses, rooms);
+        assertEquals(4, problem.sessions().size());
+
+        // a inchangé, b déplacé de salle, c placé seulement après, d seulement avant
+        int[] beforeStarts = {8 * 4, 10 * 4, -1, 14 * 4};
+        int[] beforeRooms = {0, 0, -1, 1};
+        int[] afterStarts = {8 * 4, 10 * 4, 14 * 4, -1};
+        int[] afterRooms = {0, 1, 0, -1};
+
+        TimetableDiff diff = TimetableDiff.between(problem, TimetableScorer.Weights.defaults(), SyntheticSchool.MONDAY,
+                beforeStarts, beforeRooms, afterStarts, afterRooms, 2);
+
+        assertEquals(1, diff.unchanged());
+        assertEquals(1, diff.moved());
+        assertEquals(1, diff.added());
+        assertEquals(1, diff.removed());
+        assertEquals(2, diff.removedEvents());
+        assertEquals(3, diff.changes().size());
+
+        TimetableDiff.Change moved = diff.changes().get(0);
+        assertEquals(TimetableDiff.Kind.MOVED, moved.kind());
+        assertEquals("b", moved.courseId());
+        assertEquals(SyntheticSchool.MONDAY.plusHours(10), moved.beforeStart());
+        assertEquals("r1", moved.beforeRoomId());
+        assertEquals("r2", moved.afterRoomId());
+
+        TimetableDiff.Change added = diff.changes().get(1);
+        assertEquals(TimetableDiff.Kind.ADDED, added.kind());
+        assertNull(added.beforeStart());
+        assertEquals(SyntheticSchool.MONDAY.plusHours(14), added.afterStart());
+
+        TimetableDiff.Change removed = diff.changes().get(2);
+        assertEquals(TimetableDiff.Kind.REMOVED, removed.kind());
+        assertNull(removed.afterRoomId());
+
+        TimetableScorer scorer = new TimetableScorer(problem);
+        TimetableScorer.Weights weights = TimetableScorer.Weights.defaults();
+        assertEquals(scorer.evaluate(beforeStarts, beforeRooms).total(weights), diff.scoreBefore());
+        assertEquals(scorer.evaluate(afterStarts, afterRooms).total(weights), diff.scoreAfter());
+        assertEquals(diff.scoreAfter() - diff.scoreBefore(), diff.scoreChange());
+    }
+
+    private static Course course(String id, Filiere filiere) {
+        User teacher = new User();
+        teacher.setId("teacher-" + id);
+        Course course = new Course();
+        course.setId(id);
+        course.setCode(id.toUpperCase());
+        course.setFiliere(filiere);
+        course.setResponsibleTeacher(teacher);
+        course.setCmHours(BigDecimal.valueOf(28));
+        course.setGroupCapacity(30);
+        return course;
+    }
+}
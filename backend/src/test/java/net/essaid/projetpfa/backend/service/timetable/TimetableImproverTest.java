@@ -0,0 +1,57 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Recherche locale : le score suivi par variations égale le recalcul complet, l'emploi du temps reste faisable et s'améliore
+class TimetableImproverTest {
+
+    @Test
+    void improvesAFeasibleScheduleWithIncrementalScoring() {
+        TimetableProblem problem = new SyntheticSchool(500, 80, 150, 50, 42).problem();
+        TimetableSolver.Solution constructed = new TimetableSolver(problem, TimetableSolver.Options.defaults()).solve();
+        TimetableScorer.Weights weights = TimetableScorer.Weights.defaults();
+
+        TimetableImprover.Result result = new TimetableImprover(problem, weights, new TimetableImprover.Options(7, 30_000, 5_000_000))
+                .improve(constructed);
+
+        assertEquals(5_000_000, result.moves());
+        assertEquals(new TimetableScorer(problem).evaluate(result.solution().starts(), result.solution().rooms()), result.best());
+        assertEquals(constructed.placed(), result.solution().placed());
+        assertEquals(0, TimetableSolverTest.countOverlaps(problem, result.solution()));
+        // Les places perdues dans les amphis sont incompressibles : on compare les autres critères
+        TimetableScorer.Weights improvable = new TimetableScorer.Weights(weights.preference(), weights.gap(), 0,
+                weights.teacherLoad(), weights.latePriority(), weights.campusChange(), weights.stability());
+        assertTrue(result.best().total(improvable) < result.initial().total(improvable) * 85 / 100,
+                result.initial() + " -> " + result.best());
+    }
+
+    @Test
+    void followsTeacherLoadPriorityAndCampusChangesIncrementally() {
+        SyntheticSchool school = new SyntheticSchool(250, 40, 75, 25, 11);
+        for (int i = 0; i < school.rooms.size(); i++) {
+            school.rooms.get(i).setCampus("campus-" + i % 2);
+        }
+        school.teachers.forEach(teacher -> teacher.setMaxWeeklyHours(12));
+        for (int i = 0; i < school.courses.size(); i += 3) {
+            school.courses.get(i).setPriority(Course.Priority.HIGH);
+        }
+        TimetableProblem problem = new TimetableProblemBuilder(SyntheticSchool.MONDAY, 14)
+                .teacherMaxDailyHours(4)
+                .build(school.courses, school.rooms);
+        TimetableSolver.Solution constructed = new TimetableSolver(problem, TimetableSolver.Options.defaults()).solve();
+        TimetableScorer.Weights weights = TimetableScorer.Weights.defaults();
+
+        TimetableImprover.Result result = new TimetableImprover(problem, weights, new TimetableImprover.Options(3, 30_000, 1_000_000))
+                .improve(constructed);
+
+        TimetableScorer.Score best = new TimetableScorer(problem).evaluate(result.solution().starts(), result.solution().rooms());
+        assertEquals(best, result.best());
+        assertEquals(0, TimetableSolverTest.countOverlaps(problem, result.solution()));
+        assertTrue(best.campusChanges() < result.initial().campusChanges(), result.initial() + " -> " + best);
+        assertTrue(best.lateHighPriority() < result.initial().lateHighPriority(), result.initial() + " -> " + best);
+    }
+}
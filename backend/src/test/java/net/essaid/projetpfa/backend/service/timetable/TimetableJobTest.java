@@ -0,0 +1,57 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Suivi d'une génération : périmètres concurrents, avancement rapporté par plusieurs recherches, annulation (refusée pendant l'enregistrement)
+class TimetableJobTest {
+
+    @Test
+    void scopesOverlapWhenEitherSideCoversAllValues() {
+        TimetableJob job = job("2024-2025", "S1");
+
+        assertTrue(job.overlaps("2024-2025", "S1"));
+        assertTrue(job.overlaps(null, "S1"));
+        assertTrue(job.overlaps("2024-2025", null));
+        assertFalse(job.overlaps("2024-2025", "S2"));
+        assertFalse(job.overlaps("2025-2026", "S1"));
+        assertTrue(job(null, null).overlaps("2025-2026", "S2"));
+    }
+
+    @Test
+    void progressKeepsTheBestPlacementAndCancellationStopsTheSearch() {
+        TimetableJob job = job(null, null);
+        job.placed(40);
+        job.placed(25);
+        assertEquals(40, job.getPlacedSessions());
+
+        TimetableProblem problem = new SyntheticSchool(500, 80, 150, 50, 1).problem();
+        job.requestCancel();
+        TimetableSolver.Solution solution = new TimetablePortfolio(2).solve(problem, TimetableSolver.Options.defaults(), job);
+
+        // Arrêt dès le premier contrôle : la passe en cours se termine en glouton, sans retour arrière
+        assertEquals(0, solution.backtracks());
+        assertFalse(job.getStatus().isFinished());
+    }
+
+    @Test
+    void cancellationIsRefusedOnceSaving() {
+        TimetableJob job = job("2024-2025", "S1");
+        job.advance(TimetableJob.Status.SAVING);
+
+        assertFalse(job.requestCancel());
+        assertFalse(job.isCancelled());
+
+        TimetableJob solving = job("2024-2025", "S1");
+        solving.advance(TimetableJob.Status.SOLVING);
+        assertTrue(solving.requestCancel());
+        assertTrue(solving.isCancelled());
+    }
+
+    private static TimetableJob job(String academicYear, String semester) {
+        return new TimetableJob("job", GenerationRequest.full(academicYear, semester));
+    }
+}
@@ -0,0 +1,72 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Régénération incrémentale : les placements conservés ne bougent pas, seules les séances libérées sont replacées
+class TimetablePinningTest {
+
+    @Test
+    void replacesOnlyReleasedSessions() {
+        TimetableProblem problem = new SyntheticSchool(500, 80, 150, 50, 42).problem();
+        TimetableSolver.Solution first = new TimetableSolver(problem, TimetableSolver.Options.defaults()).solve();
+        assertTrue(first.complete());
+
+        // Les séances des 20 premiers cours sont libérées, comme après une modification de ces cours
+        int[] starts = first.starts().clone();
+        int[] rooms = first.rooms().clone();
+        for (Session session : problem.sessions()) {
+            if (Integer.parseInt(session.courseId().substring("course-".length())) < 20) {
+                starts[session.index()] = -1;
+                rooms[session.index()] = -1;
+            }
+        }
+        TimetableProblem pinned = TimetablePinning.pin(problem, starts, rooms, IntStream.range(0, starts.length).toArray());
+        TimetableSolver.Solution second = assertTimeout(Duration.ofSeconds(10),
+                () -> new TimetableSolver(pinned, TimetableSolver.Options.defaults()).solve());
+        TimetableSolver.Solution improved = new TimetableImprover(pinned, TimetableScorer.Weights.defaults(),
+                new TimetableImprover.Options(0L, 10_000L, 200_000L)).improve(second).solution();
+
+        assertTrue(improved.complete(), "séances non placées : " + improved.unplacedSessions().size());
+        assertEquals(0, TimetableSolverTest.countOverlaps(pinned, improved));
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] >= 0) {
+                assertTrue(pinned.isPinned(i));
+                assertEquals(starts[i], improved.starts()[i]);
+                assertEquals(rooms[i], improved.rooms()[i]);
+            }
+        }
+    }
+
+    @Test
+    void keepsTheFirstOfTwoConflictingPlacements() {
+        TimetableProblem problem = new SyntheticSchool(500, 80, 150, 50, 42).problem();
+        // Deux séances d'un même cours (mêmes groupes) au même départ : seule la première de l'ordre est conservée
+        Session a = problem.sessions().get(0);
+        Session b = problem.sessions().stream()
+                .filter(session -> session.index() != a.index() && session.courseId().equals(a.courseId()))
+                .findFirst().orElseThrow();
+        int start = SlotBits.nextSetBit(a.starts(), 0);
+        int[] starts = new int[problem.sessions().size()];
+        int[] rooms = new int[starts.length];
+        Arrays.fill(starts, -1);
+        Arrays.fill(rooms, -1);
+        starts[a.index()] = start;
+        rooms[a.index()] = a.rooms()[0];
+        starts[b.index()] = start;
+        rooms[b.index()] = b.rooms()[b.rooms().length - 1];
+
+        TimetableProblem pinned = TimetablePinning.pin(problem, starts, rooms, new int[]{b.index(), a.index()});
+
+        assertTrue(pinned.isPinned(b.index()));
+        assertFalse(pinned.isPinned(a.index()));
+    }
+}
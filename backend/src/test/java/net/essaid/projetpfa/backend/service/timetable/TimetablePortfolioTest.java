@@ -0,0 +1,39 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Portefeuille de recherches : solution complète partagée, et la solution retenue est toujours la meilleure proposée
+class TimetablePortfolioTest {
+
+    @Test
+    void portfolioReturnsACompleteScheduleWithoutOverlap() {
+        TimetableProblem problem = new SyntheticSchool(500, 80, 150, 50, 1).problem();
+
+        TimetableSolver.Solution solution = new TimetablePortfolio(2).solve(problem, TimetableSolver.Options.defaults());
+
+        assertTrue(solution.complete());
+        assertEquals(0, TimetableSolverTest.countOverlaps(problem, solution));
+    }
+
+    @Test
+    void concurrentOffersKeepTheBestSolution() throws InterruptedException {
+        AtomicReference<TimetableSolver.Solution> incumbent = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int placed = 0; placed < 1000; placed++) {
+            TimetableSolver.Solution candidate = new TimetableSolver.Solution(new int[0], new int[0], placed, false, 0, 0, 0);
+            executor.submit(() -> TimetablePortfolio.offer(incumbent, candidate));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(999, incumbent.get().placed());
+    }
+}
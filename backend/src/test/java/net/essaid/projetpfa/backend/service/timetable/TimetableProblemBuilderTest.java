@@ -0,0 +1,136 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Filiere;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.entities.User;
+import net.essaid.projetpfa.backend.service.conflict.RoomAvailabilityIndex;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Développement des cours en séances récurrentes : volume horaire, durée et fréquence ; indisponibilités du semestre reportées
+class TimetableProblemBuilderTest {
+
+    @Test
+    void expandsHoursIntoRecurringSessionsByFrequency() {
+        TimetableProblemBuilder builder = new TimetableProblemBuilder(SyntheticSchool.MONDAY, 14);
+
+        // 21 séances d'une heure, hebdomadaires : deux créneaux, 11 et 10 semaines
+        assertEquals(List.of(new Recurrence(1, 11), new Recurrence(1, 10)), builder.recurrences(BigDecimal.valueOf(21), 60, 1));
+        // 7 séances de deux heures, une semaine sur deux : un seul créneau
+        assertEquals(List.of(new Recurrence(2, 7)), builder.recurrences(BigDecimal.valueOf(14), 120, 2));
+        // 6 séances mensuelles (4 au plus par créneau sur 14 semaines) : deux créneaux de 3
+        assertEquals(List.of(new Recurrence(4, 3), new Recurrence(4, 3)), builder.recurrences(BigDecimal.valueOf(12), 120, 4));
+        assertEquals(List.of(), builder.recurrences(null, 120, 1));
+
+        Course course = new Course();
+        course.setId("course");
+        course.setCode("ALG");
+        course.setFrequency(Course.Frequency.BI_WEEKLY);
+        course.setTdHours(BigDecimal.valueOf(14));
+        course.setGroupsAffected("G1, G2");
+        course.setGroupCapacity(20);
+        TimetableProblem problem = builder.build(List.of(course), List.of(SyntheticSchool.room("td", Room.RoomType.TD, 20)));
+
+        assertEquals(2, problem.sessions().size());
+        problem.sessions().forEach(session -> assertEquals(new Recurrence(2, 7), session.recurrence()));
+        assertEquals(12, new Recurrence(2, 7).weekOf(6));
+    }
+
+    @Test
+    void roomUnavailabilityOfAnyWeekBlocksTheWeeklySlot() {
+        Course course = new Course();
+        course.setId("course");
+        course.setCode("ALG");
+        course.setCmHours(BigDecimal.valueOf(28));
+        course.setGroupCapacity(20);
+        // Lundi 10h-12h de la quatrième semaine ; la semaine suivant le semestre n'est pas prise en compte
+        RoomAvailabilityIndex.UnavailablePeriod maintenance = new RoomAvailabilityIndex.UnavailablePeriod("m", "td",
+                SyntheticSchool.MONDAY.plusWeeks(3).plusHours(10), SyntheticSchool.MONDAY.plusWeeks(3).plusHours(12), "maintenance");
+        RoomAvailabilityIndex.UnavailablePeriod afterSemester = new RoomAvailabilityIndex.UnavailablePeriod("a", "td",
+                SyntheticSchool.MONDAY.plusWeeks(14).plusHours(14), SyntheticSchool.MONDAY.plusWeeks(14).plusHours(16), "examens");
+
+        TimetableProblem problem = new TimetableProblemBuilder(SyntheticSchool.MONDAY, 14)
+                .roomUnavailability(roomId -> List.of(maintenance, afterSemester))
+                .build(List.of(course), List.of(SyntheticSchool.room("td", Room.RoomType.TD, 20)));
+
+        long[] blocked = problem.roomBlocked()[0];
+        assertTrue(SlotBits.anyInRange(blocked, 10 * 4, 12 * 4));
+        assertEquals(8, SlotBits.cardinality(blocked));
+        assertFalse(SlotBits.anyInRange(blocked, 14 * 4, 16 * 4));
+    }
+
+    @Test
+    void eventsOutsideTheScopeOccupyTheirRoomTeachersAndGroups() {
+        Filiere filiere = new Filiere();
+        filiere.setId("filiere");
+        User teacher = new User();
+        teacher.setId("teacher");
+        Course course = new Course();
+        course.setId("s2");
+        course.setCode("ALG");
+        course.setFiliere(filiere);
+        course.setResponsibleTeacher(teacher);
+        course.setCmHours(BigDecimal.valueOf(28));
+        course.setTdHours(BigDecimal.valueOf(28));
+        course.setGroupsAffected("G1, G2");
+        course.setGroupCapacity(20);
+        Course sameTeacher = new Course();
+        sameTeacher.setId("s1-teacher");
+        sameTeacher.setResponsibleTeacher(teacher);
+        Course samePromotion = new Course();
+        samePromotion.setId("s1-promotion");
+        samePromotion.setFiliere(filiere);
+        Room td = SyntheticSchool.room("td", Room.RoomType.TD, 60);
+
+        // Semestre déjà enregistré : même enseignant le lundi 10h-12h (autre salle), TD du groupe G1 le mardi 8h-10h,
+        // et la salle td occupée le mercredi 14h-16h de la troisième semaine
+        List<ScheduleEvent> occupied = List.of(
+                event(sameTeacher, SyntheticSchool.room("other", Room.RoomType.TD, 60), ScheduleEvent.SessionType.CM, "CM #1",
+                        SyntheticSchool.MONDAY.plusHours(10)),
+                event(samePromotion, SyntheticSchool.room("other", Room.RoomType.TD, 60), ScheduleEvent.SessionType.TD, "TD G1 #1",
+                        SyntheticSchool.MONDAY.plusDays(1).plusHours(8)),
+                event(samePromotion, td, ScheduleEvent.SessionType.TP, null, SyntheticSchool.MONDAY.plusWeeks(2).plusDays(2).plusHours(14)));
+
+        TimetableProblem problem = new TimetableProblemBuilder(SyntheticSchool.MONDAY, 14)
+                .occupiedBy(occupied)
+                .build(List.of(course), List.of(td));
+
+        assertEquals(3, problem.sessions().size()); // CM, TD G1, TD G2
+        int monday10h = 10 * 4;
+        int tuesday8h = TimeGrid.SLOTS_PER_DAY + 8 * 4;
+        for (Session session : problem.sessions()) {
+            // Enseignant occupé : aucun départ dont la séance de deux heures recoupe 10h-12h
+            assertFalse(SlotBits.anyInRange(session.starts(), monday10h - session.length() + 1, monday10h + 8));
+            assertTrue(SlotBits.get(session.starts(), monday10h + 8));
+        }
+        // Groupe G1 occupé, donc aussi le CM de toute la promotion ; G2 reste libre
+        assertFalse(SlotBits.get(problem.sessions().get(0).starts(), tuesday8h));
+        assertFalse(SlotBits.get(problem.sessions().get(1).starts(), tuesday8h));
+        assertTrue(SlotBits.get(problem.sessions().get(2).starts(), tuesday8h));
+        // La promotion entière occupée (TP sans groupe) bloque aussi G2 ; la salle est bloquée
+        int wednesday14h = 2 * TimeGrid.SLOTS_PER_DAY + 14 * 4;
+        assertFalse(SlotBits.get(problem.sessions().get(2).starts(), wednesday14h));
+        assertTrue(SlotBits.anyInRange(problem.roomBlocked()[0], wednesday14h, wednesday14h + 8));
+        assertEquals(8, SlotBits.cardinality(problem.roomBlocked()[0]));
+    }
+
+    private static ScheduleEvent event(Course course, Room room, ScheduleEvent.SessionType type, String key, LocalDateTime start) {
+        ScheduleEvent event = new ScheduleEvent();
+        event.setCourse(course);
+        event.setRoom(room);
+        event.setSessionType(type);
+        event.setSessionKey(key);
+        event.setStartTime(start);
+        event.setEndTime(start.plusHours(2));
+        return event;
+    }
+}
@@ -0,0 +1,73 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Filiere;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.User;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Critères souples : charge des enseignants, cours prioritaires l'après-midi, changements de campus dans la journée
+class TimetableScorerTest {
+
+    @Test
+    void countsTeacherOverloadLatePriorityAndCampusChanges() {
+        User teacher = new User();
+        teacher.setId("teacher");
+        teacher.setMaxWeeklyHours(3);
+        Filiere filiere = new Filiere();
+        filiere.setId("filiere");
+        Course priority = course("a", teacher, filiere, Course.Priority.HIGH);
+        Course normal = course("b", teacher, filiere, Course.Priority.NORMAL);
+        List<Room> rooms = List.of(room("r1", "Nord"), room("r2", "Sud"), room("r3", " nord "));
+
+        TimetableProblem problem = new TimetableProblemBuilder(SyntheticSchool.MONDAY, 14)
+                .teacherMaxDailyHours(2)
+                .build(List.of(priority, normal), rooms);
+
+        assertEquals(2, problem.sessions().size());
+        assertArrayEquals(new int[]{0, 1, 0}, problem.roomCampuses());
+        assertArrayEquals(new int[]{8}, problem.teacherDailyCaps());
+        assertArrayEquals(new int[]{12}, problem.teacherWeeklyCaps());
+
+        // Lundi : cours normal de 10h à 12h au nord, cours prioritaire de 14h à 16h au sud
+        int[] starts = {14 * 4, 10 * 4};
+        int[] placed = {roomIndex(problem, "r2"), roomIndex(problem, "r1")};
+        TimetableScorer scorer = new TimetableScorer(problem);
+        // 16 créneaux dans la journée pour 8 permis, 16 dans la semaine pour 12 ; changement de campus du groupe et de l'enseignant
+        assertEquals(new TimetableScorer.Score(0, 8, 2, 8 + 4, 1, 2, 0), scorer.evaluate(starts, placed));
+
+        placed[0] = roomIndex(problem, "r3");
+        assertEquals(0, scorer.evaluate(starts, placed).campusChanges());
+        starts[0] = 8 * 4;
+        assertEquals(0, scorer.evaluate(starts, placed).lateHighPriority());
+    }
+
+    private static Course course(String id, User teacher, Filiere filiere, Course.Priority priority) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCode(id.toUpperCase());
+        course.setFiliere(filiere);
+        course.setResponsibleTeacher(teacher);
+        course.setPriority(priority);
+        course.setCmHours(BigDecimal.valueOf(28));
+        course.setGroupCapacity(30);
+        return course;
+    }
+
+    private static Room room(String id, String campus) {
+        Room room = SyntheticSchool.room(id, Room.RoomType.AMPHI, 40);
+        room.setCampus(campus);
+        return room;
+    }
+
+    private static int roomIndex(TimetableProblem problem, String roomId) {
+        return Arrays.asList(problem.roomIds()).indexOf(roomId);
+    }
+}
@@ -0,0 +1,132 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Génération d'un établissement synthétique (500 cours, 80 salles, 150 enseignants) : placement complet, sans chevauchement, en moins de 30 s
+class TimetableSolverTest {
+
+    @Test
+    void placesEverySessionOfALargeSchoolWithoutOverlap() {
+        TimetableProblem problem = new SyntheticSchool(500, 80, 150, 50, 42).problem();
+        TimetableSolver.Solution solution = assertTimeout(Duration.ofSeconds(30),
+                () -> new TimetableSolver(problem, TimetableSolver.Options.defaults()).solve());
+
+        assertTrue(solution.complete(), "séances non placées : " + solution.unplacedSessions().size());
+        assertEquals(0, countOverlaps(problem, solution));
+    }
+
+    @Test
+    void reportsSessionsThatCannotBePlaced() {
+        // Deux séances de CM et de TD par semaine, une seule salle de 20 places : le CM de 40 étudiants ne peut pas être placé, les TD le sont
+        Course course = new Course();
+        course.setId("course");
+        course.setCode("ALG");
+        course.setCmHours(BigDecimal.valueOf(56));
+        course.setTdHours(BigDecimal.valueOf(56));
+        course.setGroupsAffected("G1, G2");
+        course.setGroupCapacity(20);
+
+        TimetableProblem problem = new TimetableProblemBuilder(SyntheticSchool.MONDAY, 14)
+                .build(List.of(course), List.of(SyntheticSchool.room("td", Room.RoomType.TD, 20)));
+        TimetableSolver.Solution solution = new TimetableSolver(problem, TimetableSolver.Options.defaults()).solve();
+
+        assertFalse(solution.complete());
+        assertEquals(6, problem.sessions().size());
+        assertEquals(4, solution.placed());
+        solution.unplacedSessions().forEach(i -> assertEquals("CM", problem.sessions().get(i).type().name()));
+        assertEquals(0, countOverlaps(problem, solution));
+    }
+
+    @Test
+    void stopsAtTheDeadlineWithTheBestPlacementSoFar() {
+        // Budget épuisé d'emblée : la passe en cours se termine en glouton et son placement, faisable, est rendu
+        TimetableProblem problem = new SyntheticSchool(500, 80, 150, 50, 42).problem();
+        TimetableSolver.Solution solution = assertTimeout(Duration.ofSeconds(5),
+                () -> new TimetablePortfolio(2).solve(problem, new TimetableSolver.Options(0L, 0L, 100_000L)));
+
+        assertEquals(problem.sessions().size(), solution.placed() + solution.unplacedSessions().size());
+        assertTrue(solution.placed() > problem.sessions().size() * 9 / 10, "séances placées : " + solution.placed());
+        assertEquals(0, countOverlaps(problem, solution));
+    }
+
+    @Test
+    void warmStartKeepsValidHintsAndRepairsTheOthers() {
+        TimetableProblem problem = new SyntheticSchool(500, 80, 150, 50, 42).problem();
+        TimetableSolver.Solution previous = new TimetableSolver(problem, TimetableSolver.Options.defaults()).solve();
+        // Année suivante : 20 séances déplacées à la main sur un autre départ de leur domaine, souvent en conflit
+        int[] hintStarts = previous.starts().clone();
+        Random random = new Random(7);
+        for (int k = 0; k < 20; k++) {
+            Session session = problem.sessions().get(random.nextInt(problem.sessions().size()));
+            long[] domain = session.starts();
+            int skip = random.nextInt(SlotBits.cardinality(domain));
+            int s = SlotBits.nextSetBit(domain, 0);
+            while (skip-- > 0) {
+                s = SlotBits.nextSetBit(domain, s + 1);
+            }
+            hintStarts[session.index()] = s;
+        }
+
+        TimetableSolver.Solution warm = new TimetableSolver(problem.withHints(hintStarts, previous.rooms()), TimetableSolver.Options.defaults()).solve();
+
+        assertTrue(warm.complete());
+        assertEquals(0, countOverlaps(problem, warm));
+        int reused = 0;
+        for (int i = 0; i < hintStarts.length; i++) {
+            if (warm.starts()[i] == hintStarts[i] && warm.rooms()[i] == previous.rooms()[i]) {
+                reused++;
+            }
+        }
+        // Une suggestion en conflit n'en écarte qu'une autre : pas de déplacements en cascade ni de retour arrière
+        assertTrue(reused >= hintStarts.length - 2 * 20 - 10, "séances reprises : " + reused + " sur " + hintStarts.length);
+        assertEquals(0, warm.backtracks());
+        assertTrue(warm.nodes() < previous.nodes(), previous.nodes() + " -> " + warm.nodes());
+    }
+
+    // Paires de séances placées qui se recoupent et partagent une salle, un enseignant ou un groupe
+    static int countOverlaps(TimetableProblem problem, TimetableSolver.Solution solution) {
+        List<Session> sessions = problem.sessions();
+        int overlaps = 0;
+        for (int i = 0; i < sessions.size(); i++) {
+            for (int j = i + 1; j < sessions.size(); j++) {
+                if (!solution.isPlaced(i) || !solution.isPlaced(j)) {
+                    continue;
+                }
+                int si = solution.starts()[i];
+                int sj = solution.starts()[j];
+                if (si >= sj + sessions.get(j).length() || sj >= si + sessions.get(i).length()) {
+                    continue;
+                }
+                if (solution.rooms()[i] == solution.rooms()[j]
+                        || shares(sessions.get(i).teachers(), sessions.get(j).teachers())
+                        || shares(sessions.get(i).groups(), sessions.get(j).groups())) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private static boolean shares(int[] a, int[] b) {
+        for (int x : a) {
+            for (int y : b) {
+                if (x == y) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
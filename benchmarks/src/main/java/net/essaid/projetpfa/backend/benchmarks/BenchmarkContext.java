@@ -0,0 +1,63 @@
+package net.essaid.projetpfa.backend.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import net.essaid.projetpfa.backend.BackendApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Application complète démarrée sur une base H2 en mémoire (mode MySQL), pour les mesures qui passent
+ * par les services et les dépôts JPA. Chaque contexte a sa propre base, remplie par le générateur.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    // properties : réglages propres à la mesure, sous la forme "pfa.app.conflictLookup=database"
+    public static BenchmarkContext start(String databaseName, String... properties) {
+        // Arguments de ligne de commande : ils priment sur application.properties (MySQL)
+        Stream<String> defaults = Map.ofEntries(
+                        Map.entry("spring.datasource.url", "jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"),
+                        Map.entry("spring.datasource.driver-class-name", "org.h2.Driver"),
+                        Map.entry("spring.datasource.username", "sa"),
+                        Map.entry("spring.datasource.password", ""),
+                        Map.entry("spring.jpa.hibernate.ddl-auto", "create-drop"),
+                        Map.entry("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect"),
+                        Map.entry("spring.jpa.show-sql", "false"),
+                        Map.entry("spring.main.banner-mode", "off"),
+                        Map.entry("spring.mail.properties.mail.debug", "false"),
+                        Map.entry("server.port", "0"),
+                        Map.entry("logging.level.root", "WARN"),
+                        Map.entry("pfa.app.conflictRecomputeCron", "-"))
+                .entrySet().stream()
+                .map(property -> property.getKey() + "=" + property.getValue());
+        String[] arguments = Stream.concat(defaults, Stream.of(properties)).map(property -> "--" + property).toArray(String[]::new);
+        return new BenchmarkContext(SpringApplication.run(BackendApplication.class, arguments));
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public void persist(UniversityDataGenerator.UniversityData data) {
+        EntityManager entityManager = bean(EntityManager.class);
+        new TransactionTemplate(bean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> UniversityDataGenerator.persist(data, entityManager, INSERT_BATCH_SIZE));
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
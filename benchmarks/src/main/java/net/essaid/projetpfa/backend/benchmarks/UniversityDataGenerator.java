@@ -0,0 +1,209 @@
+package net.essaid.projetpfa.backend.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Filiere;
+import net.essaid.projetpfa.backend.entities.Group;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.entities.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Établissement synthétique déterministe (même graine, mêmes données) : promotions découpées en groupes,
+ * étudiants répartis dans les groupes, enseignants, salles de chaque type, cours avec leurs volumes horaires,
+ * et événements déjà planifiés sur un semestre (séances de 2 h, 08:00–18:00, du lundi au vendredi).
+ * Les événements sont tirés au hasard : leur densité (événements par salle et par semaine) règle la part de conflits.
+ */
+public final class UniversityDataGenerator {
+
+    public static final LocalDateTime SEMESTER_START = LocalDateTime.of(2024, 9, 2, 0, 0); // Un lundi
+    public static final int SEMESTER_WEEKS = 14;
+    public static final String ACADEMIC_YEAR = "2024-2025";
+    public static final String SEMESTER = "S1";
+
+    private static final int SESSION_HOURS = 2;
+    private static final int STARTS_PER_DAY = 5; // 08:00, 10:00, 12:00, 14:00, 16:00
+
+    public record Parameters(int courses, int rooms, int teachers, int students, int promotions, int groupsPerPromotion,
+                             int events, long seed) {
+
+        // Université moyenne : 50 promotions de 2 groupes de 30 étudiants, 500 cours, 200 enseignants
+        public static Parameters medium(int events) {
+            return new Parameters(500, 80, 200, 3000, 50, 2, events, 42L);
+        }
+    }
+
+    public record UniversityData(List<Filiere> promotions, List<Group> groups, List<User> teachers, List<User> students,
+                                 List<Room> rooms, List<Course> courses, List<ScheduleEvent> events) {
+    }
+
+    private UniversityDataGenerator() {
+    }
+
+    /**
+     * assignIds : identifiants lisibles ("room-12") pour un usage en mémoire ;
+     * sans identifiant, les entités sont prêtes à être persistées (UUID générés par JPA).
+     */
+    public static UniversityData generate(Parameters parameters, boolean assignIds) {
+        Random random = new Random(parameters.seed());
+
+        List<Filiere> promotions = new ArrayList<>();
+        List<Group> groups = new ArrayList<>();
+        for (int p = 0; p < parameters.promotions(); p++) {
+            Filiere promotion = new Filiere();
+            promotion.setName("Promotion " + p);
+            promotions.add(promotion);
+            for (int g = 0; g < parameters.groupsPerPromotion(); g++) {
+                groups.add(new Group("P" + p + "-G" + (g + 1)));
+            }
+        }
+
+        List<User> teachers = new ArrayList<>();
+        for (int t = 0; t < parameters.teachers(); t++) {
+            User teacher = user("teacher", t, User.Role.TEACHER);
+            teacher.setTeacherStatus(User.TeacherStatus.PERMANENT);
+            teacher.setMaxWeeklyHours(18);
+            teachers.add(teacher);
+        }
+
+        // Étudiants répartis en tourniquet : chaque groupe a le même effectif à un près
+        List<List<User>> studentsByGroup = new ArrayList<>();
+        groups.forEach(group -> studentsByGroup.add(new ArrayList<>()));
+        List<User> students = new ArrayList<>();
+        for (int s = 0; s < parameters.students(); s++) {
+            int g = s % groups.size();
+            User student = user("student", s, User.Role.STUDENT);
+            student.setStudentIdNumber("E" + s);
+            student.setStudentFiliere(promotions.get(g / parameters.groupsPerPromotion()));
+            student.setStudentGroup(groups.get(g));
+            student.setAcademicStatus(s % 20 == 0 ? User.AcademicStatus.SUSPENDED : User.AcademicStatus.ENROLLED);
+            student.setAcademicYear(ACADEMIC_YEAR);
+            students.add(student);
+            studentsByGroup.get(g).add(student);
+        }
+        int groupSize = Math.max(1, parameters.students() / Math.max(1, groups.size()));
+
+        // 30 % d'amphithéâtres, 45 % de salles de TD, 25 % de laboratoires
+        List<Room> rooms = new ArrayList<>();
+        for (int r = 0; r < parameters.rooms(); r++) {
+            Room room = new Room();
+            room.setName("Salle " + r);
+            if (r % 20 < 6) {
+                room.setType(Room.RoomType.AMPHI);
+                room.setCapacity(2 * groupSize * parameters.groupsPerPromotion());
+            } else if (r % 20 < 15) {
+                room.setType(Room.RoomType.TD);
+                room.setCapacity(groupSize + 5 * random.nextInt(3));
+            } else {
+                room.setType(Room.RoomType.LABO);
+                room.setCapacity(groupSize + 5);
+            }
+            room.setBuilding("Bâtiment " + (char) ('A' + r % 4));
+            room.setHasProjector(true);
+            room.setHasComputers(room.getType() == Room.RoomType.LABO);
+            room.setStatus(Room.RoomStatus.AVAILABLE);
+            rooms.add(room);
+        }
+
+        List<Course> courses = new ArrayList<>();
+        for (int c = 0; c < parameters.courses(); c++) {
+            int p = c % parameters.promotions();
+            Course course = new Course();
+            course.setName("Cours " + c);
+            course.setCode("C" + c);
+            course.setFiliere(promotions.get(p));
+            course.setResponsibleTeacher(teachers.get(c % teachers.size()));
+            if (c % 5 == 0) {
+                course.setAssociatedTeachers(new HashSet<>(Set.of(teachers.get(random.nextInt(teachers.size())))));
+            }
+            course.setCmHours(BigDecimal.valueOf(21));
+            course.setTdHours(random.nextInt(2) == 0 ? BigDecimal.valueOf(14) : null);
+            course.setTpHours(random.nextInt(4) == 0 ? BigDecimal.valueOf(14) : null);
+            course.setSessionDurationMinutes(SESSION_HOURS * 60);
+            course.setFrequency(Course.Frequency.WEEKLY);
+            course.setGroupsAffected(groups.subList(p * parameters.groupsPerPromotion(), (p + 1) * parameters.groupsPerPromotion())
+                    .stream().map(Group::getName).collect(Collectors.joining(", ")));
+            course.setGroupCapacity(groupSize);
+            course.setPriority(c % 7 == 0 ? Course.Priority.HIGH : Course.Priority.NORMAL);
+            course.setSemester(SEMESTER);
+            courses.add(course);
+        }
+
+        // Un CM réunit la promotion, un TD ou un TP un seul de ses groupes.
+        // Ensembles par identité : User compare les identifiants, encore nuls avant la persistance
+        List<ScheduleEvent> events = new ArrayList<>(parameters.events());
+        for (int e = 0; e < parameters.events(); e++) {
+            int c = random.nextInt(courses.size());
+            int p = c % parameters.promotions();
+            ScheduleEvent.SessionType type = ScheduleEvent.SessionType.values()[random.nextInt(3)];
+            Set<User> attendees = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (type == ScheduleEvent.SessionType.CM) {
+                for (int g = 0; g < parameters.groupsPerPromotion(); g++) {
+                    attendees.addAll(studentsByGroup.get(p * parameters.groupsPerPromotion() + g));
+                }
+            } else {
+                attendees.addAll(studentsByGroup.get(p * parameters.groupsPerPromotion() + random.nextInt(parameters.groupsPerPromotion())));
+            }
+            LocalDateTime start = SEMESTER_START.plusWeeks(random.nextInt(SEMESTER_WEEKS)).plusDays(random.nextInt(5))
+                    .plusHours(8 + SESSION_HOURS * random.nextInt(STARTS_PER_DAY));
+            ScheduleEvent event = new ScheduleEvent(null, courses.get(c), rooms.get(random.nextInt(rooms.size())), start,
+                    start.plusHours(SESSION_HOURS), type, attendees, false, e % 50 == 0, false, false, ACADEMIC_YEAR, SEMESTER);
+            events.add(event);
+        }
+
+        if (assignIds) {
+            assignIds(promotions, "promotion", Filiere::setId);
+            assignIds(groups, "group", Group::setId);
+            assignIds(teachers, "teacher", User::setId);
+            assignIds(students, "student", User::setId);
+            assignIds(rooms, "room", Room::setId);
+            assignIds(courses, "course", Course::setId);
+            assignIds(events, "event", ScheduleEvent::setId);
+        }
+        return new UniversityData(promotions, groups, teachers, students, rooms, courses, events);
+    }
+
+    // Insertion dans l'ordre des clés étrangères, par lots ; à appeler dans une transaction
+    public static void persist(UniversityData data, EntityManager entityManager, int batchSize) {
+        int[] count = {0};
+        Stream.of(data.promotions(), data.groups(), data.teachers(), data.students(), data.rooms(), data.courses(), data.events())
+                .flatMap(List::stream)
+                .forEach(entity -> {
+                    entityManager.persist(entity);
+                    if (++count[0] % batchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                });
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static User user(String kind, int index, User.Role role) {
+        User user = new User();
+        user.setName(kind + " " + index);
+        user.setEmail(kind + "-" + index + "@bench.local");
+        user.setPassword("-");
+        user.setRole(role);
+        return user;
+    }
+
+    private static <T> void assignIds(List<T> entities, String prefix, BiConsumer<T, String> setter) {
+        for (int i = 0; i < entities.size(); i++) {
+            setter.accept(entities.get(i), prefix + "-" + i);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.essaid.projetpfa.backend.dto;
+
+import net.essaid.projetpfa.backend.benchmarks.UniversityDataGenerator;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Conversion en DTO d'un emploi du temps déjà chargé (liste des événements, tableaux de bord), sans base de données
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScheduleEventMappingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int events;
+
+    private List<ScheduleEvent> scheduled;
+
+    @Setup
+    public void setUp() {
+        scheduled = UniversityDataGenerator.generate(UniversityDataGenerator.Parameters.medium(events), true).events();
+    }
+
+    @Benchmark
+    public List<ScheduleEventResponseDTO> mapEvents() {
+        return scheduled.stream().map(ScheduleEventResponseDTO::new).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package net.essaid.projetpfa.backend.service;
+
+import net.essaid.projetpfa.backend.benchmarks.BenchmarkContext;
+import net.essaid.projetpfa.backend.benchmarks.UniversityDataGenerator;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Détection des conflits d'un événement déjà planifié (salle, indisponibilités, disponibilités, enseignants,
+ * étudiants), telle qu'appelée à chaque création ou modification, avec les deux implémentations de ConflictLookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConflictDetectionBenchmark {
+
+    @Param({"10000"})
+    public int events;
+
+    @Param({"memory", "database"})
+    public String lookup;
+
+    private BenchmarkContext context;
+    private ScheduleEventService scheduleEventService;
+    private List<ScheduleEvent> scheduled;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("conflicts", "pfa.app.conflictLookup=" + lookup);
+        UniversityDataGenerator.UniversityData data = UniversityDataGenerator.generate(UniversityDataGenerator.Parameters.medium(events), false);
+        context.persist(data);
+        // Entités détachées mais complètes (étudiants, enseignants associés) : comme un événement reçu par le service
+        scheduled = data.events();
+        scheduleEventService = context.bean(ScheduleEventService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ScheduleEvent detectConflicts() {
+        ScheduleEvent event = scheduled.get(next++ % scheduled.size());
+        scheduleEventService.detectConflicts(event);
+        return event;
+    }
+}
@@ -0,0 +1,73 @@
+package net.essaid.projetpfa.backend.service;
+
+import net.essaid.projetpfa.backend.benchmarks.BenchmarkContext;
+import net.essaid.projetpfa.backend.benchmarks.UniversityDataGenerator;
+import net.essaid.projetpfa.backend.dto.DashboardStatsDTO;
+import net.essaid.projetpfa.backend.dto.StudentDashboardDTO;
+import net.essaid.projetpfa.backend.dto.TeacherDashboardDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrégation des tableaux de bord (administrateur, enseignant, étudiant) sur une base H2 remplie
+ * par le générateur : lectures JPA comprises, comme pour une requête HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DashboardBenchmark {
+
+    @Param({"1000", "10000"})
+    public int events;
+
+    private BenchmarkContext context;
+    private DashboardService dashboardService;
+    private String teacherId;
+    private String studentId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("dashboard");
+        UniversityDataGenerator.UniversityData data = UniversityDataGenerator.generate(UniversityDataGenerator.Parameters.medium(events), false);
+        context.persist(data);
+        dashboardService = context.bean(DashboardService.class);
+        teacherId = data.teachers().get(0).getId();
+        studentId = data.students().get(1).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DashboardStatsDTO adminDashboard() {
+        return dashboardService.getAdminDashboardStats();
+    }
+
+    @Benchmark
+    public Optional<TeacherDashboardDTO> teacherDashboard() {
+        return dashboardService.getTeacherDashboard(teacherId);
+    }
+
+    @Benchmark
+    public Optional<StudentDashboardDTO> studentDashboard() {
+        return dashboardService.getStudentDashboard(studentId);
+    }
+}
@@ -0,0 +1,94 @@
+package net.essaid.projetpfa.backend.service;
+
+import net.essaid.projetpfa.backend.benchmarks.BenchmarkContext;
+import net.essaid.projetpfa.backend.benchmarks.UniversityDataGenerator;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remplacement de l'emploi du temps d'un périmètre tel que l'enregistre la génération, en une transaction :
+ * suppression des événements existants puis insertion des nouveaux (sans étudiants, comme une génération).
+ * batch : ScheduleEventBatchWriter (DELETE globaux, insertions en lots JDBC) ;
+ * entity : deleteAll() puis save() événement par événement, l'écriture d'origine.
+ * L'écriture par lots vise un enregistrement au moins 20 fois plus rapide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TimetablePersistenceBenchmark {
+
+    @Param({"10000"})
+    public int events;
+
+    @Param({"batch", "entity"})
+    public String writer;
+
+    private BenchmarkContext context;
+    private TransactionTemplate transaction;
+    private ScheduleEventBatchWriter batchWriter;
+    private ScheduleEventRepository scheduleEventRepository;
+    private List<ScheduleEvent> timetable;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("persistence");
+        UniversityDataGenerator.UniversityData data = UniversityDataGenerator.generate(UniversityDataGenerator.Parameters.medium(events), false);
+        // Données de référence seules : les événements sont écrits par la mesure
+        context.persist(new UniversityDataGenerator.UniversityData(data.promotions(), data.groups(), data.teachers(), data.students(),
+                data.rooms(), data.courses(), List.of()));
+        timetable = data.events();
+        transaction = new TransactionTemplate(context.bean(PlatformTransactionManager.class));
+        batchWriter = context.bean(ScheduleEventBatchWriter.class);
+        scheduleEventRepository = context.bean(ScheduleEventRepository.class);
+        replaceTimetable(); // Emploi du temps déjà enregistré : chaque mesure supprime le précédent
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int replaceTimetable() {
+        return transaction.execute(status -> {
+            if ("batch".equals(writer)) {
+                batchWriter.deleteScope(UniversityDataGenerator.ACADEMIC_YEAR, UniversityDataGenerator.SEMESTER);
+                return batchWriter.insertAll(timetable.stream().map(TimetablePersistenceBenchmark::copy));
+            }
+            scheduleEventRepository.deleteAll();
+            int inserted = 0;
+            for (ScheduleEvent event : timetable) {
+                scheduleEventRepository.save(copy(event));
+                inserted++;
+            }
+            return inserted;
+        });
+    }
+
+    // Nouvel événement à chaque mesure, cours et salle déjà enregistrés
+    private static ScheduleEvent copy(ScheduleEvent event) {
+        return new ScheduleEvent(null, event.getCourse(), event.getRoom(), event.getStartTime(), event.getEndTime(), event.getSessionType(),
+                new HashSet<>(), false, false, false, false, UniversityDataGenerator.ACADEMIC_YEAR, UniversityDataGenerator.SEMESTER);
+    }
+}
@@ -0,0 +1,85 @@
+package net.essaid.projetpfa.backend.service.conflict;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche de chevauchement dans une salle : arbre d'intervalles (ConflictIndex) contre le parcours
+ * de tous les événements qu'il remplace. Pire cas : tous les événements dans la même salle, sur un semestre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IntervalTreeBenchmark {
+
+    private static final long SEMESTER_SECONDS = 14L * 7 * 24 * 3600;
+    private static final long SESSION_SECONDS = 2L * 3600;
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000"})
+    public int events;
+
+    private final IntervalTree<String> tree = new IntervalTree<>();
+    private long[] starts;
+    private long[] ends;
+    private long[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        starts = new long[events];
+        ends = new long[events];
+        for (int i = 0; i < events; i++) {
+            starts[i] = random.nextLong(SEMESTER_SECONDS);
+            ends[i] = starts[i] + SESSION_SECONDS;
+            tree.insert(starts[i], ends[i], "event-" + i, "event-" + i);
+        }
+        queries = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextLong(SEMESTER_SECONDS);
+        }
+    }
+
+    @Benchmark
+    public boolean anyOverlapInTree() {
+        long start = queries[next++ & (QUERIES - 1)];
+        return tree.anyOverlapping(start, start + SESSION_SECONDS, null);
+    }
+
+    @Benchmark
+    public List<IntervalTree.Entry<String>> allOverlapsInTree() {
+        long start = queries[next++ & (QUERIES - 1)];
+        return tree.findOverlapping(start, start + SESSION_SECONDS);
+    }
+
+    // Référence : parcours complet, comme avant l'index
+    @Benchmark
+    public int allOverlapsByLinearScan() {
+        long start = queries[next++ & (QUERIES - 1)];
+        long end = start + SESSION_SECONDS;
+        int overlaps = 0;
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] < end && ends[i] > start) {
+                overlaps++;
+            }
+        }
+        return overlaps;
+    }
+}
@@ -0,0 +1,135 @@
+package net.essaid.projetpfa.backend.service.reservation;
+
+import net.essaid.projetpfa.backend.benchmarks.BenchmarkContext;
+import net.essaid.projetpfa.backend.dto.ScheduleEventRequestDTO;
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import net.essaid.projetpfa.backend.entities.ScheduleEvent;
+import net.essaid.projetpfa.backend.repository.CourseRepository;
+import net.essaid.projetpfa.backend.repository.RoomRepository;
+import net.essaid.projetpfa.backend.repository.ScheduleEventRepository;
+import net.essaid.projetpfa.backend.service.ScheduleEventService;
+import net.essaid.projetpfa.backend.service.conflict.ConflictLookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Réservations concurrentes par ScheduleEventService.createScheduleEvent : chaque mesure lance `threads` threads
+ * qui réservent chacun BOOKINGS_PER_THREAD événements, sans chevauchement entre eux.
+ * disjoint : une salle par thread, les réservations avancent en parallèle et la durée reste stable quand
+ * le nombre de threads augmente ; shared : une seule salle, les réservations sont sérialisées par le verrou
+ * de la salle et la durée croît avec le nombre de threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ConcurrentBookingBenchmark {
+
+    private static final int BOOKINGS_PER_THREAD = 20;
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 9, 2, 8, 0);
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"disjoint", "shared"})
+    public String rooms;
+
+    private BenchmarkContext context;
+    private ScheduleEventService scheduleEventService;
+    private ExecutorService executor;
+    private List<String> roomIds;
+    private List<String> courseIds;
+    // Créneaux de 2h attribués une seule fois : aucune réservation n'entre en conflit, seule l'attente des verrous compte
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("booking");
+        RoomRepository roomRepository = context.bean(RoomRepository.class);
+        CourseRepository courseRepository = context.bean(CourseRepository.class);
+        roomIds = new ArrayList<>();
+        courseIds = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Room room = new Room();
+            room.setName("B" + (100 + t));
+            room.setCapacity(40);
+            roomIds.add(roomRepository.save(room).getId());
+            // Cours sans enseignant : la salle est la seule ressource verrouillée
+            Course course = new Course();
+            course.setName("Cours " + t);
+            course.setCode("BENCH-" + t);
+            courseIds.add(courseRepository.save(course).getId());
+        }
+        scheduleEventService = context.bean(ScheduleEventService.class);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    // Les événements réservés sont retirés entre les itérations : la détection de conflits garde le même coût
+    @TearDown(Level.Iteration)
+    public void clearBookings() {
+        new TransactionTemplate(context.bean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> context.bean(ScheduleEventRepository.class).deleteAllInBatch());
+        context.bean(ConflictLookup.class).invalidate();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int book() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            String roomId = roomIds.get("shared".equals(rooms) ? 0 : t);
+            String courseId = courseIds.get(t);
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    LocalDateTime start = MONDAY.plusHours(2 * nextSlot.getAndIncrement());
+                    scheduleEventService.createScheduleEvent(request(courseId, roomId, start, start.plusHours(2)));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return threads * BOOKINGS_PER_THREAD;
+    }
+
+    private static ScheduleEventRequestDTO request(String courseId, String roomId, LocalDateTime start, LocalDateTime end) {
+        ScheduleEventRequestDTO request = new ScheduleEventRequestDTO();
+        request.setCourseId(courseId);
+        request.setRoomId(roomId);
+        request.setStartTime(start);
+        request.setEndTime(end);
+        request.setSessionType(ScheduleEvent.SessionType.CM);
+        return request;
+    }
+}
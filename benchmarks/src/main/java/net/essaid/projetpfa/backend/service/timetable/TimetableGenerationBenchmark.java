@@ -0,0 +1,69 @@
+package net.essaid.projetpfa.backend.service.timetable;
+
+import net.essaid.projetpfa.backend.benchmarks.UniversityDataGenerator;
+import net.essaid.projetpfa.backend.entities.Course;
+import net.essaid.projetpfa.backend.entities.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération sur un établissement synthétique de 500 cours, 80 salles et 200 enseignants :
+ * construction du problème, puis placement selon le nombre de recherches parallèles du portefeuille.
+ * Le temps pour trouver un placement complet varie d'une graine à l'autre, d'où plusieurs établissements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class TimetableGenerationBenchmark {
+
+    @Param({"1", "2", "3"})
+    public long seed;
+
+    private List<Course> courses;
+    private List<Room> rooms;
+    private TimetableProblem problem;
+
+    @Setup
+    public void setUp() {
+        UniversityDataGenerator.Parameters medium = UniversityDataGenerator.Parameters.medium(0);
+        UniversityDataGenerator.UniversityData data = UniversityDataGenerator.generate(new UniversityDataGenerator.Parameters(medium.courses(),
+                medium.rooms(), medium.teachers(), medium.students(), medium.promotions(), medium.groupsPerPromotion(), 0, seed), true);
+        courses = data.courses();
+        rooms = data.rooms();
+        problem = buildProblem();
+    }
+
+    @Benchmark
+    public TimetableProblem buildProblem() {
+        return new TimetableProblemBuilder(UniversityDataGenerator.SEMESTER_START, UniversityDataGenerator.SEMESTER_WEEKS)
+                .build(courses, rooms);
+    }
+
+    @Benchmark
+    public TimetableSolver.Solution solve(Portfolio portfolio) {
+        return new TimetablePortfolio(portfolio.parallelism).solve(problem, TimetableSolver.Options.defaults());
+    }
+
+    // Paramètre propre au placement : la construction du problème n'en dépend pas
+    @State(Scope.Benchmark)
+    public static class Portfolio {
+
+        @Param({"1", "2", "4", "8"})
+        public int parallelism;
+    }
+}
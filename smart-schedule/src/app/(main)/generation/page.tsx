@@ -1,43 +1,114 @@
 'use client'
 
-import { useState } from 'react'
+import { useEffect, useRef, useState } from 'react'
 import { useNavigate } from 'react-router-dom'
 
 const getAuthToken = () => (typeof window !== 'undefined' ? localStorage.getItem('token') : null);
 
+const API_URL = 'http://localhost:8080/api/timetable';
+const POLL_INTERVAL_MS = 1000;
+
+type JobStatus = 'QUEUED' | 'BUILDING' | 'SOLVING' | 'IMPROVING' | 'SAVING' | 'SUCCEEDED' | 'FAILED' | 'CANCELLED';
+
+interface TimetableJob {
+  id: string;
+  status: JobStatus;
+  cancelRequested: boolean;
+  totalSessions: number;
+  placedSessions: number;
+  score: number | null;
+  elapsedMs: number;
+  incremental: boolean;
+  message: string | null;
+}
+
+const STATUS_LABELS: Record<JobStatus, string> = {
+  QUEUED: 'En attente',
+  BUILDING: 'Préparation des données',
+  SOLVING: 'Placement des séances',
+  IMPROVING: "Amélioration de l'emploi du temps",
+  SAVING: 'Enregistrement',
+  SUCCEEDED: 'Terminée',
+  FAILED: 'Échec',
+  CANCELLED: 'Annulée',
+};
+
+const isFinished = (status: JobStatus) => status === 'SUCCEEDED' || status === 'FAILED' || status === 'CANCELLED';
+
 const GenerationPage = () => {
-  const [loading, setLoading] = useState(false);
-  const [message, setMessage] = useState<string | null>(null);
+  const [job, setJob] = useState<TimetableJob | null>(null);
   const [error, setError] = useState<string | null>(null);
+  const [incremental, setIncremental] = useState(false);
+  const pollRef = useRef<ReturnType<typeof setInterval> | null>(null);
   const navigate = useNavigate();
 
-  const handleGenerate = async () => {
-    setLoading(true);
-    setMessage(null);
-    setError(null);
-    try {
-      const token = getAuthToken();
-      if (!token) { navigate('/auth/login'); return; }
+  const stopPolling = () => {
+    if (pollRef.current) {
+      clearInterval(pollRef.current);
+      pollRef.current = null;
+    }
+  };
 
-      const response = await fetch('http://localhost:8080/api/timetable/generate', {
-        method: 'POST',
-        headers: { 'Authorization': `Bearer ${token}` },
-      });
+  useEffect(() => stopPolling, []);
 
-      const responseText = await response.text();
+  const authorizedFetch = async (url: string, method = 'GET') => {
+    const token = getAuthToken();
+    if (!token) { navigate('/auth/login'); return null; }
+    return fetch(url, { method, headers: { 'Authorization': `Bearer ${token}` } });
+  };
 
+  const pollJob = (id: string) => {
+    stopPolling();
+    pollRef.current = setInterval(async () => {
+      try {
+        const response = await authorizedFetch(`${API_URL}/jobs/${id}`);
+        if (!response) { stopPolling(); return; }
+        if (!response.ok) throw new Error('Impossible de suivre la génération.');
+        const current: TimetableJob = await response.json();
+        setJob(current);
+        if (isFinished(current.status)) stopPolling();
+      } catch (err: any) {
+        setError(err.message);
+        stopPolling();
+      }
+    }, POLL_INTERVAL_MS);
+  };
+
+  const handleGenerate = async () => {
+    setJob(null);
+    setError(null);
+    try {
+      const response = await authorizedFetch(`${API_URL}/generate?incremental=${incremental}`, 'POST');
+      if (!response) return;
       if (!response.ok) {
+        const responseText = await response.text();
         throw new Error(responseText || 'Failed to generate timetable.');
       }
-      
-      setMessage(responseText);
+      const submitted: TimetableJob = await response.json();
+      setJob(submitted);
+      pollJob(submitted.id);
     } catch (err: any) {
       setError(err.message);
-    } finally {
-      setLoading(false);
     }
   };
 
+  const handleCancel = async () => {
+    if (!job) return;
+    try {
+      const response = await authorizedFetch(`${API_URL}/jobs/${job.id}/cancel`, 'POST');
+      if (!response) return;
+      if (!response.ok) {
+        const responseText = await response.text();
+        throw new Error(responseText || 'Failed to cancel generation.');
+      }
+      setJob(await response.json());
+    } catch (err: any) {
+      setError(err.message);
+    }
+  };
+
+  const running = job !== null && !isFinished(job.status);
+
   return (
     <div className="p-6 bg-gray-50 min-h-screen">
       <h1 className="text-3xl font-bold text-gray-800 mb-6">Génération des Emplois du Temps</h1>
@@ -48,19 +119,62 @@ const GenerationPage = () => {
           <p className="text-gray-500 mt-2 mb-6">
             Cliquez sur le bouton ci-dessous pour lancer le processus de génération de l'emploi du temps.
             Cela supprimera l'emploi du temps existant et en créera un nouveau basé sur les cours, enseignants et salles actuels.
+            En mode incrémental, les séances déjà placées et encore valides sont conservées, y compris les modifications manuelles.
           </p>
-          
-          <button 
-            onClick={handleGenerate}
-            disabled={loading}
-            className="px-8 py-3 bg-blue-600 text-white font-semibold rounded-lg shadow-md hover:bg-blue-700 disabled:bg-gray-400 transition-all"
-          >
-            {loading ? 'Génération en cours...' : 'Lancer la Génération'}
-          </button>
-
-          {message && (
+
+          <label className="flex items-center justify-center gap-2 mb-6 text-gray-700">
+            <input
+              type="checkbox"
+              checked={incremental}
+              disabled={running}
+              onChange={(e) => setIncremental(e.target.checked)}
+            />
+            Conserver l'emploi du temps existant (génération incrémentale)
+          </label>
+
+          <div className="flex justify-center gap-4">
+            <button
+              onClick={handleGenerate}
+              disabled={running}
+              className="px-8 py-3 bg-blue-600 text-white font-semibold rounded-lg shadow-md hover:bg-blue-700 disabled:bg-gray-400 transition-all"
+            >
+              {running ? 'Génération en cours...' : 'Lancer la Génération'}
+            </button>
+            {running && (
+              <button
+                onClick={handleCancel}
+                disabled={job?.cancelRequested}
+                className="px-8 py-3 bg-red-600 text-white font-semibold rounded-lg shadow-md hover:bg-red-700 disabled:bg-gray-400 transition-all"
+              >
+                Annuler
+              </button>
+            )}
+          </div>
+
+          {job && running && (
+            <div className="mt-6 p-4 bg-blue-50 text-blue-800 rounded-md text-left">
+              <p className="font-semibold">{STATUS_LABELS[job.status]}</p>
+              {job.totalSessions > 0 && (
+                <>
+                  <div className="w-full bg-blue-100 rounded-full h-2 mt-2">
+                    <div className="bg-blue-600 h-2 rounded-full" style={{ width: `${Math.round(100 * job.placedSessions / job.totalSessions)}%` }} />
+                  </div>
+                  <p className="mt-2 text-sm">{job.placedSessions} / {job.totalSessions} séances placées</p>
+                </>
+              )}
+              {job.score !== null && <p className="text-sm">Pénalité actuelle : {job.score}</p>}
+              <p className="text-sm">Temps écoulé : {Math.round(job.elapsedMs / 1000)} s</p>
+            </div>
+          )}
+
+          {job && job.status === 'SUCCEEDED' && (
             <div className="mt-6 p-4 bg-green-100 text-green-800 rounded-md">
-              {message}
+              {job.message}
+            </div>
+          )}
+          {job && (job.status === 'FAILED' || job.status === 'CANCELLED') && (
+            <div className="mt-6 p-4 bg-red-100 text-red-800 rounded-md">
+              {job.message}
             </div>
           )}
           {error && (